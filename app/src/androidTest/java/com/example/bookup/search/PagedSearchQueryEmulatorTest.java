@@ -0,0 +1,108 @@
+package com.example.bookup.search;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.bookup.models.StudyMaterialMapper;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that server-side search reads bounded pages, against the Firestore emulator.
+ *
+ * Needs a running emulator ({@code firebase emulators:start --only firestore}), reached from the
+ * Android emulator at 10.0.2.2:8080. Each run writes to its own collection.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PagedSearchQueryEmulatorTest {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int MATCHING = 45;
+    private static final int OTHERS = 30;
+
+    private static FirebaseFirestore db;
+
+    @BeforeClass
+    public static void useEmulator() {
+        db = FirebaseFirestore.getInstance();
+        try {
+            db.useEmulator("10.0.2.2", 8080);
+        } catch (IllegalStateException e) {
+            // Already pointed at the emulator by another test class in this process
+        }
+    }
+
+    @Test
+    public void pagesAreBoundedAndCoverEveryMatch() throws Exception {
+        CollectionReference materials = db.collection("studyMaterials_test_" + UUID.randomUUID());
+        WriteBatch batch = db.batch();
+        for (int i = 0; i < MATCHING + OTHERS; i++) {
+            String title = (i < MATCHING ? "Calculus notes " : "Chemistry notes ") + i;
+            Map<String, Object> fields = new HashMap<>();
+            fields.put(StudyMaterialMapper.TITLE, title);
+            fields.put(SearchTokens.FIELD, SearchTokens.forFields(title));
+            batch.set(materials.document(), fields);
+        }
+        Tasks.await(batch.commit(), 30, TimeUnit.SECONDS);
+
+        PagedSearchQuery<DocumentSnapshot> pages = new PagedSearchQuery<>(
+                materials.whereArrayContains(SearchTokens.FIELD, "calc"), PAGE_SIZE, document -> document);
+        List<Integer> pageSizes = new ArrayList<>();
+        int found = 0;
+        boolean hasMore = true;
+        while (hasMore) {
+            List<DocumentSnapshot> page = new ArrayList<>();
+            boolean[] more = new boolean[1];
+            Exception[] error = new Exception[1];
+            CountDownLatch loaded = new CountDownLatch(1);
+            pages.loadNextPage(new PagedSearchQuery.PageCallback<DocumentSnapshot>() {
+                @Override
+                public void onPageLoaded(List<DocumentSnapshot> results, boolean hasMore) {
+                    page.addAll(results);
+                    more[0] = hasMore;
+                    loaded.countDown();
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    error[0] = e;
+                    loaded.countDown();
+                }
+            });
+            assertTrue(loaded.await(30, TimeUnit.SECONDS));
+            if (error[0] != null) throw error[0];
+
+            pageSizes.add(page.size());
+            for (DocumentSnapshot document : page) {
+                assertTrue(document.getString(StudyMaterialMapper.TITLE).startsWith("Calculus"));
+            }
+            found += page.size();
+            hasMore = more[0];
+        }
+
+        for (int size : pageSizes) {
+            assertTrue("Page of " + size, size <= PAGE_SIZE);
+        }
+        assertEquals(MATCHING, found);
+        assertEquals(3, pageSizes.size()); // 20 + 20 + 5, never the whole collection
+        assertFalse(pages.hasMore());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bookup.users;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link SubjectsMigration} against the Firestore emulator on every legacy shape of the
+ * subjects field.
+ *
+ * Needs a running emulator ({@code firebase emulators:start --only firestore}), reached from the
+ * Android emulator at 10.0.2.2:8080. Each run writes to its own collection.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SubjectsMigrationEmulatorTest {
+
+    private static final int PADDING_USERS = 250; // More than one page of the migration
+
+    private static FirebaseFirestore db;
+
+    @BeforeClass
+    public static void useEmulator() {
+        db = FirebaseFirestore.getInstance();
+        try {
+            db.useEmulator("10.0.2.2", 8080);
+        } catch (IllegalStateException e) {
+            // Already pointed at the emulator by another test class in this process
+        }
+    }
+
+    @Test
+    public void rewritesEveryShapeOnceAndIsIdempotent() throws Exception {
+        CollectionReference users = db.collection("users_test_" + UUID.randomUUID());
+        Map<String, Object> legacyMap = new HashMap<>();
+        legacyMap.put("physics", true);
+        legacyMap.put("History", false);
+
+        WriteBatch batch = db.batch();
+        batch.set(users.document("map"), Collections.singletonMap(UserSubjects.FIELD, legacyMap));
+        batch.set(users.document("list"), Collections.singletonMap(UserSubjects.FIELD,
+                Arrays.asList("Physics", "Algebra", "algebra")));
+        batch.set(users.document("string"), Collections.singletonMap(UserSubjects.FIELD, "Physics"));
+        batch.set(users.document("commas"), Collections.singletonMap(UserSubjects.FIELD, "physics, Algebra"));
+        batch.set(users.document("canonical"), Collections.singletonMap(UserSubjects.FIELD,
+                Arrays.asList("Algebra", "Physics")));
+        batch.set(users.document("missing"), Collections.singletonMap("name", "No subjects"));
+        Tasks.await(batch.commit(), 30, TimeUnit.SECONDS);
+
+        // Enough already canonical users to make the migration walk several pages
+        for (int start = 0; start < PADDING_USERS; start += 200) {
+            WriteBatch padding = db.batch();
+            for (int i = start; i < Math.min(PADDING_USERS, start + 200); i++) {
+                padding.set(users.document("padding" + i), Collections.singletonMap(UserSubjects.FIELD,
+                        Collections.singletonList("Biology")));
+            }
+            Tasks.await(padding.commit(), 30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(Integer.valueOf(4), Tasks.await(SubjectsMigration.run(db, users.getPath()), 60, TimeUnit.SECONDS));
+
+        assertSubjects(users, "map", "Physics");
+        assertSubjects(users, "list", "Algebra", "Physics");
+        assertSubjects(users, "string", "Physics");
+        assertSubjects(users, "commas", "Algebra", "Physics");
+        assertSubjects(users, "canonical", "Algebra", "Physics");
+        for (DocumentSnapshot document : Tasks.await(users.get(), 30, TimeUnit.SECONDS).getDocuments()) {
+            assertTrue(document.getId(), UserSubjects.isCanonical(document.get(UserSubjects.FIELD)));
+        }
+
+        assertEquals(Integer.valueOf(0), Tasks.await(SubjectsMigration.run(db, users.getPath()), 60, TimeUnit.SECONDS));
+    }
+
+    private static void assertSubjects(CollectionReference users, String id, String... expected) throws Exception {
+        DocumentSnapshot document = Tasks.await(users.document(id).get(), 30, TimeUnit.SECONDS);
+        List<String> expectedSubjects = Arrays.asList(expected);
+        assertEquals(id, expectedSubjects, document.get(UserSubjects.FIELD));
+    }
+}
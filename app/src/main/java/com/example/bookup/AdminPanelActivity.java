@@ -2,15 +2,24 @@ package com.example.bookup;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
+import com.example.bookup.models.StudyMaterialMigration;
+import com.example.bookup.search.SearchTokensBackfill;
+import com.example.bookup.tutors.TutorRankingBackfill;
+import com.example.bookup.users.SubjectsMigration;
 import com.google.android.material.button.MaterialButton;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.firebase.firestore.FirebaseFirestore;
 
 public class AdminPanelActivity extends AppCompatActivity {
 
+    private static final String TAG = "AdminPanelActivity";
+
     // UI Elements
     private MaterialButton btnManageNews;
     private MaterialButton btnManageMaterials;
@@ -18,6 +27,10 @@ public class AdminPanelActivity extends AppCompatActivity {
     private MaterialButton btnManageRequests;
     private MaterialButton btnViewStats;
     private MaterialButton btnAppSettings;
+    private MaterialButton btnMigrateUserSubjects;
+    private MaterialButton btnMigrateStudyMaterials;
+    private MaterialButton btnRankTutors;
+    private MaterialButton btnBackfillSearchTokens;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -50,6 +63,10 @@ public class AdminPanelActivity extends AppCompatActivity {
         btnManageRequests = findViewById(R.id.btn_manage_requests);
         btnViewStats = findViewById(R.id.btn_view_stats);
         btnAppSettings = findViewById(R.id.btn_app_settings);
+        btnMigrateUserSubjects = findViewById(R.id.btn_migrate_user_subjects);
+        btnMigrateStudyMaterials = findViewById(R.id.btn_migrate_study_materials);
+        btnRankTutors = findViewById(R.id.btn_rank_tutors);
+        btnBackfillSearchTokens = findViewById(R.id.btn_backfill_search_tokens);
     }
 
     private void setupClickListeners() {
@@ -82,5 +99,86 @@ public class AdminPanelActivity extends AppCompatActivity {
             // Launch the activity for global app configurations
             startActivity(new Intent(AdminPanelActivity.this, AppSettingsActivity.class));
         });
+
+        btnMigrateUserSubjects.setOnClickListener(v -> confirmMigrateUserSubjects());
+        btnMigrateStudyMaterials.setOnClickListener(v -> confirmMigrateStudyMaterials());
+        btnRankTutors.setOnClickListener(v -> rankTutors());
+        btnBackfillSearchTokens.setOnClickListener(v -> backfillSearchTokens());
+    }
+
+    private void confirmMigrateUserSubjects() {
+        new MaterialAlertDialogBuilder(this)
+                .setTitle("Migrate User Subjects?")
+                .setMessage("Rewrites the subjects of all user documents into the current format. Documents already in that format are left unchanged.")
+                .setPositiveButton("Migrate", (dialog, which) -> migrateUserSubjects())
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void migrateUserSubjects() {
+        btnMigrateUserSubjects.setEnabled(false);
+        SubjectsMigration.run(FirebaseFirestore.getInstance())
+                .addOnSuccessListener(migrated -> {
+                    btnMigrateUserSubjects.setEnabled(true);
+                    Toast.makeText(this, "Migrated subjects of " + migrated + " user(s).", Toast.LENGTH_LONG).show();
+                })
+                .addOnFailureListener(e -> {
+                    btnMigrateUserSubjects.setEnabled(true);
+                    Log.e(TAG, "Subjects migration failed: " + e.getMessage(), e);
+                    Toast.makeText(this, "Migration failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                });
+    }
+
+    private void confirmMigrateStudyMaterials() {
+        new MaterialAlertDialogBuilder(this)
+                .setTitle("Migrate Study Materials?")
+                .setMessage("Renames the fields of study materials uploaded by older app versions to the current format. Materials already in that format are left unchanged.")
+                .setPositiveButton("Migrate", (dialog, which) -> migrateStudyMaterials())
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void migrateStudyMaterials() {
+        btnMigrateStudyMaterials.setEnabled(false);
+        StudyMaterialMigration.run(FirebaseFirestore.getInstance())
+                .addOnSuccessListener(migrated -> {
+                    btnMigrateStudyMaterials.setEnabled(true);
+                    Toast.makeText(this, "Migrated " + migrated + " study material(s).", Toast.LENGTH_LONG).show();
+                })
+                .addOnFailureListener(e -> {
+                    btnMigrateStudyMaterials.setEnabled(true);
+                    Log.e(TAG, "Study material migration failed: " + e.getMessage(), e);
+                    Toast.makeText(this, "Migration failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                });
+    }
+
+    // Safe to repeat, so no confirmation; only tutors whose score changed are written
+    private void rankTutors() {
+        btnRankTutors.setEnabled(false);
+        TutorRankingBackfill.run(FirebaseFirestore.getInstance())
+                .addOnSuccessListener(ranked -> {
+                    btnRankTutors.setEnabled(true);
+                    Toast.makeText(this, "Updated the ranking of " + ranked + " tutor(s).", Toast.LENGTH_LONG).show();
+                })
+                .addOnFailureListener(e -> {
+                    btnRankTutors.setEnabled(true);
+                    Log.e(TAG, "Tutor ranking failed: " + e.getMessage(), e);
+                    Toast.makeText(this, "Ranking failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                });
+    }
+
+    // Also safe to repeat; only documents whose search tokens changed are written
+    private void backfillSearchTokens() {
+        btnBackfillSearchTokens.setEnabled(false);
+        SearchTokensBackfill.run(FirebaseFirestore.getInstance())
+                .addOnSuccessListener(updated -> {
+                    btnBackfillSearchTokens.setEnabled(true);
+                    Toast.makeText(this, "Updated the search tokens of " + updated + " document(s); server-side search is on.", Toast.LENGTH_LONG).show();
+                })
+                .addOnFailureListener(e -> {
+                    btnBackfillSearchTokens.setEnabled(true);
+                    Log.e(TAG, "Search token backfill failed: " + e.getMessage(), e);
+                    Toast.makeText(this, "Backfill failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                });
     }
 }
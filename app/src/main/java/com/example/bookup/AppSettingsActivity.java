@@ -1,13 +1,28 @@
 package com.example.bookup;
 
 import android.os.Bundle;
+import android.util.Log;
+import android.widget.CompoundButton;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
-// Placeholder for managing global app settings as an admin
+import com.example.bookup.search.SearchSettings;
+import com.google.android.material.switchmaterial.SwitchMaterial;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+// Global app settings, managed by admins
 public class AppSettingsActivity extends AppCompatActivity {
 
+    private static final String TAG = "AppSettingsActivity";
+
+    private SwitchMaterial switchServerSideSearch;
+    private FirebaseFirestore db;
+
+    private final CompoundButton.OnCheckedChangeListener serverSideSearchListener =
+            (buttonView, isChecked) -> setServerSideSearch(isChecked);
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -21,7 +36,33 @@ public class AppSettingsActivity extends AppCompatActivity {
             getSupportActionBar().setTitle(R.string.app_settings_title);
         }
 
-        // TODO: Implement UI for global app settings, e.g., default values, feature toggles
+        db = FirebaseFirestore.getInstance();
+        switchServerSideSearch = findViewById(R.id.switch_server_side_search);
+        loadServerSideSearch();
+    }
+
+    // Disabled until the current value is shown, so it is never toggled from a wrong starting state
+    private void loadServerSideSearch() {
+        switchServerSideSearch.setEnabled(false);
+        SearchSettings.isServerSideSearch(this, db).addOnSuccessListener(this, enabled -> {
+            switchServerSideSearch.setChecked(enabled);
+            switchServerSideSearch.setOnCheckedChangeListener(serverSideSearchListener);
+            switchServerSideSearch.setEnabled(true);
+        });
+    }
+
+    private void setServerSideSearch(boolean enabled) {
+        switchServerSideSearch.setEnabled(false);
+        SearchSettings.setServerSideSearch(db, enabled)
+                .addOnSuccessListener(this, unused -> switchServerSideSearch.setEnabled(true))
+                .addOnFailureListener(this, e -> {
+                    Log.e(TAG, "Could not change the search mode: " + e.getMessage(), e);
+                    Toast.makeText(this, "Failed to change the search mode: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    switchServerSideSearch.setOnCheckedChangeListener(null); // Revert without writing again
+                    switchServerSideSearch.setChecked(!enabled);
+                    switchServerSideSearch.setOnCheckedChangeListener(serverSideSearchListener);
+                    switchServerSideSearch.setEnabled(true);
+                });
     }
 
     @Override
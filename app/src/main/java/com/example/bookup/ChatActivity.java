@@ -1,11 +1,9 @@
 package com.example.bookup;
 
-import android.content.Context;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.util.Log;
 import android.view.View;
-import android.view.inputmethod.InputMethodManager;
 import android.widget.ImageButton;
 import android.widget.ProgressBar;
 import android.widget.TextView;
@@ -15,29 +13,43 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.bookup.chat.ChannelSummaries;
+import com.example.bookup.chat.ChatMessageStore;
+import com.example.bookup.chat.LocalChatDatabase;
+import com.example.bookup.chat.OutgoingMessageQueue;
+import com.example.bookup.models.ChannelSummaryMapper;
 import com.example.bookup.models.ChatChannel;
+import com.example.bookup.models.ChatChannelMapper;
 import com.example.bookup.models.ChatMessage;
+import com.example.bookup.models.ChatMessageMapper;
+import com.example.bookup.query.FirestoreDecoding;
+import com.example.bookup.users.UserProfileRepository;
+import com.google.android.gms.tasks.Task;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
 import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.WriteBatch;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ChatActivity extends AppCompatActivity {
 
@@ -48,6 +60,11 @@ public class ChatActivity extends AppCompatActivity {
     public static final String EXTRA_OTHER_USER_NAME = "extra_other_user_name";
     public static final String EXTRA_IS_GROUP_CHAT = "extra_is_group_chat"; // For future group chat support
 
+    // Only the newest messages are live; older ones are read a page at a time while scrolling up
+    private static final int LIVE_WINDOW_SIZE = 50;
+    private static final int OLDER_PAGE_SIZE = 30;
+    private static final int LOAD_OLDER_THRESHOLD = 5; // Items from the top at which the next page is requested
+
     // UI Elements
     private RecyclerView recyclerChatMessages;
     private TextInputEditText editTextMessageInput;
@@ -70,7 +87,15 @@ public class ChatActivity extends AppCompatActivity {
 
     // Adapter and Data
     private MessageAdapter messageAdapter;
-    private List<ChatMessage> messageList;
+    private final ChatMessageStore messageStore = new ChatMessageStore();
+    private ListUpdateCallback messageUpdates; // Forwards store changes to messageAdapter
+    private DocumentSnapshot oldestLoadedMessage; // Cursor for the next page of older messages
+    private boolean hasOlderMessages;
+    private boolean loadingOlderMessages;
+    private LocalChatDatabase localChatDatabase;
+    private boolean liveWindowLoaded; // True once the current listener delivered its first snapshot
+    private OutgoingMessageQueue outgoingMessages; // Created once chatChannelId is known
+    private final Set<String> abandonedMessageIds = new HashSet<>(); // Sends that failed for good
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -100,11 +125,23 @@ public class ChatActivity extends AppCompatActivity {
             return;
         }
 
+        // Known participants; the outgoing queue adds the channel's other members from its document
+        participantNames.put(currentUser.getUid(), null);
+        if (otherUserId != null) {
+            participantNames.put(otherUserId, otherUserName);
+        }
+
         initViews();
         setupToolbar();
         setupRecyclerView();
         setupClickListeners();
 
+        localChatDatabase = LocalChatDatabase.getInstance(this);
+        if (chatChannelId != null) {
+            showCachedMessages();
+            createOutgoingMessageQueue();
+        }
+
         // Fetch current user's display name once
         fetchCurrentUserName();
     }
@@ -125,6 +162,14 @@ public class ChatActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (outgoingMessages != null) {
+            outgoingMessages.detach(); // Hands any coalesced messages to Firestore right away
+        }
+    }
+
     @Override
     public boolean onSupportNavigateUp() {
         onBackPressed();
@@ -149,14 +194,24 @@ public class ChatActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        messageList = new ArrayList<>();
         // Pass isGroupChat to adapter to determine if sender names should be shown
-        messageAdapter = new MessageAdapter(messageList, currentUser.getUid(), isGroupChat);
+        messageAdapter = new MessageAdapter(messageStore, currentUser.getUid(), isGroupChat);
+        messageUpdates = new AdapterListUpdateCallback(messageAdapter);
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         // Important: stackFromEnd for chat apps
         layoutManager.setStackFromEnd(true);
         recyclerChatMessages.setLayoutManager(layoutManager);
         recyclerChatMessages.setAdapter(messageAdapter);
+
+        // Load the previous page when the user scrolls up near the oldest loaded message
+        recyclerChatMessages.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= LOAD_OLDER_THRESHOLD) {
+                    loadOlderMessages();
+                }
+            }
+        });
     }
 
     private void setupClickListeners() {
@@ -164,10 +219,10 @@ public class ChatActivity extends AppCompatActivity {
     }
 
     private void fetchCurrentUserName() {
-        db.collection("users").document(currentUser.getUid()).get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String name = documentSnapshot.getString("name");
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
+                    if (profile.exists()) {
+                        String name = profile.getName();
                         if (name != null && !name.isEmpty()) {
                             currentUserName = name;
                         } else {
@@ -204,50 +259,17 @@ public class ChatActivity extends AppCompatActivity {
     }
 
     private void findOrCreateChatChannel() {
-        // This method is called if chatChannelId is null, meaning a new 1-to-1 chat is initiated
-        // We need to check if a channel already exists between these two users
+        // This method is called if chatChannelId is null, meaning a new 1-to-1 chat is initiated.
+        // 1-to-1 channels live at an ID derived from the two UIDs, so finding the existing channel
+        // is a single document read, and the transaction guarantees only one channel is ever created.
         setLoading(true);
 
         List<String> participants = new ArrayList<>();
         participants.add(currentUser.getUid());
         participants.add(otherUserId);
 
-        // Firestore query to find an existing channel between these two specific participants
-        // This works reliably for 1-to-1 chats as participantIds array will have the same two UIDs
-        db.collection("chatChannels")
-                .whereArrayContains("participantIds", currentUser.getUid())
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    String foundChannelId = null;
-                    for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
-                        ChatChannel channel = doc.toObject(ChatChannel.class);
-                        if (channel.getParticipantIds().size() == 2 && channel.getParticipantIds().contains(otherUserId)) {
-                            foundChannelId = doc.getId();
-                            break;
-                        }
-                    }
-
-                    if (foundChannelId != null) {
-                        chatChannelId = foundChannelId;
-                        Log.d(TAG, "Found existing chat channel: " + chatChannelId);
-                        listenForMessages();
-                    } else {
-                        // No existing channel, create a new one
-                        Log.d(TAG, "No existing channel, creating new one with " + otherUserId);
-                        createChatChannel(participants);
-                    }
-                    setLoading(false);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error finding chat channel: " + e.getMessage());
-                    Toast.makeText(this, "Failed to find/create chat. Try again.", Toast.LENGTH_LONG).show();
-                    setLoading(false);
-                });
-    }
-
-    private void createChatChannel(List<String> participants) {
-        DocumentReference newChannelRef = db.collection("chatChannels").document();
-        chatChannelId = newChannelRef.getId();
+        DocumentReference channelRef = db.collection("chatChannels")
+                .document(ChatChannel.directChannelId(currentUser.getUid(), otherUserId));
 
         ChatChannel newChannel = new ChatChannel();
         newChannel.setParticipantIds(participants);
@@ -256,15 +278,32 @@ public class ChatActivity extends AppCompatActivity {
         newChannel.setLastMessageTimestamp(new Date()); // Current time
         newChannel.setIsGroupChat(false); // For 1-to-1 chat
 
-        newChannelRef.set(newChannel)
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "New chat channel created: " + chatChannelId);
+        db.runTransaction(transaction -> {
+                    DocumentSnapshot existing = transaction.get(channelRef);
+                    if (!existing.exists()) {
+                        transaction.set(channelRef, ChatChannelMapper.encode(newChannel));
+                        // Both participants' chat lists show the new channel
+                        for (String uid : participants) {
+                            Map<String, Object> summary = ChannelSummaries.fieldsFor(uid, participants, participantNames, newChannel.getLastMessage());
+                            summary.put(ChannelSummaryMapper.LAST_MESSAGE_TIMESTAMP, newChannel.getLastMessageTimestamp());
+                            summary.put(ChannelSummaryMapper.UNREAD_COUNT, 0);
+                            transaction.set(ChannelSummaries.document(db, uid, channelRef.getId()), summary, SetOptions.merge());
+                        }
+                        return true;
+                    }
+                    return false;
+                })
+                .addOnSuccessListener(created -> {
+                    chatChannelId = channelRef.getId();
+                    Log.d(TAG, (created ? "New chat channel created: " : "Found existing chat channel: ") + chatChannelId);
+                    createOutgoingMessageQueue();
+                    setLoading(false);
                     listenForMessages();
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error creating chat channel: " + e.getMessage());
-                    Toast.makeText(this, "Failed to create chat channel.", Toast.LENGTH_LONG).show();
-                    finish();
+                    Log.e(TAG, "Error finding/creating chat channel: " + e.getMessage());
+                    Toast.makeText(this, "Failed to find/create chat. Try again.", Toast.LENGTH_LONG).show();
+                    setLoading(false);
                 });
     }
 
@@ -275,34 +314,110 @@ public class ChatActivity extends AppCompatActivity {
             return;
         }
 
-        setLoading(true);
+        setLoading(messageStore.size() == 0); // Cached messages stay usable while the listener connects
         CollectionReference messagesRef = db.collection("chatChannels").document(chatChannelId).collection("messages");
-
-        chatMessagesListener = messagesRef.orderBy("timestamp", Query.Direction.ASCENDING)
-                .addSnapshotListener((snapshots, e) -> {
+        liveWindowLoaded = false;
+        oldestLoadedMessage = null;
+        hasOlderMessages = false;
+
+        // Metadata changes are included so a sent message is rebound when the server confirms it
+        Query liveWindow = messagesRef.orderBy(ChatMessageMapper.TIMESTAMP, Query.Direction.ASCENDING).limitToLast(LIVE_WINDOW_SIZE);
+        chatMessagesListener = FirestoreDecoding.listen(liveWindow, MetadataChanges.INCLUDE,
+                new ChatMessageStore.WindowDecoder(), (snapshots, e) -> {
                     if (e != null) {
                         Log.w(TAG, "Listen failed.", e);
                         setLoading(false);
                         return;
                     }
 
-                    if (snapshots != null && !snapshots.isEmpty()) {
-                        messageList.clear();
-                        for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                            ChatMessage message = doc.toObject(ChatMessage.class);
-                            if (message != null) {
-                                messageList.add(message);
-                            }
+                    if (snapshots != null) {
+                        if (oldestLoadedMessage == null && snapshots.getOldestDocument() != null) {
+                            // First messages seen: a full window means there may be older ones
+                            oldestLoadedMessage = snapshots.getOldestDocument();
+                            hasOlderMessages = snapshots.size() == LIVE_WINDOW_SIZE;
+                        }
+                        String previousLastId = lastMessageId();
+                        boolean seenNewMessages;
+                        List<ChatMessage> window = snapshots.getWindow();
+                        if (window != null) {
+                            // The first snapshot replays the whole window; reconcile it with what is
+                            // shown (cached messages, or the window of a previous listener) in one diff
+                            messageStore.replaceAll(window, messageUpdates);
+                            localChatDatabase.saveMessages(chatChannelId, window);
+                            liveWindowLoaded = true;
+                            seenNewMessages = true;
+                        } else {
+                            // Only the changed documents are deserialized and rebound
+                            List<ChatMessage> changed = messageStore.applyChanges(snapshots, LIVE_WINDOW_SIZE, messageUpdates);
+                            localChatDatabase.saveMessages(chatChannelId, changed);
+                            seenNewMessages = containsMessageFromOthers(changed);
+                        }
+                        if (seenNewMessages) {
+                            // The chat is open, so everything delivered so far counts as read
+                            ChannelSummaries.markRead(db, currentUser.getUid(), chatChannelId);
+                        }
+                        for (String messageId : abandonedMessageIds) {
+                            messageStore.removePending(messageId, messageUpdates); // In case the rollback arrived after the failure
+                        }
+                        String lastId = lastMessageId();
+                        if (lastId != null && !lastId.equals(previousLastId)) {
+                            recyclerChatMessages.scrollToPosition(messageStore.size() - 1); // Scroll to new last message
+                        } else if (messageStore.size() == 0) {
+                            Log.d(TAG, "Current chat has no messages.");
                         }
-                        messageAdapter.notifyDataSetChanged();
-                        recyclerChatMessages.scrollToPosition(messageList.size() - 1); // Scroll to last message
-                        setLoading(false);
-                    } else {
-                        Log.d(TAG, "Current chat has no messages.");
-                        messageList.clear();
-                        messageAdapter.notifyDataSetChanged();
-                        setLoading(false);
                     }
+                    setLoading(false);
+                });
+    }
+
+    // Renders the messages cached on disk until the live listener delivers its first snapshot
+    private void showCachedMessages() {
+        localChatDatabase.loadMessages(chatChannelId, LIVE_WINDOW_SIZE, cachedMessages -> {
+            if (isFinishing() || liveWindowLoaded || cachedMessages.isEmpty()) return;
+            messageStore.replaceAll(cachedMessages, messageUpdates);
+            recyclerChatMessages.scrollToPosition(messageStore.size() - 1);
+            setLoading(false);
+        });
+    }
+
+    private boolean containsMessageFromOthers(List<ChatMessage> messages) {
+        for (ChatMessage message : messages) {
+            if (!currentUser.getUid().equals(message.getSenderId())) return true;
+        }
+        return false;
+    }
+
+    private String lastMessageId() {
+        return messageStore.size() > 0 ? messageStore.get(messageStore.size() - 1).getId() : null;
+    }
+
+    // Reads the page of messages just before the oldest one loaded, with an endBefore cursor
+    private void loadOlderMessages() {
+        if (loadingOlderMessages || !hasOlderMessages || oldestLoadedMessage == null || chatChannelId == null) return;
+        loadingOlderMessages = true;
+        DocumentSnapshot cursor = oldestLoadedMessage;
+
+        Task<QuerySnapshot> page = db.collection("chatChannels").document(chatChannelId).collection("messages")
+                .orderBy(ChatMessageMapper.TIMESTAMP, Query.Direction.ASCENDING)
+                .endBefore(cursor)
+                .limitToLast(OLDER_PAGE_SIZE)
+                .get();
+        Task<List<ChatMessage>> decodedPage = FirestoreDecoding.decodeQuery(page, ChatMessageStore::decode);
+        decodedPage
+                .addOnSuccessListener(olderMessages -> {
+                    loadingOlderMessages = false;
+                    if (cursor != oldestLoadedMessage) return; // The listener was restarted meanwhile
+                    List<DocumentSnapshot> documents = page.getResult().getDocuments();
+                    hasOlderMessages = documents.size() == OLDER_PAGE_SIZE;
+                    if (documents.isEmpty()) return;
+
+                    oldestLoadedMessage = documents.get(0);
+                    messageStore.prependOlder(olderMessages, messageUpdates);
+                    localChatDatabase.saveMessages(chatChannelId, olderMessages);
+                })
+                .addOnFailureListener(e -> {
+                    loadingOlderMessages = false;
+                    Log.e(TAG, "Error loading older messages: " + e.getMessage());
                 });
     }
 
@@ -318,15 +433,6 @@ public class ChatActivity extends AppCompatActivity {
             return;
         }
 
-        // Hide keyboard
-        InputMethodManager imm = (InputMethodManager) getSystemService(Context.INPUT_METHOD_SERVICE);
-        imm.hideSoftInputFromWindow(editTextMessageInput.getWindowToken(), 0);
-
-        setLoading(true);
-
-        DocumentReference messageRef = db.collection("chatChannels").document(chatChannelId).collection("messages").document();
-        DocumentReference channelRef = db.collection("chatChannels").document(chatChannelId);
-
         // Create ChatMessage object
         ChatMessage chatMessage = new ChatMessage(
                 currentUser.getUid(),
@@ -336,26 +442,28 @@ public class ChatActivity extends AppCompatActivity {
                 false // Not yet read by other participant
         );
 
-        // Use a Firestore WriteBatch to update both the message and the chat channel atomically
-        WriteBatch batch = db.batch();
-        batch.set(messageRef, chatMessage); // Add new message
-        // Update lastMessage and lastMessageTimestamp in the parent ChatChannel
-        batch.update(channelRef,
-                "lastMessage", messageText,
-                "lastMessageTimestamp", FieldValue.serverTimestamp()
-        );
+        // The message is shown as pending right away; the queue writes it (batched with any
+        // messages sent right after it) together with the channel's lastMessage
+        outgoingMessages.enqueue(chatMessage);
+        messageStore.addPending(chatMessage, messageUpdates);
+        recyclerChatMessages.scrollToPosition(messageStore.size() - 1);
+        editTextMessageInput.setText(""); // Clear input field, the keyboard stays open for the next message
+    }
 
-        batch.commit()
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Message sent and channel updated successfully.");
-                    editTextMessageInput.setText(""); // Clear input field
-                    setLoading(false);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error sending message: " + e.getMessage());
-                    Toast.makeText(ChatActivity.this, "Failed to send message: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    setLoading(false);
-                });
+    private void createOutgoingMessageQueue() {
+        outgoingMessages = new OutgoingMessageQueue(db, chatChannelId, participantNames, (messages, willRetry, e) -> {
+            for (ChatMessage message : messages) {
+                if (willRetry) {
+                    messageStore.addPending(message, messageUpdates); // Keeps it shown until the retry
+                } else {
+                    abandonedMessageIds.add(message.getId());
+                    messageStore.removePending(message.getId(), messageUpdates);
+                }
+            }
+            if (!willRetry) {
+                Toast.makeText(ChatActivity.this, "Failed to send message: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
     }
 
 
@@ -8,39 +8,53 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.example.bookup.models.ChatChannel;
+import com.example.bookup.adapters.StableIds;
+import com.example.bookup.models.ChannelSummary;
 import com.google.android.material.card.MaterialCardView; // NEW
 import com.google.android.material.imageview.ShapeableImageView;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
 
-import java.util.List;
+/**
+ * Shows the current user's chat channels from their channel summaries.
+ */
+public class ChatChannelAdapter extends ListAdapter<ChannelSummary, ChatChannelAdapter.ChatChannelViewHolder> {
 
-public class ChatChannelAdapter extends RecyclerView.Adapter<ChatChannelAdapter.ChatChannelViewHolder> {
+    private static final int MAX_UNREAD_SHOWN = 99;
+
+    private static final DiffUtil.ItemCallback<ChannelSummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<ChannelSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ChannelSummary oldItem, @NonNull ChannelSummary newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ChannelSummary oldItem, @NonNull ChannelSummary newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
-    private List<ChatChannel> chatChannels;
     private OnChatChannelClickListener listener;
-    private String currentUserId;
 
     public interface OnChatChannelClickListener {
-        void onChatChannelClick(ChatChannel channel);
+        void onChatChannelClick(ChannelSummary channel);
     }
 
     public void setOnChatChannelClickListener(OnChatChannelClickListener listener) {
         this.listener = listener;
     }
 
-    public ChatChannelAdapter(List<ChatChannel> chatChannels) {
-        this.chatChannels = chatChannels;
-        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        if (user != null) {
-            this.currentUserId = user.getUid();
-        } else {
-            this.currentUserId = ""; // Should not happen if user is authenticated to view chats
-        }
+    public ChatChannelAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forDocumentId(getItem(position).getId());
     }
 
     @NonNull
@@ -52,10 +66,10 @@ public class ChatChannelAdapter extends RecyclerView.Adapter<ChatChannelAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ChatChannelViewHolder holder, int position) {
-        ChatChannel currentChannel = chatChannels.get(position);
+        ChannelSummary currentChannel = getItem(position);
 
-        // Determine the other participant's name
-        String otherParticipantName = currentChannel.getOtherParticipantName(currentUserId);
+        // The summary's title is the other participant's name
+        String otherParticipantName = currentChannel.getTitle();
         holder.textChatParticipantName.setText(otherParticipantName != null ? otherParticipantName : "Group Chat");
 
         holder.textChatLastMessage.setText(currentChannel.getLastMessage() != null ? currentChannel.getLastMessage() : "");
@@ -79,12 +93,10 @@ public class ChatChannelAdapter extends RecyclerView.Adapter<ChatChannelAdapter.
                 .into(holder.imgChatParticipantProfile);
 
         // --- NEW: Unread Indicator Handling ---
-        // For now, this is static as ChatChannel model doesn't have unreadCount.
-        // In a real scenario, you'd calculate this per user.
-        int unreadCount = 0; // Replace with actual unread count from ChatChannel model
+        long unreadCount = currentChannel.getUnreadCount(); // Maintained per user in the channel summary
         if (unreadCount > 0) {
             holder.cardUnreadIndicator.setVisibility(View.VISIBLE);
-            holder.textUnreadCount.setText(String.valueOf(unreadCount));
+            holder.textUnreadCount.setText(unreadCount > MAX_UNREAD_SHOWN ? MAX_UNREAD_SHOWN + "+" : String.valueOf(unreadCount));
         } else {
             holder.cardUnreadIndicator.setVisibility(View.GONE);
         }
@@ -98,11 +110,6 @@ public class ChatChannelAdapter extends RecyclerView.Adapter<ChatChannelAdapter.
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return chatChannels.size();
-    }
-
     public static class ChatChannelViewHolder extends RecyclerView.ViewHolder {
         ShapeableImageView imgChatParticipantProfile;
         TextView textChatParticipantName;
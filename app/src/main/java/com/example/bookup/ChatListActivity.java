@@ -16,17 +16,13 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
-import com.example.bookup.models.ChatChannel;
+import com.example.bookup.chat.ChatChannelRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class ChatListActivity extends AppCompatActivity {
 
@@ -44,12 +40,10 @@ public class ChatListActivity extends AppCompatActivity {
 
     // Firebase
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
     private FirebaseUser currentUser;
 
     // Adapter and Data
     private ChatChannelAdapter chatChannelAdapter;
-    private List<ChatChannel> chatChannelList;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -67,7 +61,6 @@ public class ChatListActivity extends AppCompatActivity {
 
         // Initialize Firebase
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
         currentUser = mAuth.getCurrentUser();
 
         if (currentUser == null) {
@@ -81,15 +74,7 @@ public class ChatListActivity extends AppCompatActivity {
         setupSwipeRefresh();
         setupClickListeners();
 
-        fetchChatChannels(); // Initial fetch
-    }
-
-    @Override
-    protected void onResume() { // Added onResume to refresh chat list when returning from ChatActivity
-        super.onResume();
-        if (currentUser != null) {
-            fetchChatChannels();
-        }
+        observeChatChannels(); // Stays current while the activity is started, including after returning from ChatActivity
     }
 
     @Override
@@ -110,8 +95,7 @@ public class ChatListActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        chatChannelList = new ArrayList<>();
-        chatChannelAdapter = new ChatChannelAdapter(chatChannelList);
+        chatChannelAdapter = new ChatChannelAdapter();
         recyclerChatChannels.setLayoutManager(new LinearLayoutManager(this));
         recyclerChatChannels.setAdapter(chatChannelAdapter);
 
@@ -120,8 +104,8 @@ public class ChatListActivity extends AppCompatActivity {
             if (currentUser != null) {
                 Intent intent = new Intent(ChatListActivity.this, ChatActivity.class);
                 intent.putExtra(ChatActivity.EXTRA_CHAT_CHANNEL_ID, channel.getId());
-                intent.putExtra(ChatActivity.EXTRA_OTHER_USER_ID, channel.getOtherParticipantId(currentUser.getUid()));
-                intent.putExtra(ChatActivity.EXTRA_OTHER_USER_NAME, channel.getOtherParticipantName(currentUser.getUid()));
+                intent.putExtra(ChatActivity.EXTRA_OTHER_USER_ID, channel.getOtherParticipantId());
+                intent.putExtra(ChatActivity.EXTRA_OTHER_USER_NAME, channel.getTitle());
                 intent.putExtra(ChatActivity.EXTRA_IS_GROUP_CHAT, channel.getIsGroupChat());
                 startActivity(intent);
             } else {
@@ -131,7 +115,8 @@ public class ChatListActivity extends AppCompatActivity {
     }
 
     private void setupSwipeRefresh() {
-        swipeRefreshLayout.setOnRefreshListener(this::fetchChatChannels);
+        // The shared listener keeps the list current, so there is nothing to re-fetch
+        swipeRefreshLayout.setOnRefreshListener(() -> swipeRefreshLayout.setRefreshing(false));
         swipeRefreshLayout.setColorSchemeResources(R.color.colorPrimary, R.color.colorSecondary);
     }
 
@@ -150,32 +135,27 @@ public class ChatListActivity extends AppCompatActivity {
     }
 
 
-    private void fetchChatChannels() {
-        setLoading(true);
-
-        db.collection("chatChannels")
-                .whereArrayContains("participantIds", currentUser.getUid())
-                .orderBy("lastMessageTimestamp", Query.Direction.DESCENDING)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    chatChannelList.clear();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        ChatChannel channel = document.toObject(ChatChannel.class);
-                        channel.setId(document.getId());
-                        chatChannelList.add(channel);
-                    }
-                    chatChannelAdapter.notifyDataSetChanged();
-                    updateEmptyState(chatChannelList.isEmpty());
-                    setLoading(false);
-                    if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error fetching chat channels: " + e.getMessage(), e);
-                    Toast.makeText(ChatListActivity.this, "Failed to load chats.", Toast.LENGTH_SHORT).show();
-                    updateEmptyState(true); // Show empty state on error
-                    setLoading(false);
-                    if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
-                });
+    // The list comes from the shared repository, which also serves ChatListFragment
+    private void observeChatChannels() {
+        ChatChannelRepository.ChannelListLiveData channels =
+                ChatChannelRepository.getInstance(this).getChannels(currentUser.getUid());
+        setLoading(channels.getValue() == null);
+
+        channels.observe(this, chatChannels -> {
+            if (chatChannels == null) return;
+            chatChannelAdapter.submitList(new ArrayList<>(chatChannels));
+            updateEmptyState(chatChannels.isEmpty());
+            setLoading(false);
+        });
+        channels.getErrors().observe(this, e -> {
+            if (e == null) return;
+            Log.e(TAG, "Error fetching chat channels: " + e.getMessage(), e);
+            Toast.makeText(ChatListActivity.this, "Failed to load chats.", Toast.LENGTH_SHORT).show();
+            if (chatChannelAdapter.getItemCount() == 0) {
+                updateEmptyState(true); // Show empty state on error
+            }
+            setLoading(false);
+        });
     }
 
     private void updateEmptyState(boolean isEmpty) {
@@ -11,6 +11,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.example.bookup.models.NewsItem; // Import your NewsItem model
+import com.example.bookup.models.NewsItemMapper;
+import com.example.bookup.users.UserProfileRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
@@ -103,11 +105,10 @@ public class CreateNewsItemActivity extends AppCompatActivity {
             return;
         }
 
-        db.collection("users").document(currentUser.getUid()).get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        Boolean isAdmin = documentSnapshot.getBoolean("isAdmin");
-                        if (isAdmin == null || !isAdmin) { // If isAdmin is null or false
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
+                    if (profile.exists()) {
+                        if (!profile.isAdmin()) { // If isAdmin is null or false
                             Toast.makeText(this, "Access denied: Not an admin.", Toast.LENGTH_LONG).show();
                             finish();
                         }
@@ -160,9 +161,9 @@ public class CreateNewsItemActivity extends AppCompatActivity {
         newsItem.setDescription(description);
         newsItem.setImageUrl(imageUrl);
         newsItem.setSource(source);
-        // The timestamp field in NewsItem model has @ServerTimestamp, so Firestore will populate it automatically
+        // The timestamp is left null, so NewsItemMapper stores the server time
 
-        db.collection("newsFeed").add(newsItem) // Directly save the NewsItem object
+        db.collection("newsFeed").add(NewsItemMapper.encode(newsItem))
                 .addOnSuccessListener(documentReference -> {
                     setLoading(false);
                     Toast.makeText(CreateNewsItemActivity.this, "News item published successfully!", Toast.LENGTH_SHORT).show();
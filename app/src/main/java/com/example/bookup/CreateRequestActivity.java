@@ -13,17 +13,15 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.example.bookup.models.HelpRequest;
+import com.example.bookup.models.HelpRequestMapper;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.HashMap;
-import java.util.Map;
 
 public class CreateRequestActivity extends AppCompatActivity {
 
@@ -140,16 +138,15 @@ public class CreateRequestActivity extends AppCompatActivity {
         }
 
         // Prepare data for Firestore
-        Map<String, Object> requestData = new HashMap<>();
-        requestData.put("title", title);
-        requestData.put("description", description);
-        requestData.put("subject", subject);
-        requestData.put("requestedByUid", currentUser.getUid());
-        requestData.put("requestedByName", requestedByName);
-        requestData.put("status", "Open"); // Initial status
-        requestData.put("timestamp", FieldValue.serverTimestamp());
-
-        db.collection("helpRequests").add(requestData)
+        HelpRequest request = new HelpRequest();
+        request.setTitle(title);
+        request.setDescription(description);
+        request.setSubject(subject);
+        request.setRequestedByUid(currentUser.getUid());
+        request.setRequestedByName(requestedByName);
+        request.setStatus("Open"); // Initial status; timestamp is left null, so the server time is stored
+
+        db.collection("helpRequests").add(HelpRequestMapper.encode(request))
                 .addOnSuccessListener(documentReference -> {
                     setLoading(false);
                     Toast.makeText(CreateRequestActivity.this, "Help request posted successfully!", Toast.LENGTH_SHORT).show();
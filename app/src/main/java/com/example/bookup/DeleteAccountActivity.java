@@ -11,6 +11,9 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+
+import com.example.bookup.chat.LocalChatDatabase;
+import com.example.bookup.dashboard.DashboardSnapshotCache;
 import com.google.firebase.auth.UserInfo;
 
 
@@ -140,6 +143,8 @@ public class DeleteAccountActivity extends AppCompatActivity {
                                                 setLoading(false);
                                                 if (deleteAuthTask.isSuccessful()) {
                                                     Log.d(TAG, "User account deleted from Firebase Auth.");
+                                                    LocalChatDatabase.getInstance(DeleteAccountActivity.this).clear();
+                                                    DashboardSnapshotCache.getInstance(DeleteAccountActivity.this).clear();
                                                     Toast.makeText(DeleteAccountActivity.this, "Your account has been deleted.", Toast.LENGTH_LONG).show();
                                                     // Navigate to sign-in screen
                                                     Intent intent = new Intent(DeleteAccountActivity.this, SignInActivity.class);
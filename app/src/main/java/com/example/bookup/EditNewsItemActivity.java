@@ -11,6 +11,9 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.example.bookup.models.NewsItem;
+import com.example.bookup.models.NewsItemMapper;
+import com.example.bookup.query.EntityCache;
+import com.example.bookup.users.UserProfileRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
@@ -19,7 +22,7 @@ import com.google.firebase.firestore.FirebaseFirestore;
 
 public class EditNewsItemActivity extends AppCompatActivity {
 
-    public static final String EXTRA_NEWS_ITEM = "extra_news_item";
+    public static final String EXTRA_NEWS_ITEM_ID = "extra_news_item_id"; // Resolved via EntityCache
 
     private static final String TAG = "EditNewsItemActivity";
 
@@ -66,14 +69,9 @@ public class EditNewsItemActivity extends AppCompatActivity {
 
         initViews();
 
-        if (getIntent().hasExtra(EXTRA_NEWS_ITEM)) {
-            currentNewsItem = (NewsItem) getIntent().getSerializableExtra(EXTRA_NEWS_ITEM);
-            if (currentNewsItem != null) {
-                displayNewsItemForEditing();
-            } else {
-                Toast.makeText(this, "Error: News item not found.", Toast.LENGTH_SHORT).show();
-                finish();
-            }
+        String newsItemId = getIntent().getStringExtra(EXTRA_NEWS_ITEM_ID);
+        if (newsItemId != null) {
+            loadNewsItem(newsItemId);
         } else {
             Toast.makeText(this, "No news item provided for editing.", Toast.LENGTH_SHORT).show();
             finish();
@@ -106,11 +104,10 @@ public class EditNewsItemActivity extends AppCompatActivity {
     private void checkAdminStatus() {
         if (currentUser == null) return; // Already checked in onCreate
 
-        db.collection("users").document(currentUser.getUid()).get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        Boolean isAdmin = documentSnapshot.getBoolean("isAdmin");
-                        if (isAdmin == null || !isAdmin) {
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
+                    if (profile.exists()) {
+                        if (!profile.isAdmin()) {
                             Toast.makeText(this, "Access denied: Not an admin.", Toast.LENGTH_LONG).show();
                             finish();
                         }
@@ -126,6 +123,28 @@ public class EditNewsItemActivity extends AppCompatActivity {
                 });
     }
 
+    // Usually cached by ManageNewsActivity; otherwise read from Firestore
+    private void loadNewsItem(String newsItemId) {
+        currentNewsItem = EntityCache.NEWS_ITEMS.get(newsItemId);
+        if (currentNewsItem != null) {
+            displayNewsItemForEditing();
+            return;
+        }
+
+        setLoading(true);
+        EntityCache.NEWS_ITEMS.load(newsItemId).addOnCompleteListener(this, task -> {
+            setLoading(false);
+            if (task.isSuccessful()) {
+                currentNewsItem = task.getResult();
+                displayNewsItemForEditing();
+            } else {
+                Log.e(TAG, "Error loading news item " + newsItemId, task.getException());
+                Toast.makeText(this, "Error: News item not found.", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+        });
+    }
+
     private void displayNewsItemForEditing() {
         if (currentNewsItem == null) return;
 
@@ -158,17 +177,18 @@ public class EditNewsItemActivity extends AppCompatActivity {
             return;
         }
 
+        if (currentNewsItem == null) return; // Still loading
+
         setLoading(true);
 
-        // Update the currentNewsItem object
-        currentNewsItem.setTitle(title);
-        currentNewsItem.setDescription(description);
-        currentNewsItem.setImageUrl(imageUrl);
-        currentNewsItem.setSource(source);
+        // An updated copy, as the cached item is shared with the list (see EntityCache)
+        NewsItem updatedNewsItem = new NewsItem(currentNewsItem.getId(), title, description, imageUrl, source,
+                currentNewsItem.getTimestamp());
 
-        db.collection("newsFeed").document(currentNewsItem.getId()).set(currentNewsItem)
+        db.collection("newsFeed").document(updatedNewsItem.getId()).set(NewsItemMapper.encode(updatedNewsItem))
                 .addOnSuccessListener(aVoid -> {
                     setLoading(false);
+                    EntityCache.NEWS_ITEMS.put(updatedNewsItem);
                     Toast.makeText(EditNewsItemActivity.this, "News item updated successfully!", Toast.LENGTH_SHORT).show();
                     finish(); // Go back to ManageNewsActivity
                 })
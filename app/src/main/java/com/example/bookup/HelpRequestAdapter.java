@@ -12,17 +12,30 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat; // For context-aware color fetching
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.bookup.adapters.StableIds;
 import com.example.bookup.models.HelpRequest;
+import com.example.bookup.query.EntityCache;
 import com.google.android.material.chip.Chip;
 
-import java.util.List;
 import java.util.Locale;
 
-public class HelpRequestAdapter extends RecyclerView.Adapter<HelpRequestAdapter.RequestViewHolder> {
+public class HelpRequestAdapter extends ListAdapter<HelpRequest, HelpRequestAdapter.RequestViewHolder> {
 
-    private List<HelpRequest> requestList;
+    private static final DiffUtil.ItemCallback<HelpRequest> DIFF_CALLBACK = new DiffUtil.ItemCallback<HelpRequest>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull HelpRequest oldItem, @NonNull HelpRequest newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull HelpRequest oldItem, @NonNull HelpRequest newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
     // Removed direct listener interface as we'll handle navigation within the adapter
     // private OnRequestClickListener listener;
 
@@ -39,8 +52,14 @@ public class HelpRequestAdapter extends RecyclerView.Adapter<HelpRequestAdapter.
     }
     */
 
-    public HelpRequestAdapter(List<HelpRequest> requestList) {
-        this.requestList = requestList;
+    public HelpRequestAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forDocumentId(getItem(position).getId());
     }
 
     @NonNull
@@ -52,7 +71,7 @@ public class HelpRequestAdapter extends RecyclerView.Adapter<HelpRequestAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull RequestViewHolder holder, int position) {
-        HelpRequest currentRequest = requestList.get(position);
+        HelpRequest currentRequest = getItem(position);
 
         holder.textRequestTitle.setText(currentRequest.getTitle());
         holder.textRequestSubject.setText(String.format("Subject: %s", currentRequest.getSubject()));
@@ -82,7 +101,8 @@ public class HelpRequestAdapter extends RecyclerView.Adapter<HelpRequestAdapter.
         // --- NEW: Direct navigation to RequestDetailsActivity ---
         View.OnClickListener navigateToDetails = v -> {
             Intent intent = new Intent(holder.itemView.getContext(), RequestDetailsActivity.class);
-            intent.putExtra(RequestDetailsActivity.EXTRA_REQUEST, currentRequest);
+            EntityCache.REQUESTS.put(currentRequest);
+            intent.putExtra(RequestDetailsActivity.EXTRA_REQUEST_ID, currentRequest.getId());
             holder.itemView.getContext().startActivity(intent);
         };
 
@@ -91,11 +111,6 @@ public class HelpRequestAdapter extends RecyclerView.Adapter<HelpRequestAdapter.
         // --- END NEW ---
     }
 
-    @Override
-    public int getItemCount() {
-        return requestList.size();
-    }
-
     public static class RequestViewHolder extends RecyclerView.ViewHolder {
         TextView textRequestTitle;
         Chip chipRequestStatus;
@@ -1,5 +1,6 @@
 package com.example.bookup;
 
+import android.content.ComponentCallbacks2;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.Menu;
@@ -12,8 +13,11 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
 
 // Import ONLY the fragments you are now using in the bottom nav
+import com.example.bookup.chat.LocalChatDatabase;
+import com.example.bookup.dashboard.DashboardSnapshotCache;
 import com.example.bookup.fragments.DashboardFragment;
 import com.example.bookup.fragments.RequestsFragment; // NEW
 import com.example.bookup.fragments.ChatListFragment; // NEW
@@ -23,6 +27,17 @@ import com.example.bookup.fragments.ProfileFragment;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.firebase.auth.FirebaseAuth;
 
+import java.util.ArrayList;
+
+/**
+ * Hosts the bottom navigation tabs. Each tab's fragment is created on its first visit and then
+ * kept, hidden, while other tabs are shown, so switching back keeps its views, scroll position
+ * and loaded data instead of re-inflating and re-querying. Hidden tabs are capped at STARTED, so
+ * they get onPause/onResume on every switch but keep their views and listeners.
+ *
+ * At most {@link #MAX_BACKGROUND_TABS} hidden tabs are kept, the least recently shown one is
+ * dropped first; all of them are dropped when the system reports memory pressure.
+ */
 public class HomePageActivity extends AppCompatActivity {
     private FirebaseAuth mAuth;
     private Toolbar toolbar;
@@ -31,6 +46,12 @@ public class HomePageActivity extends AppCompatActivity {
     // Added TAG for logging
     private static final String TAG = "HomePageActivity";
 
+    private static final int MAX_BACKGROUND_TABS = 3;
+    private static final String STATE_RECENT_TABS = "recent_tabs";
+
+    // Tabs with a fragment, least recently shown first; the last one is the current tab
+    private final ArrayList<Integer> recentTabs = new ArrayList<>();
+
     @Override
     protected void onCreate( Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -53,50 +74,122 @@ public class HomePageActivity extends AppCompatActivity {
         bottomNavigationView.setOnNavigationItemSelectedListener(new BottomNavigationView.OnNavigationItemSelectedListener(){
             @Override
             public boolean onNavigationItemSelected(@NonNull MenuItem item) {
-                Fragment selectedFragment = null;
-                String title = "";
-
                 int itemId = item.getItemId(); // Get the ID once
+                if (titleFor(itemId) == null) return false;
 
-                if (itemId == R.id.nav_home){
-                    selectedFragment = new DashboardFragment();
-                    title = "Home";
-                } else if (itemId == R.id.nav_requests) { // NEW ID
-                    selectedFragment = new RequestsFragment();
-                    title = "Requests";
-                } else if (itemId == R.id.nav_chat) { // NEW ID
-                    selectedFragment = new ChatListFragment();
-                    title = "Chat";
-                } else if (itemId == R.id.nav_search) { // NEW ID
-                    selectedFragment = new SearchFragment();
-                    title = "Search";
-                } else if (itemId == R.id.nav_profile) {
-                    selectedFragment = new ProfileFragment();
-                    title = "Profile";
-                }
-
-                if (selectedFragment != null){
-                    // Pass the actual selectedFragment to loadFragment
-                    loadFragment(selectedFragment);
-                    getSupportActionBar().setTitle(title);
-                    return true;
-                }
-                return false;
+                showTab(itemId);
+                return true;
             }
         });
 
         //This loads the default fragment home when app is started
         if (savedInstanceState == null){
-            loadFragment(new DashboardFragment());
             bottomNavigationView.setSelectedItemId(R.id.nav_home);
+        } else {
+            // The fragment manager restored the tabs, including which ones are hidden
+            ArrayList<Integer> restoredTabs = savedInstanceState.getIntegerArrayList(STATE_RECENT_TABS);
+            if (restoredTabs != null) {
+                recentTabs.addAll(restoredTabs);
+            }
+            if (!recentTabs.isEmpty()) {
+                getSupportActionBar().setTitle(titleFor(currentTab()));
+            }
         }
     }
 
-    private void loadFragment(Fragment fragment) {
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putIntegerArrayList(STATE_RECENT_TABS, recentTabs);
+    }
+
+    private void showTab(int itemId) {
         FragmentManager fragmentManager = getSupportFragmentManager();
-        FragmentTransaction fragmentTransaction = fragmentManager.beginTransaction();
-        fragmentTransaction.replace(R.id.fragment_container, fragment); // Ensure R.id.fragment_container is correct
+        FragmentTransaction fragmentTransaction = fragmentManager.beginTransaction().setReorderingAllowed(true);
+
+        if (!recentTabs.isEmpty() && currentTab() != itemId) {
+            Fragment current = fragmentManager.findFragmentByTag(tagFor(currentTab()));
+            if (current != null) {
+                fragmentTransaction.hide(current).setMaxLifecycle(current, Lifecycle.State.STARTED);
+            }
+        }
+
+        Fragment selectedFragment = fragmentManager.findFragmentByTag(tagFor(itemId));
+        if (selectedFragment == null) {
+            selectedFragment = createTab(itemId);
+            fragmentTransaction.add(R.id.fragment_container, selectedFragment, tagFor(itemId)); // Ensure R.id.fragment_container is correct
+        } else {
+            fragmentTransaction.show(selectedFragment).setMaxLifecycle(selectedFragment, Lifecycle.State.RESUMED);
+        }
+
+        recentTabs.remove(Integer.valueOf(itemId));
+        recentTabs.add(itemId);
+        while (recentTabs.size() > MAX_BACKGROUND_TABS + 1) {
+            removeTab(fragmentTransaction, recentTabs.remove(0));
+        }
+
         fragmentTransaction.commit();
+        getSupportActionBar().setTitle(titleFor(itemId));
+    }
+
+    // Drops every hidden tab; they are created again on their next visit
+    private void evictBackgroundTabs() {
+        FragmentManager fragmentManager = getSupportFragmentManager();
+        if (recentTabs.size() <= 1 || fragmentManager.isDestroyed()) return;
+
+        FragmentTransaction fragmentTransaction = fragmentManager.beginTransaction();
+        while (recentTabs.size() > 1) {
+            removeTab(fragmentTransaction, recentTabs.remove(0));
+        }
+        // May run after onSaveInstanceState; losing the removal only means the tabs are restored as they were
+        fragmentTransaction.commitAllowingStateLoss();
+    }
+
+    private void removeTab(FragmentTransaction fragmentTransaction, int itemId) {
+        Fragment fragment = getSupportFragmentManager().findFragmentByTag(tagFor(itemId));
+        if (fragment != null) {
+            fragmentTransaction.remove(fragment);
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // UI_HIDDEN only means the app went to the background, which is not memory pressure by itself
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && level != ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            evictBackgroundTabs();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        evictBackgroundTabs();
+    }
+
+    private int currentTab() {
+        return recentTabs.get(recentTabs.size() - 1);
+    }
+
+    private static String tagFor(int itemId) {
+        return "tab_" + itemId;
+    }
+
+    private static Fragment createTab(int itemId) {
+        if (itemId == R.id.nav_requests) return new RequestsFragment();
+        if (itemId == R.id.nav_chat) return new ChatListFragment();
+        if (itemId == R.id.nav_search) return new SearchFragment();
+        if (itemId == R.id.nav_profile) return new ProfileFragment();
+        return new DashboardFragment();
+    }
+
+    private static String titleFor(int itemId) {
+        if (itemId == R.id.nav_home) return "Home";
+        if (itemId == R.id.nav_requests) return "Requests";
+        if (itemId == R.id.nav_chat) return "Chat";
+        if (itemId == R.id.nav_search) return "Search";
+        if (itemId == R.id.nav_profile) return "Profile";
+        return null;
     }
 
     public boolean onCreateOptionsMenu(Menu menu) {
@@ -108,6 +201,8 @@ public class HomePageActivity extends AppCompatActivity {
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
         if (item.getItemId() == R.id.action_logout){ // Ensure action_logout is in menu_homepage.xml
             mAuth.signOut();
+            LocalChatDatabase.getInstance(this).clear(); // The next account must not see this user's chats
+            DashboardSnapshotCache.getInstance(this).clear(); // ...nor their dashboard
             Toast.makeText(HomePageActivity.this, "Logged out successfully", Toast.LENGTH_SHORT).show();
             Intent intent = new Intent(HomePageActivity.this, SignInActivity.class);
             intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
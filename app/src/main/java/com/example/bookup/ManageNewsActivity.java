@@ -17,12 +17,17 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.bookup.models.NewsItem; // Import your NewsItem model
+import com.example.bookup.models.NewsItemMapper;
+import com.example.bookup.query.EntityCache;
+import com.example.bookup.query.FirestoreDecoding;
+import com.example.bookup.users.UserProfileRepository;
+import com.google.android.gms.tasks.Task;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder; // For delete confirmation
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -97,7 +102,7 @@ public class ManageNewsActivity extends AppCompatActivity {
 
     private void setupRecyclerView() {
         newsList = new ArrayList<>();
-        newsAdapter = new NewsItemManagerAdapter(newsList);
+        newsAdapter = new NewsItemManagerAdapter();
         recyclerNewsItems.setLayoutManager(new LinearLayoutManager(this));
         recyclerNewsItems.setAdapter(newsAdapter);
 
@@ -106,7 +111,8 @@ public class ManageNewsActivity extends AppCompatActivity {
             public void onEditClick(NewsItem newsItem) {
                 // Launch EditNewsItemActivity
                 Intent intent = new Intent(ManageNewsActivity.this, EditNewsItemActivity.class);
-                intent.putExtra(EditNewsItemActivity.EXTRA_NEWS_ITEM, newsItem);
+                EntityCache.NEWS_ITEMS.put(newsItem);
+                intent.putExtra(EditNewsItemActivity.EXTRA_NEWS_ITEM_ID, newsItem.getId());
                 startActivity(intent);
             }
 
@@ -136,11 +142,10 @@ public class ManageNewsActivity extends AppCompatActivity {
             return;
         }
 
-        db.collection("users").document(mAuth.getCurrentUser().getUid()).get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        Boolean isAdmin = documentSnapshot.getBoolean("isAdmin");
-                        if (isAdmin == null || !isAdmin) {
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
+                    if (profile.exists()) {
+                        if (!profile.isAdmin()) {
                             Toast.makeText(this, "Access denied: Not an admin.", Toast.LENGTH_LONG).show();
                             finish();
                         }
@@ -159,17 +164,14 @@ public class ManageNewsActivity extends AppCompatActivity {
     private void fetchNewsItems() {
         setLoading(true);
 
-        db.collection("newsFeed")
-                .orderBy("timestamp", Query.Direction.DESCENDING)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
+        Task<QuerySnapshot> news = db.collection("newsFeed")
+                .orderBy(NewsItemMapper.TIMESTAMP, Query.Direction.DESCENDING)
+                .get();
+        FirestoreDecoding.decodeQuery(news, NewsItemMapper::decode)
+                .addOnSuccessListener(newsItems -> {
                     newsList.clear();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        NewsItem newsItem = document.toObject(NewsItem.class);
-                        newsItem.setId(document.getId()); // Set the document ID
-                        newsList.add(newsItem);
-                    }
-                    newsAdapter.notifyDataSetChanged();
+                    newsList.addAll(newsItems);
+                    newsAdapter.submitList(new ArrayList<>(newsList));
                     updateEmptyState(newsList.isEmpty());
                     setLoading(false);
                     if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
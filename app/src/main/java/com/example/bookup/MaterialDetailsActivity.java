@@ -8,6 +8,7 @@ import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
 import android.text.format.DateFormat;
+import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ImageView;
@@ -17,6 +18,7 @@ import android.widget.Toast;
 
 import com.bumptech.glide.Glide;
 import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.query.EntityCache;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.firebase.auth.FirebaseAuth; // Needed for current user checks
 
@@ -24,7 +26,9 @@ import java.util.Locale;
 
 public class MaterialDetailsActivity extends AppCompatActivity {
 
-    public static final String EXTRA_MATERIAL = "extra_material"; // Key for passing StudyMaterial object
+    public static final String EXTRA_MATERIAL_ID = "extra_material_id"; // Key for passing the StudyMaterial ID, resolved via EntityCache
+
+    private static final String TAG = "MaterialDetailsActivity";
 
     // UI Elements
     private ShapeableImageView materialDetailThumbnail;
@@ -69,15 +73,10 @@ public class MaterialDetailsActivity extends AppCompatActivity {
 
         mAuth = FirebaseAuth.getInstance(); // Initialize Firebase Auth
 
-        // Get StudyMaterial object from Intent
-        if (getIntent().hasExtra(EXTRA_MATERIAL)) {
-            currentMaterial = (StudyMaterial) getIntent().getSerializableExtra(EXTRA_MATERIAL);
-            if (currentMaterial != null) {
-                displayMaterialDetails();
-            } else {
-                Toast.makeText(this, "Error loading material details.", Toast.LENGTH_SHORT).show();
-                finish(); // Go back if no material found
-            }
+        // Get the StudyMaterial by the ID from the Intent
+        String materialId = getIntent().getStringExtra(EXTRA_MATERIAL_ID);
+        if (materialId != null) {
+            loadMaterial(materialId);
         } else {
             Toast.makeText(this, "No material provided.", Toast.LENGTH_SHORT).show();
             finish(); // Go back if no material provided
@@ -92,6 +91,28 @@ public class MaterialDetailsActivity extends AppCompatActivity {
         return true;
     }
 
+    // Usually cached by the screen that opened this one; otherwise read from Firestore
+    private void loadMaterial(String materialId) {
+        currentMaterial = EntityCache.MATERIALS.get(materialId);
+        if (currentMaterial != null) {
+            displayMaterialDetails();
+            return;
+        }
+
+        progressBarLoadingMaterial.setVisibility(View.VISIBLE);
+        EntityCache.MATERIALS.load(materialId).addOnCompleteListener(this, task -> {
+            progressBarLoadingMaterial.setVisibility(View.GONE);
+            if (task.isSuccessful()) {
+                currentMaterial = task.getResult();
+                displayMaterialDetails();
+            } else {
+                Log.e(TAG, "Error loading material " + materialId, task.getException());
+                Toast.makeText(this, "Error loading material details.", Toast.LENGTH_SHORT).show();
+                finish(); // Go back if no material found
+            }
+        });
+    }
+
     private void displayMaterialDetails() {
         if (currentMaterial == null) return;
 
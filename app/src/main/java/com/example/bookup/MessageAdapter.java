@@ -10,31 +10,47 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.bookup.adapters.StableIds;
+import com.example.bookup.chat.ChatMessageStore;
 import com.example.bookup.models.ChatMessage;
 
-import java.util.List;
 import java.util.Locale;
 
+/**
+ * Shows the messages of a ChatMessageStore. The store reports every change with its exact
+ * position (via an AdapterListUpdateCallback on this adapter), so no diffing is needed.
+ */
 public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
     private static final int VIEW_TYPE_MESSAGE_SENT = 1;
     private static final int VIEW_TYPE_MESSAGE_RECEIVED = 2;
 
-    private List<ChatMessage> messageList;
+    private final ChatMessageStore messageStore;
     private String currentUserId; // The UID of the currently logged-in user
 
     // Flag to indicate if it's a group chat (for showing sender names)
     private boolean isGroupChat = false;
 
-    public MessageAdapter(List<ChatMessage> messageList, String currentUserId, boolean isGroupChat) {
-        this.messageList = messageList;
+    public MessageAdapter(ChatMessageStore messageStore, String currentUserId, boolean isGroupChat) {
+        this.messageStore = messageStore;
         this.currentUserId = currentUserId;
         this.isGroupChat = isGroupChat;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forDocumentId(messageStore.get(position).getId());
+    }
+
+    @Override
+    public int getItemCount() {
+        return messageStore.size();
     }
 
     @Override
     public int getItemViewType(int position) {
-        ChatMessage message = messageList.get(position);
+        ChatMessage message = messageStore.get(position);
         if (message.getSenderId().equals(currentUserId)) {
             return VIEW_TYPE_MESSAGE_SENT;
         } else {
@@ -57,7 +73,7 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        ChatMessage message = messageList.get(position);
+        ChatMessage message = messageStore.get(position);
 
         switch (holder.getItemViewType()) {
             case VIEW_TYPE_MESSAGE_SENT:
@@ -69,11 +85,6 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return messageList.size();
-    }
-
     // ViewHolder for sent messages
     private static class SentMessageHolder extends RecyclerView.ViewHolder {
         TextView messageText, timeText;
@@ -86,7 +97,9 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 
         void bind(ChatMessage message) {
             messageText.setText(message.getMessageText());
-            if (message.getTimestamp() != null) {
+            if (message.isPending()) {
+                timeText.setText("Sending…"); // Replaced by the time once the server confirms the message
+            } else if (message.getTimestamp() != null) {
                 timeText.setText(DateFormat.format("hh:mm a", message.getTimestamp()).toString());
             } else {
                 timeText.setText("");
@@ -7,16 +7,29 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide; // Will need Glide for image loading
+import com.example.bookup.adapters.StableIds;
 import com.example.bookup.models.NewsItem;
 
-import java.util.List;
+public class NewsFeedAdapter extends ListAdapter<NewsItem, NewsFeedAdapter.NewsViewHolder> {
 
-public class NewsFeedAdapter extends RecyclerView.Adapter<NewsFeedAdapter.NewsViewHolder> {
+    // Shared with NewsItemManagerAdapter, both list news items by document ID
+    static final DiffUtil.ItemCallback<NewsItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<NewsItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull NewsItem oldItem, @NonNull NewsItem newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull NewsItem oldItem, @NonNull NewsItem newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
-    private List<NewsItem> newsList;
     private OnNewsItemClickListener listener;
 
     public interface OnNewsItemClickListener {
@@ -27,8 +40,20 @@ public class NewsFeedAdapter extends RecyclerView.Adapter<NewsFeedAdapter.NewsVi
         this.listener = listener;
     }
 
-    public NewsFeedAdapter(List<NewsItem> newsList) {
-        this.newsList = newsList;
+    public NewsFeedAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forDocumentId(getItem(position).getId());
+    }
+
+    // Distinct per adapter, so the dashboard carousels can share one RecycledViewPool
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_news_feed;
     }
 
     @NonNull
@@ -40,7 +65,7 @@ public class NewsFeedAdapter extends RecyclerView.Adapter<NewsFeedAdapter.NewsVi
 
     @Override
     public void onBindViewHolder(@NonNull NewsViewHolder holder, int position) {
-        NewsItem currentItem = newsList.get(position);
+        NewsItem currentItem = getItem(position);
 
         holder.title.setText(currentItem.getTitle());
         holder.description.setText(currentItem.getDescription());
@@ -65,11 +90,6 @@ public class NewsFeedAdapter extends RecyclerView.Adapter<NewsFeedAdapter.NewsVi
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return newsList.size();
-    }
-
     public static class NewsViewHolder extends RecyclerView.ViewHolder {
         ImageView imageView;
         TextView title;
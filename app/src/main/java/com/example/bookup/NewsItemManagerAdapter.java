@@ -8,16 +8,15 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.bookup.adapters.StableIds;
 import com.google.android.material.button.MaterialButton;
 import com.example.bookup.models.NewsItem; // Import your NewsItem model
 
-import java.util.List;
+public class NewsItemManagerAdapter extends ListAdapter<NewsItem, NewsItemManagerAdapter.NewsItemViewHolder> {
 
-public class NewsItemManagerAdapter extends RecyclerView.Adapter<NewsItemManagerAdapter.NewsItemViewHolder> {
-
-    private List<NewsItem> newsList;
     private OnNewsItemActionListener listener;
 
     public interface OnNewsItemActionListener {
@@ -29,8 +28,14 @@ public class NewsItemManagerAdapter extends RecyclerView.Adapter<NewsItemManager
         this.listener = listener;
     }
 
-    public NewsItemManagerAdapter(List<NewsItem> newsList) {
-        this.newsList = newsList;
+    public NewsItemManagerAdapter() {
+        super(NewsFeedAdapter.DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forDocumentId(getItem(position).getId());
     }
 
     @NonNull
@@ -42,7 +47,7 @@ public class NewsItemManagerAdapter extends RecyclerView.Adapter<NewsItemManager
 
     @Override
     public void onBindViewHolder(@NonNull NewsItemViewHolder holder, int position) {
-        NewsItem currentNewsItem = newsList.get(position);
+        NewsItem currentNewsItem = getItem(position);
 
         holder.textNewsTitle.setText(currentNewsItem.getTitle());
         holder.textNewsDescriptionSummary.setText(currentNewsItem.getDescription()); // Display full description, or truncate as needed
@@ -66,11 +71,6 @@ public class NewsItemManagerAdapter extends RecyclerView.Adapter<NewsItemManager
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return newsList.size();
-    }
-
     public static class NewsItemViewHolder extends RecyclerView.ViewHolder {
         TextView textNewsTitle;
         TextView textNewsDescriptionSummary;
@@ -18,6 +18,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.bumptech.glide.Glide;
+import com.example.bookup.users.UserProfileRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.imageview.ShapeableImageView; // Import for ShapeableImageView
 import com.google.android.material.textfield.TextInputEditText;
@@ -137,16 +138,15 @@ public class ProfileEditActivity extends AppCompatActivity {
             imageProfilePictureEdit.setImageResource(R.drawable.ic_profile_black_24dp);
         }
 
-        db.collection("users").document(currentUser.getUid())
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
                     setLoading(false);
-                    if (documentSnapshot.exists()) {
-                        String firstName = documentSnapshot.getString("firstName");
-                        String lastName = documentSnapshot.getString("lastName");
-                        String phoneNumber = documentSnapshot.getString("phoneNumber");
-                        String gender = documentSnapshot.getString("gender");
-                        String role = documentSnapshot.getString("role");
+                    if (profile.exists()) {
+                        String firstName = profile.getString("firstName");
+                        String lastName = profile.getString("lastName");
+                        String phoneNumber = profile.getString("phoneNumber");
+                        String gender = profile.getString("gender");
+                        String role = profile.getString("role");
 
                         editTextFirstName.setText(firstName);
                         editTextLastName.setText(lastName);
@@ -13,6 +13,7 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import com.example.bookup.users.UserProfileRepository;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.textfield.TextInputEditText;
@@ -87,15 +88,15 @@ public class ProfileSetupActivity extends AppCompatActivity {
         }
 
         setLoading(true);
-        db.collection("users").document(currentUser.getUid()).get()
-                .addOnSuccessListener(documentSnapshot -> {
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
                     setLoading(false);
-                    if (documentSnapshot.exists()) {
-                        editTextFirstName.setText(documentSnapshot.getString("firstName"));
-                        editTextLastName.setText(documentSnapshot.getString("lastName"));
-                        editTextPhoneNumber.setText(documentSnapshot.getString("phoneNumber"));
-                        autoCompleteGender.setText(documentSnapshot.getString("gender"), false);
-                        Boolean isTutor = documentSnapshot.getBoolean("isTutor");
+                    if (profile.exists()) {
+                        editTextFirstName.setText(profile.getString("firstName"));
+                        editTextLastName.setText(profile.getString("lastName"));
+                        editTextPhoneNumber.setText(profile.getString("phoneNumber"));
+                        autoCompleteGender.setText(profile.getString("gender"), false);
+                        Boolean isTutor = profile.getBoolean("isTutor");
                         if (isTutor != null) {
                             if (isTutor) {
                                 chipTutor.setChecked(true);
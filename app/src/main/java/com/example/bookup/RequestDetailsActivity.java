@@ -13,17 +13,18 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.core.content.ContextCompat;
 
 import com.example.bookup.models.HelpRequest;
+import com.example.bookup.query.EntityCache;
+import com.example.bookup.users.UserProfileRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.Locale;
 
 public class RequestDetailsActivity extends AppCompatActivity {
 
-    public static final String EXTRA_REQUEST = "extra_request"; // Key for passing HelpRequest object
+    public static final String EXTRA_REQUEST_ID = "extra_request_id"; // Key for passing the HelpRequest ID, resolved via EntityCache
 
     private static final String TAG = "RequestDetailsActivity";
 
@@ -40,7 +41,6 @@ public class RequestDetailsActivity extends AppCompatActivity {
     // Data
     private HelpRequest currentRequest;
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
     private FirebaseUser currentUser;
     private boolean isCurrentUserTutor = false; // Flag to determine button text
 
@@ -60,7 +60,6 @@ public class RequestDetailsActivity extends AppCompatActivity {
 
         // Initialize Firebase
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
         currentUser = mAuth.getCurrentUser();
 
         if (currentUser == null) {
@@ -71,16 +70,10 @@ public class RequestDetailsActivity extends AppCompatActivity {
 
         initViews();
 
-        // Get HelpRequest object from Intent
-        if (getIntent().hasExtra(EXTRA_REQUEST)) {
-            currentRequest = (HelpRequest) getIntent().getSerializableExtra(EXTRA_REQUEST);
-            if (currentRequest != null) {
-                // Determine if current user is a tutor
-                checkUserRoleAndDisplayDetails();
-            } else {
-                Toast.makeText(this, "Error loading request details.", Toast.LENGTH_SHORT).show();
-                finish();
-            }
+        // Get the HelpRequest by the ID from the Intent
+        String requestId = getIntent().getStringExtra(EXTRA_REQUEST_ID);
+        if (requestId != null) {
+            loadRequest(requestId);
         } else {
             Toast.makeText(this, "No request provided.", Toast.LENGTH_SHORT).show();
             finish();
@@ -106,17 +99,39 @@ public class RequestDetailsActivity extends AppCompatActivity {
         progressBar = findViewById(R.id.progress_bar_request_details);
     }
 
+    // Usually cached by the screen that opened this one; otherwise read from Firestore
+    private void loadRequest(String requestId) {
+        currentRequest = EntityCache.REQUESTS.get(requestId);
+        if (currentRequest != null) {
+            // Determine if current user is a tutor
+            checkUserRoleAndDisplayDetails();
+            return;
+        }
+
+        setLoading(true);
+        EntityCache.REQUESTS.load(requestId).addOnCompleteListener(this, task -> {
+            setLoading(false);
+            if (task.isSuccessful()) {
+                currentRequest = task.getResult();
+                checkUserRoleAndDisplayDetails();
+            } else {
+                Log.e(TAG, "Error loading request " + requestId, task.getException());
+                Toast.makeText(this, "Error loading request details.", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+        });
+    }
+
     private void checkUserRoleAndDisplayDetails() {
         if (currentUser == null || currentRequest == null) return;
 
         setLoading(true);
 
-        db.collection("users").document(currentUser.getUid()).get()
-                .addOnSuccessListener(documentSnapshot -> {
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
                     setLoading(false);
-                    if (documentSnapshot.exists()) {
-                        Boolean isTutor = documentSnapshot.getBoolean("isTutor");
-                        if (isTutor != null && isTutor) {
+                    if (profile.exists()) {
+                        if (profile.isTutor()) {
                             isCurrentUserTutor = true;
                             btnOfferHelp.setText(R.string.offer_help_button_text);
                             btnOfferHelp.setVisibility(View.VISIBLE);
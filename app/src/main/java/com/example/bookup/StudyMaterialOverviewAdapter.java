@@ -9,17 +9,31 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.example.bookup.adapters.StableIds;
 import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.query.EntityCache;
 
-import java.util.List;
 import java.util.Locale;
 
-public class StudyMaterialOverviewAdapter extends RecyclerView.Adapter<StudyMaterialOverviewAdapter.MaterialOverviewViewHolder> {
+public class StudyMaterialOverviewAdapter extends ListAdapter<StudyMaterial, StudyMaterialOverviewAdapter.MaterialOverviewViewHolder> {
+
+    private static final DiffUtil.ItemCallback<StudyMaterial> DIFF_CALLBACK = new DiffUtil.ItemCallback<StudyMaterial>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull StudyMaterial oldItem, @NonNull StudyMaterial newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull StudyMaterial oldItem, @NonNull StudyMaterial newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
-    private List<StudyMaterial> materialList;
     private OnMaterialClickListener listener; // Retaining for broader click handling if needed
 
     public interface OnMaterialClickListener {
@@ -30,8 +44,20 @@ public class StudyMaterialOverviewAdapter extends RecyclerView.Adapter<StudyMate
         this.listener = listener;
     }
 
-    public StudyMaterialOverviewAdapter(List<StudyMaterial> materialList) {
-        this.materialList = materialList;
+    public StudyMaterialOverviewAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forDocumentId(getItem(position).getId());
+    }
+
+    // Distinct per adapter, so the dashboard carousels can share one RecycledViewPool
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_study_material_card;
     }
 
     @NonNull
@@ -43,7 +69,7 @@ public class StudyMaterialOverviewAdapter extends RecyclerView.Adapter<StudyMate
 
     @Override
     public void onBindViewHolder(@NonNull MaterialOverviewViewHolder holder, int position) {
-        StudyMaterial currentMaterial = materialList.get(position);
+        StudyMaterial currentMaterial = getItem(position);
 
         holder.materialTitle.setText(currentMaterial.getTitle());
         holder.materialSubjectType.setText(String.format(Locale.getDefault(), "%s • %s", currentMaterial.getSubject(), currentMaterial.getMaterialType()));
@@ -65,7 +91,8 @@ public class StudyMaterialOverviewAdapter extends RecyclerView.Adapter<StudyMate
         holder.btnViewMaterialCard.setOnClickListener(v -> {
             // Launch MaterialDetailsActivity when the button is clicked
             Intent intent = new Intent(holder.itemView.getContext(), MaterialDetailsActivity.class);
-            intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL, currentMaterial);
+            EntityCache.MATERIALS.put(currentMaterial);
+            intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL_ID, currentMaterial.getId());
             holder.itemView.getContext().startActivity(intent);
         });
 
@@ -76,17 +103,13 @@ public class StudyMaterialOverviewAdapter extends RecyclerView.Adapter<StudyMate
             } else {
                 // Fallback if no listener is set explicitly, or if you want both to go to details
                 Intent intent = new Intent(holder.itemView.getContext(), MaterialDetailsActivity.class);
-                intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL, currentMaterial);
+                EntityCache.MATERIALS.put(currentMaterial);
+                intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL_ID, currentMaterial.getId());
                 holder.itemView.getContext().startActivity(intent);
             }
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return materialList.size();
-    }
-
     public static class MaterialOverviewViewHolder extends RecyclerView.ViewHolder {
         ImageView materialThumbnail;
         TextView materialTitle;
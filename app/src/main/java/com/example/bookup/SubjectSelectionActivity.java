@@ -10,6 +10,8 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import com.example.bookup.users.UserProfileRepository;
+import com.example.bookup.users.UserSubjects;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.button.MaterialButton;
@@ -20,11 +22,8 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.DocumentSnapshot;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap; // Import for HashMap
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map; // Import for Map
 import java.util.Set;
 
 public class SubjectSelectionActivity extends AppCompatActivity {
@@ -94,53 +93,17 @@ public class SubjectSelectionActivity extends AppCompatActivity {
     }
 
     private void initializeAllAvailableSubjects() {
-        allAvailableSubjects = Arrays.asList(
-                "Mathematics", "Algebra", "Calculus", "Geometry", "Statistics",
-                "Physics", "Mechanics", "Thermodynamics", "Electromagnetism", "Quantum Physics",
-                "Chemistry", "Organic Chemistry", "Inorganic Chemistry", "Biochemistry", "Physical Chemistry",
-                "Biology", "Genetics", "Ecology", "Anatomy", "Physiology",
-                "Computer Science", "Programming", "Data Structures", "Algorithms", "Web Development",
-                "History", "World History", "European History", "American History", "Ancient Civilizations",
-                "English", "Literature", "Writing", "Grammar", "Creative Writing",
-                "Economics", "Microeconomics", "Macroeconomics", "Econometrics",
-                "Psychology", "Cognitive Psychology", "Social Psychology", "Developmental Psychology",
-                "Philosophy", "Ethics", "Logic", "Metaphysics",
-                "Art History", "Music Theory", "Political Science", "Sociology", "Environmental Science"
-        );
+        allAvailableSubjects = UserSubjects.CATALOGUE;
     }
 
     private void loadUserSubjects() {
         setLoading(true);
-        db.collection("users").document(currentUser.getUid())
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
                     setLoading(false);
-                    if (documentSnapshot.exists()) {
-                        Object subjectsObject = documentSnapshot.get("subjects");
-
+                    if (profile.exists()) {
                         userSelectedSubjects.clear(); // Clear existing selections
-
-                        if (subjectsObject instanceof Map) {
-                            // Expected format: Map<String, Boolean>
-                            Map<String, Boolean> subjectsMap = (Map<String, Boolean>) subjectsObject;
-                            for (Map.Entry<String, Boolean> entry : subjectsMap.entrySet()) {
-                                if (entry.getValue() != null && entry.getValue()) { // Add if value is true
-                                    userSelectedSubjects.add(entry.getKey());
-                                }
-                            }
-                        } else if (subjectsObject instanceof List) {
-                            // Fallback for old data format: List<String>
-                            Log.w(TAG, "Subjects field is a List. Converting to Map format for future saves.");
-                            List<?> rawSubjectsList = (List<?>) subjectsObject;
-                            for (Object item : rawSubjectsList) {
-                                if (item instanceof String) {
-                                    userSelectedSubjects.add((String) item);
-                                }
-                            }
-                        } else if (subjectsObject != null) {
-                            Log.e(TAG, "Subjects field is neither a Map nor a List. Type: " + subjectsObject.getClass().getName());
-                            Toast.makeText(this, "Unexpected data format for subjects.", Toast.LENGTH_LONG).show();
-                        }
+                        userSelectedSubjects.addAll(profile.getSubjects());
                     }
 
                     displayCurrentSubjects();
@@ -230,14 +193,11 @@ public class SubjectSelectionActivity extends AppCompatActivity {
 
         setLoading(true);
 
-        // Convert the local Set<String> to a Map<String, Boolean> for Firestore
-        Map<String, Boolean> subjectsToSave = new HashMap<>();
-        for (String subject : userSelectedSubjects) {
-            subjectsToSave.put(subject, true); // Mark selected subjects as true
-        }
+        // Saved as a sorted array, which queries can use directly
+        List<String> subjectsToSave = UserSubjects.encode(userSelectedSubjects);
 
         db.collection("users").document(currentUser.getUid())
-                .update("subjects", subjectsToSave) // Save the Map to Firestore
+                .update(UserSubjects.FIELD, subjectsToSave)
                 .addOnSuccessListener(aVoid -> {
                     setLoading(false);
                     Toast.makeText(SubjectSelectionActivity.this, "Subjects updated successfully!", Toast.LENGTH_SHORT).show();
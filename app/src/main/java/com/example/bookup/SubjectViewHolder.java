@@ -1,4 +0,0 @@
-package com.example.bookup;
-
-public interface SubjectViewHolder {
-}
@@ -16,6 +16,7 @@ import androidx.core.content.ContextCompat;
 
 import com.bumptech.glide.Glide;
 import com.example.bookup.models.Tutor;
+import com.example.bookup.query.EntityCache;
 import com.google.android.material.button.MaterialButton; // Ensure this is MaterialButton
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
@@ -28,7 +29,7 @@ import java.util.Locale;
 
 public class TutorDetailsActivity extends AppCompatActivity {
 
-    public static final String EXTRA_TUTOR = "extra_tutor"; // Key for passing Tutor object
+    public static final String EXTRA_TUTOR_ID = "extra_tutor_id"; // Key for passing the Tutor UID, resolved via EntityCache
 
     private static final String TAG = "TutorDetailsActivity";
 
@@ -65,15 +66,10 @@ public class TutorDetailsActivity extends AppCompatActivity {
 
         initViews();
 
-        // Get Tutor object from Intent
-        if (getIntent().hasExtra(EXTRA_TUTOR)) {
-            currentTutor = (Tutor) getIntent().getSerializableExtra(EXTRA_TUTOR);
-            if (currentTutor != null) {
-                displayTutorDetails();
-            } else {
-                Toast.makeText(this, "Error loading tutor details.", Toast.LENGTH_SHORT).show();
-                finish(); // Go back if no tutor found
-            }
+        // Get the Tutor by the UID from the Intent
+        String tutorId = getIntent().getStringExtra(EXTRA_TUTOR_ID);
+        if (tutorId != null) {
+            loadTutor(tutorId);
         } else {
             Toast.makeText(this, "No tutor provided.", Toast.LENGTH_SHORT).show();
             finish(); // Go back if no tutor provided
@@ -100,6 +96,28 @@ public class TutorDetailsActivity extends AppCompatActivity {
         progressBarTutorDetails = findViewById(R.id.progress_bar_tutor_details);
     }
 
+    // Usually cached by the screen that opened this one; otherwise read from Firestore
+    private void loadTutor(String tutorId) {
+        currentTutor = EntityCache.TUTORS.get(tutorId);
+        if (currentTutor != null) {
+            displayTutorDetails();
+            return;
+        }
+
+        setLoading(true);
+        EntityCache.TUTORS.load(tutorId).addOnCompleteListener(this, task -> {
+            setLoading(false);
+            if (task.isSuccessful()) {
+                currentTutor = task.getResult();
+                displayTutorDetails();
+            } else {
+                Log.e(TAG, "Error loading tutor " + tutorId, task.getException());
+                Toast.makeText(this, "Error loading tutor details.", Toast.LENGTH_SHORT).show();
+                finish(); // Go back if no tutor found
+            }
+        });
+    }
+
     private void displayTutorDetails() {
         if (currentTutor == null) return;
 
@@ -161,6 +179,7 @@ public class TutorDetailsActivity extends AppCompatActivity {
         // These listeners will be dynamic based on the currentUser, set in displayTutorDetails()
         // For general users:
         btnBookSession.setOnClickListener(v -> {
+            if (currentTutor == null) return; // Still loading
             if (mAuth.getCurrentUser() != null) {
                 if (mAuth.getCurrentUser().getUid().equals(currentTutor.getUid())) {
                     // This case is handled in displayTutorDetails, but as a fallback
@@ -177,6 +196,7 @@ public class TutorDetailsActivity extends AppCompatActivity {
         });
 
         btnMessageTutor.setOnClickListener(v -> {
+            if (currentTutor == null) return; // Still loading
             if (mAuth.getCurrentUser() != null) {
                 if (mAuth.getCurrentUser().getUid().equals(currentTutor.getUid())) {
                     // This case is handled in displayTutorDetails, but as a fallback
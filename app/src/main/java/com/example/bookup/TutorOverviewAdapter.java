@@ -11,18 +11,33 @@ import android.widget.TextView;
 import android.widget.Toast; // Added for testing purposes
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.example.bookup.adapters.StableIds;
 import com.example.bookup.models.Tutor;
+import com.example.bookup.query.EntityCache;
 import com.google.android.material.imageview.ShapeableImageView; // NEW IMPORT
 
-import java.util.List;
 import java.util.Locale;
 
-public class TutorOverviewAdapter extends RecyclerView.Adapter<TutorOverviewAdapter.TutorViewHolder> {
+public class TutorOverviewAdapter extends ListAdapter<Tutor, TutorOverviewAdapter.TutorViewHolder> {
+
+    // Tutors are keyed by their UID (the tutors document ID)
+    private static final DiffUtil.ItemCallback<Tutor> DIFF_CALLBACK = new DiffUtil.ItemCallback<Tutor>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Tutor oldItem, @NonNull Tutor newItem) {
+            return oldItem.getUid() != null && oldItem.getUid().equals(newItem.getUid());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Tutor oldItem, @NonNull Tutor newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
-    private List<Tutor> tutorList;
     private OnTutorClickListener listener; // Keep listener for card background click if needed, or remove if button handles all interaction
 
     // Interface for click events on tutors
@@ -34,8 +49,20 @@ public class TutorOverviewAdapter extends RecyclerView.Adapter<TutorOverviewAdap
         this.listener = listener;
     }
 
-    public TutorOverviewAdapter(List<Tutor> tutorList) {
-        this.tutorList = tutorList;
+    public TutorOverviewAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forDocumentId(getItem(position).getUid());
+    }
+
+    // Distinct per adapter, so the dashboard carousels can share one RecycledViewPool
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_tutor_card;
     }
 
     @NonNull
@@ -47,7 +74,7 @@ public class TutorOverviewAdapter extends RecyclerView.Adapter<TutorOverviewAdap
 
     @Override
     public void onBindViewHolder(@NonNull TutorViewHolder holder, int position) {
-        Tutor currentTutor = tutorList.get(position);
+        Tutor currentTutor = getItem(position);
 
         holder.tutorName.setText(currentTutor.getName());
         holder.tutorRating.setText(String.format(Locale.getDefault(), "%.1f (%d)", currentTutor.getRating(), currentTutor.getReviewCount()));
@@ -79,7 +106,8 @@ public class TutorOverviewAdapter extends RecyclerView.Adapter<TutorOverviewAdap
         // Set click listener for the "View Profile" button
         holder.btnViewTutorProfile.setOnClickListener(v -> {
             Intent intent = new Intent(holder.itemView.getContext(), TutorDetailsActivity.class);
-            intent.putExtra(TutorDetailsActivity.EXTRA_TUTOR, currentTutor);
+            EntityCache.TUTORS.put(currentTutor);
+            intent.putExtra(TutorDetailsActivity.EXTRA_TUTOR_ID, currentTutor.getUid());
             holder.itemView.getContext().startActivity(intent);
         });
 
@@ -88,7 +116,8 @@ public class TutorOverviewAdapter extends RecyclerView.Adapter<TutorOverviewAdap
             // This could launch the same activity, or perform a different action
             // For now, it will launch the details activity
             Intent intent = new Intent(holder.itemView.getContext(), TutorDetailsActivity.class);
-            intent.putExtra(TutorDetailsActivity.EXTRA_TUTOR, currentTutor);
+            EntityCache.TUTORS.put(currentTutor);
+            intent.putExtra(TutorDetailsActivity.EXTRA_TUTOR_ID, currentTutor.getUid());
             holder.itemView.getContext().startActivity(intent);
         });
 
@@ -97,11 +126,6 @@ public class TutorOverviewAdapter extends RecyclerView.Adapter<TutorOverviewAdap
         // by returning true from the button's onClick listener (though typically not an issue here).
     }
 
-    @Override
-    public int getItemCount() {
-        return tutorList.size();
-    }
-
     public static class TutorViewHolder extends RecyclerView.ViewHolder {
         ShapeableImageView tutorImage; // Changed to ShapeableImageView
         TextView tutorName;
@@ -30,13 +30,16 @@ import android.widget.Toast;
 
 import com.bumptech.glide.Glide;
 import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.models.StudyMaterialMapper;
+import com.example.bookup.search.SearchFields;
+import com.example.bookup.search.SearchTokens;
 import com.google.android.gms.tasks.Task;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
@@ -49,7 +52,6 @@ import java.util.List;
 import java.util.Arrays;
 import java.util.UUID;
 import java.util.Map;
-import java.util.HashMap;
 
 
 public class UploadMaterialActivity extends AppCompatActivity {
@@ -465,35 +467,29 @@ public class UploadMaterialActivity extends AppCompatActivity {
     }
 
     private void saveMaterialMetadata(String fileUrl, String thumbnailUrl, String title, String description, String subject, String materialType, String uploaderUid, String uploaderName) {
-        // Prepare data for Firestore
-        Map<String, Object> materialData = new HashMap<>();
-        materialData.put("title", title);
-        materialData.put("description", description);
-        materialData.put("subject", subject);
-        materialData.put("type", materialType);
-        materialData.put("downloadUrl", fileUrl);
-        materialData.put("thumbnailUrl", thumbnailUrl);
-        materialData.put("uploaderUid", uploaderUid);
-        materialData.put("uploaderName", uploaderName);
-        materialData.put("uploadDate", FieldValue.serverTimestamp());
-        materialData.put("downloads", 0);
-        materialData.put("averageRating", 0.0);
-
-        db.collection("studyMaterials")
-                .add(materialData)
-                .addOnSuccessListener(documentReference -> {
-                    // Update the material with its Firestore auto-generated ID
-                    documentReference.update("id", documentReference.getId())
-                            .addOnSuccessListener(aVoid -> {
-                                setLoading(false);
-                                Toast.makeText(this, "Material uploaded successfully!", Toast.LENGTH_LONG).show();
-                                finish(); // Go back to the previous activity (ProfileFragment)
-                            })
-                            .addOnFailureListener(e -> {
-                                setLoading(false);
-                                Log.e(TAG, "Failed to update material ID in Firestore: " + e.getMessage(), e);
-                                Toast.makeText(this, "Material uploaded, but failed to set ID.", Toast.LENGTH_LONG).show();
-                            });
+        // The ID is known up front, so the material is saved in one write
+        DocumentReference materialRef = db.collection("studyMaterials").document();
+
+        StudyMaterial material = new StudyMaterial();
+        material.setId(materialRef.getId());
+        material.setTitle(title);
+        material.setDescription(description);
+        material.setSubject(subject);
+        material.setMaterialType(materialType);
+        material.setFileUrl(fileUrl);
+        material.setThumbnailUrl(thumbnailUrl);
+        material.setUploaderUid(uploaderUid);
+        material.setUploaderName(uploaderName); // Timestamp is left null, so the server time is stored
+
+        // Same schema as every reader (see StudyMaterialMapper)
+        Map<String, Object> materialData = StudyMaterialMapper.encode(material);
+        materialData.put(SearchTokens.FIELD, SearchTokens.forFields(SearchFields.material(material))); // For server-side search
+
+        materialRef.set(materialData)
+                .addOnSuccessListener(aVoid -> {
+                    setLoading(false);
+                    Toast.makeText(this, "Material uploaded successfully!", Toast.LENGTH_LONG).show();
+                    finish(); // Go back to the previous activity (ProfileFragment)
                 })
                 .addOnFailureListener(e -> {
                     setLoading(false);
@@ -0,0 +1,30 @@
+package com.example.bookup.adapters;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Maps Firestore document IDs to the long item IDs RecyclerView needs for stable IDs.
+ */
+public final class StableIds {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private StableIds() {
+        // Utility class
+    }
+
+    /**
+     * @param documentId The Firestore document ID, may be null for items not yet written.
+     * @return A 64-bit FNV-1a hash of the ID, or {@link RecyclerView#NO_ID} when the ID is null.
+     */
+    public static long forDocumentId(String documentId) {
+        if (documentId == null) return RecyclerView.NO_ID;
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < documentId.length(); i++) {
+            hash ^= documentId.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.bookup.chat;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.bookup.models.ChannelSummaryMapper;
+import com.example.bookup.models.ChatChannel;
+import com.example.bookup.models.ChatChannelMapper;
+import com.example.bookup.query.FirestoreDecoding;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes the per-user channel summaries (see {@link com.example.bookup.models.ChannelSummary}).
+ *
+ * Summaries are written in the same batch or transaction as the channel change they reflect
+ * (channel creation, sent messages), so they never disagree with the channel. Unread counters
+ * are only ever incremented with {@link FieldValue#increment} and reset by their owner.
+ *
+ * Until this moves to a server-side trigger, the sender's client writes every participant's
+ * summary, so the security rules ({@code firestore.rules} at the repository root) keep those
+ * writes honest: only participants of the channel may write its summaries, someone other than the
+ * owner may only copy the channel's last message and raise the unread counter, and only the owner
+ * may reset it.
+ */
+public final class ChannelSummaries {
+
+    private static final String TAG = "ChannelSummaries";
+
+    public static final String COLLECTION = "channelSummaries";
+
+    /**
+     * Set on {@code users/{uid}} once the summaries of the user's older channels were created.
+     */
+    public static final String BACKFILLED_FIELD = "channelSummariesBackfilled";
+
+    private static final int MAX_WRITES_PER_BATCH = 450; // Firestore allows 500
+
+    private ChannelSummaries() {
+        // Utility class
+    }
+
+    public static DocumentReference document(FirebaseFirestore db, String uid, String channelId) {
+        return db.collection("users").document(uid).collection(COLLECTION).document(channelId);
+    }
+
+    /**
+     * @return The summaries of a user's channels, most recent first.
+     */
+    public static Query forUser(FirebaseFirestore db, String uid) {
+        return db.collection("users").document(uid).collection(COLLECTION)
+                .orderBy(ChannelSummaryMapper.LAST_MESSAGE_TIMESTAMP, Query.Direction.DESCENDING);
+    }
+
+    /**
+     * Builds the summary fields of a channel as seen by one participant, without the
+     * timestamp and unread counter, which depend on the kind of write.
+     */
+    public static Map<String, Object> fieldsFor(String uid, List<String> participantIds,
+                                                Map<String, String> participantNames, String lastMessage) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(ChannelSummaryMapper.LAST_MESSAGE, lastMessage);
+        boolean isGroupChat = participantIds.size() > 2;
+        fields.put(ChannelSummaryMapper.IS_GROUP_CHAT, isGroupChat);
+        if (!isGroupChat) {
+            for (String participantId : participantIds) {
+                if (participantId.equals(uid)) continue;
+                fields.put(ChannelSummaryMapper.OTHER_PARTICIPANT_ID, participantId);
+                String name = participantNames != null ? participantNames.get(participantId) : null;
+                if (name != null) {
+                    fields.put(ChannelSummaryMapper.TITLE, name); // Otherwise keeps the title already stored
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Adds the summary updates of every participant for messages sent in one batch: the last
+     * message, and for everyone but the sender an unread counter increased by the message count.
+     *
+     * @param lastMessage Null to leave the last message and its timestamp as they are, e.g. when a
+     *                    newer message was written already.
+     */
+    public static void addSentMessagesWrites(WriteBatch batch, FirebaseFirestore db, String channelId,
+                                             List<String> participantIds, Map<String, String> participantNames,
+                                             String senderId, @Nullable String lastMessage, int messageCount) {
+        for (String uid : participantIds) {
+            if (lastMessage == null && uid.equals(senderId)) continue; // Nothing to update
+
+            Map<String, Object> fields;
+            if (lastMessage != null) {
+                fields = fieldsFor(uid, participantIds, participantNames, lastMessage);
+                fields.put(ChannelSummaryMapper.LAST_MESSAGE_TIMESTAMP, FieldValue.serverTimestamp());
+            } else {
+                fields = new HashMap<>();
+            }
+            if (!uid.equals(senderId)) {
+                fields.put(ChannelSummaryMapper.UNREAD_COUNT, FieldValue.increment(messageCount));
+            }
+            batch.set(document(db, uid, channelId), fields, SetOptions.merge());
+        }
+    }
+
+    /**
+     * Resets a user's unread counter of a channel.
+     */
+    public static void markRead(FirebaseFirestore db, String uid, String channelId) {
+        document(db, uid, channelId)
+                .set(Collections.singletonMap(ChannelSummaryMapper.UNREAD_COUNT, 0), SetOptions.merge())
+                .addOnFailureListener(e -> Log.e(TAG, "Error marking channel as read: " + e.getMessage()));
+    }
+
+    /**
+     * Creates the summaries of a user's channels that have none yet, for channels created before
+     * summaries were maintained, then marks the user as backfilled ({@link #BACKFILLED_FIELD}).
+     * Counters start at zero, as older messages are not tracked. Channels that already have a
+     * summary are left alone, so their counters are kept.
+     *
+     * @param summarizedChannelIds The channels the user has a summary of already.
+     */
+    public static void backfill(FirebaseFirestore db, String uid, Set<String> summarizedChannelIds) {
+        db.collection("chatChannels")
+                .whereArrayContains(ChatChannelMapper.PARTICIPANT_IDS, uid)
+                .get()
+                .onSuccessTask(FirestoreDecoding.executor(), queryDocumentSnapshots -> {
+                    // Decodes every channel of the user, so it stays off the main thread
+                    List<Task<Void>> commits = new ArrayList<>();
+                    WriteBatch batch = db.batch();
+                    int writes = 0;
+                    for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
+                        if (summarizedChannelIds.contains(doc.getId())) continue;
+                        ChatChannel channel = ChatChannelMapper.decode(doc);
+                        if (channel.getParticipantIds() == null) continue;
+                        Map<String, Object> fields = fieldsFor(uid, channel.getParticipantIds(),
+                                channel.getParticipantNames(), channel.getLastMessage());
+                        fields.put(ChannelSummaryMapper.LAST_MESSAGE_TIMESTAMP, channel.getLastMessageTimestamp());
+                        fields.put(ChannelSummaryMapper.UNREAD_COUNT, 0);
+                        batch.set(document(db, uid, doc.getId()), fields, SetOptions.merge());
+                        if (++writes == MAX_WRITES_PER_BATCH) {
+                            commits.add(batch.commit());
+                            batch = db.batch();
+                            writes = 0;
+                        }
+                    }
+                    if (writes > 0) {
+                        commits.add(batch.commit());
+                    }
+                    return Tasks.whenAll(commits);
+                })
+                // Only marked once every summary was written, so a failed backfill is retried later
+                .onSuccessTask(aVoid -> db.collection("users").document(uid)
+                        .set(Collections.singletonMap(BACKFILLED_FIELD, true), SetOptions.merge()))
+                .addOnFailureListener(e -> Log.e(TAG, "Error creating channel summaries: " + e.getMessage()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.bookup.chat;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.bookup.models.ChannelSummary;
+import com.example.bookup.models.ChannelSummaryMapper;
+import com.example.bookup.query.FirestoreDecoding;
+import com.example.bookup.users.UserProfileRepository;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process-wide source of the current user's chat channel list, shared by every screen that shows it.
+ *
+ * Each user's list is a single LiveData backed by a single Firestore listener. The listener is
+ * attached while at least one observer is active and removed shortly after the last one goes
+ * away, so screens that replace each other (e.g. the chat list and a chat) don't re-read the
+ * whole list. Until the listener delivers, the list cached in {@link LocalChatDatabase} is shown.
+ * Must be used on the main thread.
+ */
+public class ChatChannelRepository {
+
+    private static final String TAG = "ChatChannelRepository";
+
+    // How long the listener outlives its last observer
+    private static final long DETACH_DELAY_MS = 5000;
+
+    private static ChatChannelRepository instance;
+
+    private final FirebaseFirestore db;
+    private final LocalChatDatabase localChatDatabase;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, ChannelListLiveData> channelsByUser = new HashMap<>();
+
+    public static synchronized ChatChannelRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ChatChannelRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ChatChannelRepository(Context context) {
+        db = FirebaseFirestore.getInstance();
+        localChatDatabase = LocalChatDatabase.getInstance(context);
+    }
+
+    /**
+     * @return The user's channels, most recent first. The value is null until either the cache
+     *         or Firestore delivered a list.
+     */
+    public ChannelListLiveData getChannels(String uid) {
+        ChannelListLiveData channels = channelsByUser.get(uid);
+        if (channels == null) {
+            channels = new ChannelListLiveData(uid);
+            channelsByUser.put(uid, channels);
+        }
+        return channels;
+    }
+
+    // One listener snapshot, decoded off the main thread
+    private static class DecodedChannels {
+        final List<ChannelSummary> channels;
+        final boolean fromCache;
+
+        DecodedChannels(QuerySnapshot snapshot) {
+            channels = FirestoreDecoding.decodeAll(snapshot.getDocuments(), ChannelSummaryMapper::decode);
+            fromCache = snapshot.getMetadata().isFromCache();
+        }
+    }
+
+    public class ChannelListLiveData extends LiveData<List<ChannelSummary>> {
+
+        private final String uid;
+        private final MutableLiveData<Exception> errors = new MutableLiveData<>();
+        private final Runnable detachRunnable = this::detach;
+        private ListenerRegistration registration;
+        private boolean backfillChecked; // Per process; whether it is needed is stored on the user document
+
+        private ChannelListLiveData(String uid) {
+            this.uid = uid;
+        }
+
+        /**
+         * @return The last listener failure, or null once the listener delivers again.
+         */
+        public LiveData<Exception> getErrors() {
+            return errors;
+        }
+
+        @Override
+        protected void onActive() {
+            mainHandler.removeCallbacks(detachRunnable);
+            if (registration != null) return; // Still attached from a previous observer
+
+            if (getValue() == null) {
+                localChatDatabase.loadChannelSummaries(uid, cachedChannels -> {
+                    if (getValue() == null && !cachedChannels.isEmpty()) {
+                        setValue(Collections.unmodifiableList(cachedChannels));
+                    }
+                });
+            }
+
+            // The compact per-user summaries carry everything the list shows, including unread counts
+            registration = FirestoreDecoding.listen(ChannelSummaries.forUser(db, uid), DecodedChannels::new, (decoded, e) -> {
+                if (e != null) {
+                    Log.w(TAG, "Listen failed for chat channels.", e);
+                    errors.setValue(e);
+                    return;
+                }
+                if (decoded == null) return;
+
+                List<ChannelSummary> channels = decoded.channels;
+                if (errors.getValue() != null) {
+                    errors.setValue(null);
+                }
+                setValue(channels);
+                localChatDatabase.saveChannelSummaries(uid, channels);
+
+                if (!decoded.fromCache && !backfillChecked) {
+                    backfillChecked = true;
+                    backfillIfNeeded(channels);
+                }
+            });
+        }
+
+        // Channels from before summaries existed are summarized once per user, whatever the list holds by now
+        private void backfillIfNeeded(List<ChannelSummary> channels) {
+            Set<String> summarizedChannelIds = new HashSet<>();
+            for (ChannelSummary channel : channels) {
+                summarizedChannelIds.add(channel.getId());
+            }
+            UserProfileRepository.getInstance().getProfile()
+                    .addOnSuccessListener(profile -> {
+                        if (!profile.getUid().equals(uid)
+                                || Boolean.TRUE.equals(profile.getBoolean(ChannelSummaries.BACKFILLED_FIELD))) return;
+                        ChannelSummaries.backfill(db, uid, summarizedChannelIds); // The listener picks them up
+                    })
+                    .addOnFailureListener(e -> {
+                        Log.w(TAG, "Could not check whether channel summaries need a backfill.", e);
+                        backfillChecked = false; // Checked again on the next server snapshot
+                    });
+        }
+
+        @Override
+        protected void onInactive() {
+            mainHandler.postDelayed(detachRunnable, DETACH_DELAY_MS);
+        }
+
+        private void detach() {
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.bookup.chat;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.example.bookup.models.ChatMessage;
+import com.example.bookup.models.ChatMessageMapper;
+import com.example.bookup.query.FirestoreDecoding;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ordered in-memory copy of a chat's messages, kept in sync with a Firestore snapshot listener
+ * by applying its document changes instead of rebuilding the whole list.
+ *
+ * Only added and modified documents are deserialized, off the main thread by a
+ * {@link WindowDecoder}, and every change is reported to a {@link ListUpdateCallback} with its
+ * exact position, so the adapter rebinds only affected rows. Must be used on the main thread.
+ *
+ * The live listener only covers the newest messages (a {@code limitToLast} window). The store
+ * holds those at its tail, preceded by "older" messages that were either loaded page by page
+ * or pushed out of the live window by newer ones.
+ *
+ * Messages the user sent that Firestore has not seen yet are shown after everything else, as
+ * "pending" messages, until the listener delivers their document.
+ */
+public class ChatMessageStore {
+
+    /**
+     * One snapshot of the live window, decoded by a {@link WindowDecoder}.
+     */
+    public static class WindowSnapshot {
+        @Nullable private final List<ChatMessage> window; // Every message, for a listener's first snapshot only
+        private final List<DocumentChange> changes;
+        private final List<ChatMessage> changedMessages; // The decoded document of each change, null for removals
+        @Nullable private final DocumentSnapshot oldestDocument;
+        private final int size;
+
+        private WindowSnapshot(@Nullable List<ChatMessage> window, List<DocumentChange> changes,
+                               List<ChatMessage> changedMessages, @Nullable DocumentSnapshot oldestDocument, int size) {
+            this.window = window;
+            this.changes = changes;
+            this.changedMessages = changedMessages;
+            this.oldestDocument = oldestDocument;
+            this.size = size;
+        }
+
+        /**
+         * @return All messages of the window in ascending order if this is the listener's first
+         *         snapshot, which replays the whole window; null otherwise.
+         */
+        @Nullable
+        public List<ChatMessage> getWindow() { return window; }
+
+        /**
+         * @return The window's oldest message document, e.g. as a cursor for older pages; null if empty.
+         */
+        @Nullable
+        public DocumentSnapshot getOldestDocument() { return oldestDocument; }
+
+        public int size() { return size; }
+    }
+
+    /**
+     * Decodes the snapshots of one live-window listener (see {@link FirestoreDecoding#listen}). Use
+     * a new instance per listener, since it tells the first snapshot from later ones.
+     */
+    public static class WindowDecoder implements FirestoreDecoding.SnapshotDecoder<WindowSnapshot> {
+        private boolean firstSnapshot = true; // Snapshots of one listener are decoded one at a time
+
+        @Override
+        public WindowSnapshot decode(@NonNull QuerySnapshot snapshot) {
+            List<DocumentSnapshot> documents = snapshot.getDocuments();
+            List<ChatMessage> window = null;
+            List<DocumentChange> changes = Collections.emptyList();
+            List<ChatMessage> changedMessages = Collections.emptyList();
+            if (firstSnapshot) {
+                firstSnapshot = false;
+                window = FirestoreDecoding.decodeAll(documents, ChatMessageStore::decode);
+            } else {
+                changes = snapshot.getDocumentChanges(MetadataChanges.INCLUDE);
+                changedMessages = new ArrayList<>(changes.size());
+                for (DocumentChange change : changes) {
+                    changedMessages.add(change.getType() == DocumentChange.Type.REMOVED ? null : decode(change.getDocument()));
+                }
+            }
+            return new WindowSnapshot(window, changes, changedMessages,
+                    documents.isEmpty() ? null : documents.get(0), documents.size());
+        }
+    }
+
+    private final List<ChatMessage> messages = new ArrayList<>();
+    private int olderCount; // Messages before the live window
+    private final List<ChatMessage> pendingMessages = new ArrayList<>(); // Shown after messages
+
+    public int size() {
+        return messages.size() + pendingMessages.size();
+    }
+
+    public ChatMessage get(int position) {
+        return position < messages.size() ? messages.get(position) : pendingMessages.get(position - messages.size());
+    }
+
+    /**
+     * Shows a message that was sent but not yet written to Firestore at the end of the list.
+     * Does nothing if the message is already shown.
+     */
+    public void addPending(ChatMessage message, ListUpdateCallback callback) {
+        if (indexOf(messages, message.getId()) >= 0 || indexOf(pendingMessages, message.getId()) >= 0) return;
+        insertPending(message, callback);
+    }
+
+    /**
+     * Removes a pending message, e.g. once it was given up on or the listener delivered it.
+     */
+    public void removePending(String messageId, ListUpdateCallback callback) {
+        int index = indexOf(pendingMessages, messageId);
+        if (index < 0) return;
+        pendingMessages.remove(index);
+        callback.onRemoved(messages.size() + index, 1);
+    }
+
+    /**
+     * Applies the changes of one live-window snapshot, in order. The old/new indexes Firestore
+     * reports are positions in the window, i.e. in this store after the older messages.
+     *
+     * @param windowLimit The live query's {@code limitToLast} value. When the window is full, a
+     *                    removal of its oldest message means it slid out of the window, so the
+     *                    message is kept as an older message instead of being removed.
+     * @return The added and modified messages, e.g. for writing them to the local database.
+     */
+    public List<ChatMessage> applyChanges(WindowSnapshot snapshot, int windowLimit, ListUpdateCallback callback) {
+        List<ChatMessage> upserted = new ArrayList<>();
+        for (int i = 0; i < snapshot.changes.size(); i++) {
+            DocumentChange change = snapshot.changes.get(i);
+            int oldIndex = change.getOldIndex() + olderCount;
+            int newIndex = change.getNewIndex() + olderCount;
+            switch (change.getType()) {
+                case ADDED:
+                    if (change.getNewIndex() == 0 && olderCount > 0
+                            && messages.get(olderCount - 1).getId().equals(change.getDocument().getId())) {
+                        // A message above the window re-entered it (a newer one was deleted); it is already shown
+                        olderCount--;
+                        break;
+                    }
+                    removePending(change.getDocument().getId(), callback);
+                    ChatMessage added = snapshot.changedMessages.get(i);
+                    messages.add(newIndex, added);
+                    upserted.add(added);
+                    callback.onInserted(newIndex, 1);
+                    break;
+                case MODIFIED:
+                    ChatMessage message = snapshot.changedMessages.get(i);
+                    upserted.add(message);
+                    if (oldIndex == newIndex) {
+                        messages.set(newIndex, message);
+                    } else {
+                        messages.remove(oldIndex);
+                        messages.add(newIndex, message);
+                        callback.onMoved(oldIndex, newIndex);
+                    }
+                    callback.onChanged(newIndex, 1, null);
+                    break;
+                case REMOVED:
+                    ChatMessage removed = messages.get(oldIndex);
+                    if (removed.isPending()) {
+                        // Firestore rolled back a rejected write; keep it shown as pending while it is retried
+                        messages.remove(oldIndex);
+                        callback.onRemoved(oldIndex, 1);
+                        insertPending(removed, callback);
+                        break;
+                    }
+                    if (change.getOldIndex() == 0 && messages.size() - olderCount == windowLimit) {
+                        olderCount++; // Pushed out of the full window by a newer message, not deleted
+                        break;
+                    }
+                    messages.remove(oldIndex);
+                    callback.onRemoved(oldIndex, 1);
+                    break;
+            }
+        }
+        return upserted;
+    }
+
+    /**
+     * Replaces the whole content, e.g. with messages read from the local database or with the
+     * first snapshot of a listener that replaces them. Only the rows that actually differ are
+     * reported to the callback.
+     */
+    public void replaceAll(List<ChatMessage> newMessages, ListUpdateCallback callback) {
+        for (ChatMessage message : newMessages) {
+            removePending(message.getId(), callback);
+        }
+        List<ChatMessage> oldMessages = new ArrayList<>(messages);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldMessages.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newMessages.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return oldMessages.get(oldItemPosition).getId().equals(newMessages.get(newItemPosition).getId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                return oldMessages.get(oldItemPosition).equals(newMessages.get(newItemPosition));
+            }
+        });
+        messages.clear();
+        messages.addAll(newMessages);
+        olderCount = 0;
+        diff.dispatchUpdatesTo(callback);
+    }
+
+    /**
+     * Inserts a page of older messages (in ascending order) above everything loaded so far.
+     */
+    public void prependOlder(List<ChatMessage> olderMessages, ListUpdateCallback callback) {
+        if (olderMessages.isEmpty()) return;
+        messages.addAll(0, olderMessages);
+        olderCount += olderMessages.size();
+        callback.onInserted(0, olderMessages.size());
+    }
+
+    // Call off the main thread, like all decoding
+    public static ChatMessage decode(DocumentSnapshot document) {
+        ChatMessage message = ChatMessageMapper.decode(document);
+        message.setPending(document.getMetadata().hasPendingWrites());
+        return message;
+    }
+
+    // Pending messages are kept in send (timestamp) order
+    private void insertPending(ChatMessage message, ListUpdateCallback callback) {
+        int index = pendingMessages.size();
+        while (index > 0 && message.getTimestamp() != null && pendingMessages.get(index - 1).getTimestamp() != null
+                && pendingMessages.get(index - 1).getTimestamp().after(message.getTimestamp())) {
+            index--;
+        }
+        pendingMessages.add(index, message);
+        callback.onInserted(messages.size() + index, 1);
+    }
+
+    private static int indexOf(List<ChatMessage> list, String messageId) {
+        for (int i = list.size() - 1; i >= 0; i--) { // Searched from the end, where recent messages are
+            if (list.get(i).getId().equals(messageId)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.bookup.chat;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.bookup.models.ChannelSummary;
+import com.example.bookup.models.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-disk copy of the user's channel summaries and recent messages, so the chat screens can render
+ * immediately from disk while the Firestore listeners catch up.
+ *
+ * All disk access happens on a single background thread; results are delivered on the main thread.
+ * Each channel keeps at most {@link #MAX_MESSAGES_PER_CHANNEL} messages, the oldest are evicted first.
+ */
+public class LocalChatDatabase extends SQLiteOpenHelper {
+
+    private static final String TAG = "LocalChatDatabase";
+
+    private static final String DATABASE_NAME = "bookup_chat.db";
+    private static final int DATABASE_VERSION = 2; // 2: channels hold channel summaries
+
+    public static final int MAX_MESSAGES_PER_CHANNEL = 200;
+
+    private static final String TABLE_CHANNELS = "channels";
+    private static final String TABLE_MESSAGES = "messages";
+
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private static LocalChatDatabase instance;
+
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized LocalChatDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocalChatDatabase(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private LocalChatDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_CHANNELS + " ("
+                + "id TEXT NOT NULL, "
+                + "owner_uid TEXT NOT NULL, "
+                + "title TEXT, "
+                + "other_participant_id TEXT, "
+                + "last_message TEXT, "
+                + "last_message_ts INTEGER, "
+                + "unread_count INTEGER NOT NULL DEFAULT 0, "
+                + "is_group INTEGER NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (owner_uid, id))");
+        db.execSQL("CREATE TABLE " + TABLE_MESSAGES + " ("
+                + "id TEXT PRIMARY KEY, "
+                + "channel_id TEXT NOT NULL, "
+                + "sender_id TEXT, "
+                + "sender_name TEXT, "
+                + "message_text TEXT, "
+                + "timestamp INTEGER, "
+                + "is_read INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX idx_messages_channel_ts ON " + TABLE_MESSAGES + " (channel_id, timestamp)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Everything here is a cache of Firestore data, so it is simply rebuilt
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CHANNELS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_MESSAGES);
+        onCreate(db);
+    }
+
+    /**
+     * Deletes everything cached, e.g. when the user signs out, so the next account on the device
+     * never sees it.
+     */
+    public void clear() {
+        diskExecutor.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete(TABLE_CHANNELS, null, null);
+                db.delete(TABLE_MESSAGES, null, null);
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to clear the chat cache: " + e.getMessage(), e);
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    // --- Messages ---
+
+    /**
+     * Loads the newest cached messages of a channel, in ascending timestamp order.
+     */
+    public void loadMessages(String channelId, int limit, Callback<List<ChatMessage>> callback) {
+        diskExecutor.execute(() -> {
+            List<ChatMessage> messages = new ArrayList<>();
+            try (Cursor cursor = getReadableDatabase().query(TABLE_MESSAGES, null, "channel_id = ?",
+                    new String[]{channelId}, null, null, "timestamp DESC", String.valueOf(limit))) {
+                while (cursor.moveToNext()) {
+                    messages.add(readMessage(cursor));
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to load cached messages: " + e.getMessage(), e);
+            }
+            Collections.reverse(messages);
+            mainHandler.post(() -> callback.onResult(messages));
+        });
+    }
+
+    /**
+     * Inserts or updates messages of a channel, then evicts the oldest beyond the per-channel limit.
+     * Pending messages are skipped, as the server may still reject them; they are saved once the
+     * listener reports them written.
+     */
+    public void saveMessages(String channelId, List<ChatMessage> messages) {
+        if (messages.isEmpty()) return;
+        List<ChatMessage> copy = new ArrayList<>(messages);
+        diskExecutor.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (ChatMessage message : copy) {
+                    if (message.getId() == null || message.getTimestamp() == null || message.isPending()) continue;
+                    ContentValues values = new ContentValues();
+                    values.put("id", message.getId());
+                    values.put("channel_id", channelId);
+                    values.put("sender_id", message.getSenderId());
+                    values.put("sender_name", message.getSenderName());
+                    values.put("message_text", message.getMessageText());
+                    values.put("timestamp", message.getTimestamp().getTime());
+                    values.put("is_read", message.isRead() ? 1 : 0);
+                    db.insertWithOnConflict(TABLE_MESSAGES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                db.execSQL("DELETE FROM " + TABLE_MESSAGES + " WHERE channel_id = ? AND id NOT IN ("
+                                + "SELECT id FROM " + TABLE_MESSAGES + " WHERE channel_id = ? ORDER BY timestamp DESC LIMIT ?)",
+                        new Object[]{channelId, channelId, MAX_MESSAGES_PER_CHANNEL});
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to cache messages: " + e.getMessage(), e);
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    private static ChatMessage readMessage(Cursor cursor) {
+        ChatMessage message = new ChatMessage(
+                cursor.getString(cursor.getColumnIndexOrThrow("sender_id")),
+                cursor.getString(cursor.getColumnIndexOrThrow("sender_name")),
+                cursor.getString(cursor.getColumnIndexOrThrow("message_text")),
+                new Date(cursor.getLong(cursor.getColumnIndexOrThrow("timestamp"))),
+                cursor.getInt(cursor.getColumnIndexOrThrow("is_read")) == 1);
+        message.setId(cursor.getString(cursor.getColumnIndexOrThrow("id")));
+        return message;
+    }
+
+    // --- Channels ---
+
+    /**
+     * Loads the cached channel summaries of a user, most recent first.
+     */
+    public void loadChannelSummaries(String ownerUid, Callback<List<ChannelSummary>> callback) {
+        diskExecutor.execute(() -> {
+            List<ChannelSummary> channels = new ArrayList<>();
+            try (Cursor cursor = getReadableDatabase().query(TABLE_CHANNELS, null, "owner_uid = ?",
+                    new String[]{ownerUid}, null, null, "last_message_ts DESC")) {
+                while (cursor.moveToNext()) {
+                    channels.add(readChannel(cursor));
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to load cached channels: " + e.getMessage(), e);
+            }
+            mainHandler.post(() -> callback.onResult(channels));
+        });
+    }
+
+    /**
+     * Replaces the cached channel summaries of a user.
+     */
+    public void saveChannelSummaries(String ownerUid, List<ChannelSummary> channels) {
+        List<ChannelSummary> copy = new ArrayList<>(channels);
+        diskExecutor.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete(TABLE_CHANNELS, "owner_uid = ?", new String[]{ownerUid});
+                for (ChannelSummary channel : copy) {
+                    if (channel.getId() == null) continue;
+                    ContentValues values = new ContentValues();
+                    values.put("id", channel.getId());
+                    values.put("owner_uid", ownerUid);
+                    values.put("title", channel.getTitle());
+                    values.put("other_participant_id", channel.getOtherParticipantId());
+                    values.put("last_message", channel.getLastMessage());
+                    if (channel.getLastMessageTimestamp() != null) {
+                        values.put("last_message_ts", channel.getLastMessageTimestamp().getTime());
+                    }
+                    values.put("unread_count", channel.getUnreadCount());
+                    values.put("is_group", channel.getIsGroupChat() ? 1 : 0);
+                    db.insertWithOnConflict(TABLE_CHANNELS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to cache channels: " + e.getMessage(), e);
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    private static ChannelSummary readChannel(Cursor cursor) {
+        ChannelSummary channel = new ChannelSummary();
+        channel.setId(cursor.getString(cursor.getColumnIndexOrThrow("id")));
+        channel.setTitle(cursor.getString(cursor.getColumnIndexOrThrow("title")));
+        channel.setOtherParticipantId(cursor.getString(cursor.getColumnIndexOrThrow("other_participant_id")));
+        channel.setLastMessage(cursor.getString(cursor.getColumnIndexOrThrow("last_message")));
+        int timestampColumn = cursor.getColumnIndexOrThrow("last_message_ts");
+        if (!cursor.isNull(timestampColumn)) {
+            channel.setLastMessageTimestamp(new Date(cursor.getLong(timestampColumn)));
+        }
+        channel.setUnreadCount(cursor.getLong(cursor.getColumnIndexOrThrow("unread_count")));
+        channel.setIsGroupChat(cursor.getInt(cursor.getColumnIndexOrThrow("is_group")) == 1);
+        return channel;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.bookup.chat;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.bookup.models.ChatChannelMapper;
+import com.example.bookup.models.ChatMessage;
+import com.example.bookup.models.ChatMessageMapper;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends the messages of one chat channel without making the user wait for the server.
+ *
+ * Messages get their document ID up front, so they can be shown right away and matched with
+ * the listener's copy later. Messages sent in quick succession are coalesced into a single
+ * WriteBatch, together with one update of the channel's last message and of every participant's
+ * channel summary (see {@link ChannelSummaries}). A failed batch is retried with exponential backoff.
+ * The participants are read from the channel document first, so group members the screen does
+ * not know about get their summary too; until then, messages wait (they are shown as pending).
+ *
+ * Batches are handed to Firestore in the order their messages were sent, and Firestore applies
+ * a client's writes in that order, so messages stay ordered within the channel. A retried batch
+ * is handed over again after newer ones, so it only updates the last message if no newer batch
+ * was handed over in the meantime; otherwise it would overwrite the newer last message.
+ * Must be used on the main thread.
+ */
+public class OutgoingMessageQueue {
+
+    private static final String TAG = "OutgoingMessageQueue";
+
+    private static final long COALESCE_DELAY_MS = 150;
+    private static final int MAX_BATCH_SIZE = 100; // Well below Firestore's limit of 500 writes per batch
+    private static final long INITIAL_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 30000;
+    private static final int MAX_ATTEMPTS = 6;
+
+    public interface Listener {
+        /**
+         * A batch was rejected. Firestore rolls back its local copy of the messages, so they
+         * disappear from the live listener until the retry (if any) writes them again.
+         */
+        void onSendFailed(List<ChatMessage> messages, boolean willRetry, Exception e);
+    }
+
+    private final DocumentReference channelRef;
+    private final CollectionReference messagesRef;
+    private final FirebaseFirestore db;
+    private final String chatChannelId;
+    private final Map<String, String> participantNames; // Read at commit time, so names fetched later are used
+    private final Set<String> participantIds = new LinkedHashSet<>(); // Everyone whose summary is updated
+    private boolean participantsLoaded;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<ChatMessage> waiting = new ArrayList<>(); // Sent by the user, not yet handed to Firestore
+    private final Runnable flushRunnable = this::flush;
+    private boolean flushScheduled;
+    private long nextBatchSeq; // Batches are numbered in send order
+    private long newestHandedSeq = -1; // The newest batch handed to Firestore so far
+    private Listener listener;
+
+    /**
+     * @param participantNames UIDs of all participants mapped to their display names (names may be null).
+     */
+    public OutgoingMessageQueue(FirebaseFirestore db, String chatChannelId, Map<String, String> participantNames, Listener listener) {
+        this.db = db;
+        this.chatChannelId = chatChannelId;
+        this.participantNames = participantNames;
+        this.channelRef = db.collection("chatChannels").document(chatChannelId);
+        this.messagesRef = channelRef.collection("messages");
+        this.listener = listener;
+        participantIds.addAll(participantNames.keySet());
+        loadParticipants();
+    }
+
+    // Served from Firestore's cache when offline; if that fails too, the known participants are used
+    private void loadParticipants() {
+        channelRef.get().addOnCompleteListener(task -> {
+            if (task.isSuccessful() && task.getResult().exists()) {
+                List<String> channelParticipants = ChatChannelMapper.decode(task.getResult()).getParticipantIds();
+                if (channelParticipants != null) {
+                    participantIds.addAll(channelParticipants);
+                }
+            } else {
+                Log.w(TAG, "Could not read the channel's participants, using the known ones.", task.getException());
+            }
+            participantsLoaded = true;
+            flush();
+        });
+    }
+
+    /**
+     * Assigns the message its document ID and queues it. The batch is written once no further
+     * message arrived for a short moment, or as soon as it is full.
+     */
+    public void enqueue(ChatMessage message) {
+        message.setId(messagesRef.document().getId());
+        message.setPending(true);
+        waiting.add(message);
+
+        if (waiting.size() >= MAX_BATCH_SIZE) {
+            flush();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            handler.postDelayed(flushRunnable, COALESCE_DELAY_MS);
+        }
+    }
+
+    /**
+     * Hands everything still waiting to Firestore now (or as soon as the participants are known)
+     * and stops reporting to the listener. Writes already in progress (including their retries)
+     * still complete.
+     */
+    public void detach() {
+        flush();
+        listener = null;
+    }
+
+    private void flush() {
+        handler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+        if (!participantsLoaded) return; // Flushed once they are
+        while (!waiting.isEmpty()) {
+            List<ChatMessage> batch = new ArrayList<>(waiting.subList(0, Math.min(waiting.size(), MAX_BATCH_SIZE)));
+            waiting.subList(0, batch.size()).clear();
+            commit(batch, nextBatchSeq++, 1);
+        }
+    }
+
+    private void commit(List<ChatMessage> messages, long seq, int attempt) {
+        boolean newestBatch = seq >= newestHandedSeq;
+        newestHandedSeq = Math.max(newestHandedSeq, seq);
+
+        WriteBatch batch = db.batch();
+        for (ChatMessage message : messages) {
+            batch.set(messagesRef.document(message.getId()), ChatMessageMapper.encode(message));
+        }
+        // One channel update per batch, with the newest message, unless a newer batch already set it
+        ChatMessage newest = messages.get(messages.size() - 1);
+        String lastMessage = newestBatch ? newest.getMessageText() : null;
+        if (lastMessage != null) {
+            batch.update(channelRef,
+                    ChatChannelMapper.LAST_MESSAGE, lastMessage,
+                    ChatChannelMapper.LAST_MESSAGE_TIMESTAMP, FieldValue.serverTimestamp()
+            );
+        }
+        ChannelSummaries.addSentMessagesWrites(batch, db, chatChannelId, new ArrayList<>(participantIds),
+                participantNames, newest.getSenderId(), lastMessage, messages.size());
+
+        batch.commit()
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Sent " + messages.size() + " message(s)."))
+                .addOnFailureListener(e -> {
+                    boolean willRetry = attempt < MAX_ATTEMPTS;
+                    Log.e(TAG, "Error sending " + messages.size() + " message(s), attempt " + attempt + ": " + e.getMessage());
+                    if (willRetry) {
+                        long delay = Math.min(INITIAL_RETRY_DELAY_MS << (attempt - 1), MAX_RETRY_DELAY_MS);
+                        handler.postDelayed(() -> commit(messages, seq, attempt + 1), delay);
+                    }
+                    if (listener != null) {
+                        listener.onSendFailed(messages, willRetry, e);
+                    }
+                });
+    }
+}
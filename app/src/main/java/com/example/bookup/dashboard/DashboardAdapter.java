@@ -0,0 +1,296 @@
+package com.example.bookup.dashboard;
+
+import android.os.Parcelable;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.bookup.R;
+import com.example.bookup.adapters.StableIds;
+import com.google.android.material.button.MaterialButton;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The whole dashboard as one vertical list: the greeting, then per section a header, a horizontal
+ * carousel and/or an empty state, each its own item. Only the rows on screen are laid out.
+ *
+ * Carousel rows host the section's own adapter, which keeps its items between binds. All carousels
+ * share one {@link RecyclerView.RecycledViewPool}, so cards scrolled off in one section are reused by
+ * the next instead of inflated again; the section adapters use their layout as view type, so cards
+ * of different sections never mix. A carousel's scroll position is kept while its row is recycled.
+ */
+public class DashboardAdapter extends ListAdapter<DashboardAdapter.Row, RecyclerView.ViewHolder> {
+
+    private static final int TYPE_GREETING = R.layout.item_dashboard_greeting;
+    private static final int TYPE_HEADER = R.layout.item_dashboard_section_header;
+    private static final int TYPE_CAROUSEL = R.layout.item_dashboard_carousel;
+    private static final int TYPE_EMPTY = R.layout.item_dashboard_empty_state;
+
+    // Cards laid out ahead of time when a carousel scrolls into view, about what fits the screen
+    private static final int CAROUSEL_PREFETCH_ITEMS = 4;
+
+    private static final DiffUtil.ItemCallback<Row> DIFF_CALLBACK = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.key.equals(newItem.key);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    /**
+     * One dashboard item. Rows are immutable; build them with the static factory methods.
+     */
+    public static final class Row {
+        private final int type;
+        private final String key; // Unique within the dashboard
+        @Nullable private final String title;
+        @Nullable private final String text;
+        @DrawableRes private final int icon;
+        @StringRes private final int message;
+        @StringRes private final int iconDescription;
+        @StringRes private final int action; // 0 for none
+        @Nullable private final RecyclerView.Adapter<?> carousel;
+
+        private Row(int type, String key, @Nullable String title, @Nullable String text, int icon, int message,
+                    int iconDescription, int action, @Nullable RecyclerView.Adapter<?> carousel) {
+            this.type = type;
+            this.key = key;
+            this.title = title;
+            this.text = text;
+            this.icon = icon;
+            this.message = message;
+            this.iconDescription = iconDescription;
+            this.action = action;
+            this.carousel = carousel;
+        }
+
+        public static Row greeting(String title, @Nullable String quote) {
+            return new Row(TYPE_GREETING, "greeting", title, quote, 0, 0, 0, 0, null);
+        }
+
+        public static Row header(String section, String title) {
+            return new Row(TYPE_HEADER, section + ":header", title, null, 0, 0, 0, 0, null);
+        }
+
+        public static Row carousel(String section, RecyclerView.Adapter<?> adapter) {
+            return new Row(TYPE_CAROUSEL, section + ":carousel", null, null, 0, 0, 0, 0, adapter);
+        }
+
+        /**
+         * @param action The action button's text, or 0 for none. Clicks are reported with the section.
+         */
+        public static Row emptyState(String section, @DrawableRes int icon, @StringRes int message,
+                                     @StringRes int iconDescription, @StringRes int action) {
+            return new Row(TYPE_EMPTY, section + ":empty", null, null, icon, message, iconDescription, action, null);
+        }
+
+        // The section a row belongs to, e.g. for empty state actions
+        private String section() {
+            return key.substring(0, key.lastIndexOf(':'));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Row row = (Row) o;
+            return type == row.type && icon == row.icon && message == row.message
+                    && iconDescription == row.iconDescription && action == row.action
+                    && key.equals(row.key) && Objects.equals(title, row.title)
+                    && Objects.equals(text, row.text) && carousel == row.carousel;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, key, title, text, icon, message, iconDescription, action);
+        }
+    }
+
+    public interface OnDashboardActionListener {
+        void onPostRequest();
+        void onManageSubjects();
+        void onEmptyStateAction(String section);
+    }
+
+    private final RecyclerView.RecycledViewPool carouselCardPool = new RecyclerView.RecycledViewPool();
+    private final Map<String, Parcelable> carouselStates = new HashMap<>(); // By row key
+    private OnDashboardActionListener listener;
+
+    public DashboardAdapter() {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    public void setOnDashboardActionListener(OnDashboardActionListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forDocumentId(getItem(position).key);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position).type;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(viewType, parent, false);
+        if (viewType == TYPE_GREETING) return new GreetingViewHolder(view);
+        if (viewType == TYPE_HEADER) return new HeaderViewHolder(view);
+        if (viewType == TYPE_CAROUSEL) return new CarouselViewHolder(view);
+        return new EmptyStateViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        Row row = getItem(position);
+        if (holder instanceof GreetingViewHolder) {
+            ((GreetingViewHolder) holder).bind(row);
+        } else if (holder instanceof HeaderViewHolder) {
+            ((HeaderViewHolder) holder).bind(row);
+        } else if (holder instanceof CarouselViewHolder) {
+            ((CarouselViewHolder) holder).bind(row);
+        } else {
+            ((EmptyStateViewHolder) holder).bind(row);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder instanceof CarouselViewHolder) {
+            ((CarouselViewHolder) holder).saveState();
+        }
+    }
+
+    class GreetingViewHolder extends RecyclerView.ViewHolder {
+        private final TextView textWelcomeTitle;
+        private final TextView textMotivationQuote;
+
+        GreetingViewHolder(@NonNull View itemView) {
+            super(itemView);
+            textWelcomeTitle = itemView.findViewById(R.id.text_welcome_title);
+            textMotivationQuote = itemView.findViewById(R.id.text_motivation_quote);
+            MaterialButton btnPostRequest = itemView.findViewById(R.id.btn_dashboard_post_request);
+            MaterialButton btnManageSubjects = itemView.findViewById(R.id.btn_dashboard_manage_subjects);
+
+            btnPostRequest.setOnClickListener(v -> {
+                if (listener != null) listener.onPostRequest();
+            });
+            btnManageSubjects.setOnClickListener(v -> {
+                if (listener != null) listener.onManageSubjects();
+            });
+        }
+
+        void bind(Row row) {
+            textWelcomeTitle.setText(row.title);
+            textMotivationQuote.setText(row.text);
+        }
+    }
+
+    static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        private final TextView textSectionTitle;
+
+        HeaderViewHolder(@NonNull View itemView) {
+            super(itemView);
+            textSectionTitle = itemView.findViewById(R.id.text_section_title);
+        }
+
+        void bind(Row row) {
+            textSectionTitle.setText(row.title);
+        }
+    }
+
+    class CarouselViewHolder extends RecyclerView.ViewHolder {
+        private final RecyclerView recyclerCarousel;
+        private final LinearLayoutManager layoutManager;
+        private String boundKey;
+
+        CarouselViewHolder(@NonNull View itemView) {
+            super(itemView);
+            recyclerCarousel = itemView.findViewById(R.id.recycler_carousel);
+            layoutManager = new LinearLayoutManager(itemView.getContext(), LinearLayoutManager.HORIZONTAL, false);
+            layoutManager.setInitialPrefetchItemCount(CAROUSEL_PREFETCH_ITEMS);
+            // Hands the cards to the shared pool when this row is recycled, instead of keeping them attached
+            layoutManager.setRecycleChildrenOnDetach(true);
+            recyclerCarousel.setLayoutManager(layoutManager);
+            recyclerCarousel.setRecycledViewPool(carouselCardPool);
+        }
+
+        void bind(Row row) {
+            if (boundKey != null && !boundKey.equals(row.key)) {
+                saveState();
+            }
+            boundKey = row.key;
+            if (recyclerCarousel.getAdapter() != row.carousel) {
+                recyclerCarousel.swapAdapter(row.carousel, false);
+            }
+            Parcelable state = carouselStates.get(row.key);
+            if (state != null) {
+                layoutManager.onRestoreInstanceState(state);
+            } else {
+                layoutManager.scrollToPosition(0);
+            }
+        }
+
+        void saveState() {
+            if (boundKey != null) {
+                carouselStates.put(boundKey, layoutManager.onSaveInstanceState());
+            }
+        }
+    }
+
+    class EmptyStateViewHolder extends RecyclerView.ViewHolder {
+        private final ImageView imgEmptyIcon;
+        private final TextView textEmptyMessage;
+        private final MaterialButton btnEmptyAction;
+
+        EmptyStateViewHolder(@NonNull View itemView) {
+            super(itemView);
+            imgEmptyIcon = itemView.findViewById(R.id.img_empty_icon);
+            textEmptyMessage = itemView.findViewById(R.id.text_empty_message);
+            btnEmptyAction = itemView.findViewById(R.id.btn_empty_action);
+
+            btnEmptyAction.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (listener != null && position != RecyclerView.NO_POSITION) {
+                    listener.onEmptyStateAction(getItem(position).section());
+                }
+            });
+        }
+
+        void bind(Row row) {
+            imgEmptyIcon.setImageResource(row.icon);
+            imgEmptyIcon.setContentDescription(itemView.getContext().getString(row.iconDescription));
+            textEmptyMessage.setText(row.message);
+            if (row.action != 0) {
+                btnEmptyAction.setText(row.action);
+                btnEmptyAction.setVisibility(View.VISIBLE);
+            } else {
+                btnEmptyAction.setVisibility(View.GONE);
+            }
+        }
+    }
+}
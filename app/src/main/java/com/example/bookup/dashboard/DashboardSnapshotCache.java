@@ -0,0 +1,194 @@
+package com.example.bookup.dashboard;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.bookup.models.NewsItem;
+import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.models.Tutor;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-disk copy of what the dashboard last showed, per user, so DashboardFragment can render
+ * immediately on a warm start and refresh in the background (stale-while-revalidate).
+ *
+ * A snapshot younger than {@link #FRESH_FOR_MS} is shown without touching the network; an older one
+ * is still shown, then replaced once the sections were read again. Snapshots older than
+ * {@link #MAX_AGE_MS} are not used at all. The last snapshot is also kept in memory, so returning to
+ * the dashboard within the same process does not read the disk.
+ *
+ * All disk access happens on a single background thread; tasks complete on it, so their
+ * listeners run on the main thread unless an executor is given.
+ */
+public class DashboardSnapshotCache {
+
+    private static final String TAG = "DashboardSnapshotCache";
+
+    public static final long FRESH_FOR_MS = 10 * 60 * 1000L;
+    public static final long MAX_AGE_MS = 7 * 24 * 60 * 60 * 1000L;
+
+    private static final String FILE_PREFIX = "dashboard_snapshot_";
+
+    /**
+     * The dashboard sections at one point in time. Lists are unmodifiable.
+     */
+    public static class Snapshot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String ownerUid;
+        private final long savedAt; // System.currentTimeMillis()
+        private final List<String> subjects; // The subjects the tutors and study materials were picked by
+        private final List<NewsItem> news;
+        private final List<Tutor> picksForYou;
+        private final List<Tutor> topTutors;
+        private final List<StudyMaterial> studyMaterials;
+
+        public Snapshot(String ownerUid, List<String> subjects, List<NewsItem> news, List<Tutor> picksForYou,
+                        List<Tutor> topTutors, List<StudyMaterial> studyMaterials) {
+            this(ownerUid, System.currentTimeMillis(), subjects, news, picksForYou, topTutors, studyMaterials);
+        }
+
+        private Snapshot(String ownerUid, long savedAt, List<String> subjects, List<NewsItem> news,
+                         List<Tutor> picksForYou, List<Tutor> topTutors, List<StudyMaterial> studyMaterials) {
+            this.ownerUid = ownerUid;
+            this.savedAt = savedAt;
+            this.subjects = Collections.unmodifiableList(new ArrayList<>(subjects));
+            this.news = Collections.unmodifiableList(new ArrayList<>(news));
+            this.picksForYou = Collections.unmodifiableList(new ArrayList<>(picksForYou));
+            this.topTutors = Collections.unmodifiableList(new ArrayList<>(topTutors));
+            this.studyMaterials = Collections.unmodifiableList(new ArrayList<>(studyMaterials));
+        }
+
+        public String getOwnerUid() { return ownerUid; }
+        public List<String> getSubjects() { return subjects; }
+        public List<NewsItem> getNews() { return news; }
+        public List<Tutor> getPicksForYou() { return picksForYou; }
+        public List<Tutor> getTopTutors() { return topTutors; }
+        public List<StudyMaterial> getStudyMaterials() { return studyMaterials; }
+
+        public long getAgeMs() {
+            return Math.max(0, System.currentTimeMillis() - savedAt);
+        }
+
+        public boolean isFresh() {
+            return getAgeMs() < FRESH_FOR_MS;
+        }
+
+        /**
+         * @return A copy with the sections picked by subjects replaced. It keeps this snapshot's
+         * age, which is the age of the news and top tutors it still holds.
+         */
+        public Snapshot withSubjectSections(List<String> subjects, List<Tutor> picksForYou,
+                                            List<StudyMaterial> studyMaterials) {
+            return new Snapshot(ownerUid, savedAt, subjects, news, picksForYou, topTutors, studyMaterials);
+        }
+    }
+
+    private static DashboardSnapshotCache instance;
+
+    private final File directory;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private volatile Snapshot lastSnapshot;
+
+    public static synchronized DashboardSnapshotCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new DashboardSnapshotCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private DashboardSnapshotCache(Context context) {
+        directory = context.getCacheDir();
+    }
+
+    /**
+     * @return The user's last snapshot, or null if there is none younger than {@link #MAX_AGE_MS}.
+     */
+    public Task<Snapshot> load(String ownerUid) {
+        TaskCompletionSource<Snapshot> result = new TaskCompletionSource<>();
+        Snapshot inMemory = lastSnapshot;
+        if (inMemory != null && inMemory.getOwnerUid().equals(ownerUid)) {
+            result.setResult(usable(inMemory));
+            return result.getTask();
+        }
+        diskExecutor.execute(() -> result.setResult(usable(read(ownerUid))));
+        return result.getTask();
+    }
+
+    public void save(Snapshot snapshot) {
+        lastSnapshot = snapshot;
+        diskExecutor.execute(() -> write(snapshot));
+    }
+
+    /**
+     * Forgets every user's snapshot, in memory and on disk, e.g. when the user signs out.
+     */
+    public void clear() {
+        lastSnapshot = null;
+        diskExecutor.execute(() -> {
+            File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX));
+            if (files == null) return;
+            for (File file : files) {
+                if (!file.delete()) Log.w(TAG, "Could not delete " + file.getName());
+            }
+        });
+    }
+
+    @Nullable
+    private static Snapshot usable(@Nullable Snapshot snapshot) {
+        return snapshot != null && snapshot.getAgeMs() < MAX_AGE_MS ? snapshot : null;
+    }
+
+    @Nullable
+    private Snapshot read(String ownerUid) {
+        File file = fileFor(ownerUid);
+        if (!file.exists()) return null;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            Snapshot snapshot = (Snapshot) in.readObject();
+            return ownerUid.equals(snapshot.getOwnerUid()) ? snapshot : null;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // Unreadable, e.g. written by an older version of a model class; it is replaced on the next save
+            Log.w(TAG, "Discarding dashboard snapshot: " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    private void write(Snapshot snapshot) {
+        File file = fileFor(snapshot.getOwnerUid());
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeObject(snapshot);
+        } catch (IOException e) {
+            Log.e(TAG, "Error saving dashboard snapshot: " + e.getMessage(), e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) { // Replaces the old snapshot in one step, so a reader never sees half a file
+            Log.e(TAG, "Error replacing dashboard snapshot.");
+            temp.delete();
+        }
+    }
+
+    private File fileFor(String ownerUid) {
+        return new File(directory, FILE_PREFIX + ownerUid);
+    }
+}
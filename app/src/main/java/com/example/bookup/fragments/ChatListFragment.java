@@ -23,18 +23,13 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.example.bookup.ChatActivity;
 import com.example.bookup.ChatChannelAdapter;
 import com.example.bookup.R;
-import com.example.bookup.models.ChatChannel;
+import com.example.bookup.chat.ChatChannelRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
-import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class ChatListFragment extends Fragment {
 
@@ -52,13 +47,10 @@ public class ChatListFragment extends Fragment {
 
     // Firebase
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
     private FirebaseUser currentUser;
-    private ListenerRegistration chatChannelsListener; // Use a real-time listener for chat lists
 
     // Adapter and Data
     private ChatChannelAdapter chatChannelAdapter;
-    private List<ChatChannel> chatChannelList;
 
     public ChatListFragment() {
         // Required empty public constructor
@@ -68,7 +60,6 @@ public class ChatListFragment extends Fragment {
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
         currentUser = mAuth.getCurrentUser();
     }
 
@@ -93,25 +84,15 @@ public class ChatListFragment extends Fragment {
     }
 
     @Override
-    public void onStart() {
-        super.onStart();
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
         if (currentUser == null) {
             Toast.makeText(getContext(), "You must be logged in to view chats.", Toast.LENGTH_LONG).show();
             // Consider navigating to login/registration if not logged in
             // For now, just show empty state
             updateEmptyState(true);
         } else {
-            // Start listening for real-time updates when the fragment becomes visible
-            listenForChatChannels();
-        }
-    }
-
-    @Override
-    public void onStop() {
-        super.onStop();
-        // Stop listening for real-time updates when the fragment is no longer visible
-        if (chatChannelsListener != null) {
-            chatChannelsListener.remove();
+            observeChatChannels();
         }
     }
 
@@ -127,8 +108,7 @@ public class ChatListFragment extends Fragment {
     }
 
     private void setupRecyclerView() {
-        chatChannelList = new ArrayList<>();
-        chatChannelAdapter = new ChatChannelAdapter(chatChannelList);
+        chatChannelAdapter = new ChatChannelAdapter();
         recyclerChatChannels.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerChatChannels.setAdapter(chatChannelAdapter);
 
@@ -136,8 +116,8 @@ public class ChatListFragment extends Fragment {
             if (getContext() != null && currentUser != null) {
                 Intent intent = new Intent(getContext(), ChatActivity.class);
                 intent.putExtra(ChatActivity.EXTRA_CHAT_CHANNEL_ID, channel.getId());
-                intent.putExtra(ChatActivity.EXTRA_OTHER_USER_ID, channel.getOtherParticipantId(currentUser.getUid()));
-                intent.putExtra(ChatActivity.EXTRA_OTHER_USER_NAME, channel.getOtherParticipantName(currentUser.getUid()));
+                intent.putExtra(ChatActivity.EXTRA_OTHER_USER_ID, channel.getOtherParticipantId());
+                intent.putExtra(ChatActivity.EXTRA_OTHER_USER_NAME, channel.getTitle());
                 intent.putExtra(ChatActivity.EXTRA_IS_GROUP_CHAT, channel.getIsGroupChat());
                 startActivity(intent);
             } else {
@@ -147,7 +127,8 @@ public class ChatListFragment extends Fragment {
     }
 
     private void setupSwipeRefresh() {
-        swipeRefreshLayout.setOnRefreshListener(this::listenForChatChannels); // Refresh now triggers the listener
+        // The shared listener keeps the list current, so there is nothing to re-fetch
+        swipeRefreshLayout.setOnRefreshListener(() -> swipeRefreshLayout.setRefreshing(false));
         swipeRefreshLayout.setColorSchemeResources(R.color.colorPrimary, R.color.colorSecondary);
     }
 
@@ -166,52 +147,26 @@ public class ChatListFragment extends Fragment {
         fabStartNewChat.setOnClickListener(startNewChatListener);
     }
 
-    private void listenForChatChannels() {
-        if (currentUser == null) {
-            Log.e(TAG, "User not authenticated. Cannot listen for chat channels.");
-            updateEmptyState(true);
+    // The list comes from the shared repository; its listener is attached while the view is started
+    private void observeChatChannels() {
+        ChatChannelRepository.ChannelListLiveData channels =
+                ChatChannelRepository.getInstance(requireContext()).getChannels(currentUser.getUid());
+        setLoading(channels.getValue() == null);
+
+        channels.observe(getViewLifecycleOwner(), chatChannels -> {
+            if (chatChannels == null) return;
+            chatChannelAdapter.submitList(new ArrayList<>(chatChannels));
+            updateEmptyState(chatChannels.isEmpty());
             setLoading(false);
-            if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
-            return;
-        }
-        // ADD THESE LINES TO LOG THE CURRENT USER'S UID
-        String uid = currentUser.getUid();
-        Log.d(TAG, "DEVICE_2_LOG: Currently logged-in user's UID: " + uid);
-        Toast.makeText(getContext(), "Logged in as (Device 2): " + uid, Toast.LENGTH_LONG).show(); // Show a Toast for immediate feedback
-        // END ADDITION
-        // END ADDITION
-
-        setLoading(true);
-
-        chatChannelsListener = db.collection("chatChannels")
-                .whereArrayContains("participantIds", currentUser.getUid())
-                .orderBy("lastMessageTimestamp", Query.Direction.DESCENDING)
-                .addSnapshotListener((queryDocumentSnapshots, e) -> {
-                    if (e != null) {
-                        Log.w(TAG, "Listen failed for chat channels.", e);
-                        Toast.makeText(getContext(), "Failed to load chats.", Toast.LENGTH_SHORT).show();
-                        updateEmptyState(true);
-                        setLoading(false);
-                        if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
-                        return;
-                    }
-
-                    if (queryDocumentSnapshots != null) {
-                        chatChannelList.clear();
-                        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                            ChatChannel channel = document.toObject(ChatChannel.class);
-                            channel.setId(document.getId());
-                            chatChannelList.add(channel);
-                        }
-                        chatChannelAdapter.notifyDataSetChanged();
-                        updateEmptyState(chatChannelList.isEmpty());
-                    } else {
-                        Log.d(TAG, "Current chat channel list is empty.");
-                        updateEmptyState(true);
-                    }
-                    setLoading(false);
-                    if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
-                });
+        });
+        channels.getErrors().observe(getViewLifecycleOwner(), e -> {
+            if (e == null) return;
+            Toast.makeText(getContext(), "Failed to load chats.", Toast.LENGTH_SHORT).show();
+            if (chatChannelAdapter.getItemCount() == 0) {
+                updateEmptyState(true);
+            }
+            setLoading(false);
+        });
     }
 
     private void updateEmptyState(boolean isEmpty) {
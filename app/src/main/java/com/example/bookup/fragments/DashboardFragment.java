@@ -2,19 +2,17 @@ package com.example.bookup.fragments;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.LinearLayout;
 import android.widget.ProgressBar;
-import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.bookup.HomePageActivity;
@@ -24,65 +22,83 @@ import com.example.bookup.R;
 import com.example.bookup.SubjectSelectionActivity;
 import com.example.bookup.StudyMaterialOverviewAdapter;
 import com.example.bookup.TutorOverviewAdapter;
+import com.example.bookup.dashboard.DashboardAdapter;
+import com.example.bookup.dashboard.DashboardSnapshotCache;
 import com.example.bookup.models.NewsItem;
+import com.example.bookup.models.NewsItemMapper;
 import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.models.StudyMaterialMapper;
 import com.example.bookup.models.Tutor;
-import com.google.android.material.button.MaterialButton;
+import com.example.bookup.models.TutorMapper;
+import com.example.bookup.query.EntityCache;
+import com.example.bookup.query.FanOutQuery;
+import com.example.bookup.query.FirestoreDecoding;
+import com.example.bookup.tutors.TutorRanking;
+import com.example.bookup.users.UserProfileRepository;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.analytics.FirebaseAnalytics;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 public class DashboardFragment extends Fragment {
 
     private static final String TAG = "DashboardFragment";
 
+    // Dashboard sections, also the keys of their rows
+    private static final String SECTION_NEWS = "news";
+    private static final String SECTION_PICKS_FOR_YOU = "picks_for_you";
+    private static final String SECTION_TOP_TUTORS = "top_tutors";
+    private static final String SECTION_STUDY_MATERIALS = "study_materials";
+
     // UI Elements
-    private TextView textWelcomeTitle;
-    private TextView textMotivationQuote;
-    private MaterialButton btnPostRequest;
-    private MaterialButton btnManageSubjects;
+    private RecyclerView recyclerDashboard;
+    private DashboardAdapter dashboardAdapter;
     private ProgressBar progressBarDashboard;
-    private LinearLayout layoutNewsFeedEmpty; // Empty state for news
+    private String welcomeTitle = "";
+    private String motivationQuote;
 
     // News Feed
-    private RecyclerView recyclerNewsFeed;
     private NewsFeedAdapter newsFeedAdapter;
     private List<NewsItem> newsList;
+    private Boolean newsEmpty; // Null until the section was loaded, also for the sections below
 
     // Picks For You Tutors
-    private TextView textPicksForYouTitle; // NEW: To conditionally show/hide
-    private RecyclerView recyclerPicksForYou;
     private TutorOverviewAdapter picksForYouAdapter;
     private List<Tutor> picksForYouTutorsList;
-    private LinearLayout layoutPicksForYouEmpty; // NEW: Empty state for tutors
+    private Boolean picksForYouEmpty;
 
     // Top-Rated Tutors
-    private RecyclerView recyclerTopTutors;
     private TutorOverviewAdapter topTutorsAdapter;
     private List<Tutor> topTutorsList;
+    private Boolean topTutorsEmpty;
 
     // Study Materials
-    private TextView textStudyMaterialsTitle; // NEW: To conditionally show/hide
-    private RecyclerView recyclerStudyMaterials;
     private StudyMaterialOverviewAdapter studyMaterialsAdapter;
     private List<StudyMaterial> studyMaterialsList;
-    private LinearLayout layoutStudyMaterialsEmpty; // NEW: Empty state for materials
+    private Boolean studyMaterialsEmpty;
 
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
     private FirebaseUser currentUser;
+    private DashboardSnapshotCache snapshotCache;
 
     // User data for personalization
     private List<String> userSelectedSubjects = new ArrayList<>(); // NEW: To store user's subjects
+    private int loadGeneration; // Incremented per loadDashboard call, so only the latest one hides the progress bar
+    private boolean interactiveReported; // Time to interactive is measured for the first render only
 
     public DashboardFragment() {
         // Required empty public constructor
@@ -94,6 +110,7 @@ public class DashboardFragment extends Fragment {
         mAuth = FirebaseAuth.getInstance();
         db = FirebaseFirestore.getInstance();
         currentUser = mAuth.getCurrentUser();
+        snapshotCache = DashboardSnapshotCache.getInstance(requireContext());
 
         newsList = new ArrayList<>();
         picksForYouTutorsList = new ArrayList<>();
@@ -111,7 +128,7 @@ public class DashboardFragment extends Fragment {
         setupPicksForYouRecyclerView();
         setupTopTutorsRecyclerView();
         setupStudyMaterialsRecyclerView();
-        setupClickListeners();
+        setupDashboardRecyclerView();
 
         return view;
     }
@@ -119,40 +136,123 @@ public class DashboardFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
-        loadUserData(); // Loads user display data, then triggers subject fetch
-        fetchNewsFeedFromFirestore();
-        // Tutors and Study materials will be fetched after user subjects are known
+        loadDashboard();
     }
 
-    private void initViews(View view) {
-        textWelcomeTitle = view.findViewById(R.id.text_welcome_title);
-        textMotivationQuote = view.findViewById(R.id.text_motivation_quote);
-        btnPostRequest = view.findViewById(R.id.btn_dashboard_post_request);
-        btnManageSubjects = view.findViewById(R.id.btn_dashboard_manage_subjects);
-        progressBarDashboard = view.findViewById(R.id.progress_bar_dashboard);
+    /**
+     * Shows the last dashboard snapshot right away if there is one, then reads again whatever it
+     * does not cover (stale-while-revalidate, see {@link DashboardSnapshotCache}).
+     *
+     * Sections are read concurrently. News and top tutors do not depend on the user, so they start
+     * as soon as the snapshot is known to be missing or stale; picks and study materials start
+     * together once the user's subjects are known too (at once if the profile is cached), and are
+     * read again if the subjects changed since the snapshot. Each section renders when its own
+     * query completes. The dashboard counts as interactive once the snapshot, or else every
+     * section, is shown; this is reported for the first load of the fragment only.
+     */
+    private void loadDashboard() {
+        int generation = ++loadGeneration;
+        long startedAt = SystemClock.elapsedRealtime();
+
+        Task<List<String>> subjects = loadUserData();
+        Task<DashboardSnapshotCache.Snapshot> cached = currentUser != null
+                ? snapshotCache.load(currentUser.getUid())
+                : Tasks.forResult(null);
+
+        cached.addOnSuccessListener(snapshot -> {
+            if (!isAdded() || getContext() == null || generation != loadGeneration) return;
+            if (snapshot != null) {
+                showSnapshot(snapshot); // First paint without any network dependency
+                reportTimeToInteractive(SystemClock.elapsedRealtime() - startedAt, 0, true);
+            } else {
+                setLoading(true);
+            }
+        });
+
+        // News and top tutors are the same for every user; picks and materials follow the user's subjects
+        Task<Boolean> refreshShared = cached.continueWith(task -> task.getResult() == null || !task.getResult().isFresh());
+        // refreshShared only completes after cached, so waiting for it covers both
+        Task<Boolean> refreshPicks = Tasks.whenAllComplete(refreshShared, subjects).continueWith(task ->
+                refreshShared.getResult() || !cached.getResult().getSubjects().equals(subjects.getResult()));
+
+        List<Task<Void>> sections = Arrays.asList(
+                refreshShared.continueWithTask(task -> task.getResult() && isAdded()
+                        ? fetchNewsFeedFromFirestore() : Tasks.<Void>forResult(null)),
+                refreshShared.continueWithTask(task -> task.getResult() && isAdded()
+                        ? fetchTopTutorsFromFirestore() : Tasks.<Void>forResult(null)),
+                refreshPicks.continueWithTask(task -> task.getResult() && isAdded()
+                        ? fetchTutorsFromFirestore(subjects.getResult()) : Tasks.<Void>forResult(null)),
+                refreshPicks.continueWithTask(task -> task.getResult() && isAdded()
+                        ? fetchStudyMaterialsFromFirestore(subjects.getResult()) : Tasks.<Void>forResult(null)));
+
+        Tasks.whenAllComplete(sections).addOnSuccessListener(completed -> {
+            if (!isAdded() || getContext() == null || generation != loadGeneration) return; // A newer load took over
+            if (!refreshPicks.getResult()) return; // The snapshot was fresh; nothing was read
+
+            int failedSections = 0;
+            for (Task<Void> section : sections) {
+                if (!section.isSuccessful()) failedSections++;
+            }
+            if (cached.getResult() == null) {
+                setLoading(false);
+                reportTimeToInteractive(SystemClock.elapsedRealtime() - startedAt, failedSections, false);
+            }
+            // Only a complete, consistent set of sections replaces the snapshot
+            if (failedSections == 0 && currentUser != null) {
+                if (refreshShared.getResult()) {
+                    snapshotCache.save(new DashboardSnapshotCache.Snapshot(currentUser.getUid(), subjects.getResult(),
+                            newsList, picksForYouTutorsList, topTutorsList, studyMaterialsList));
+                } else {
+                    // Only the subjects changed; the shared sections keep their age
+                    snapshotCache.save(cached.getResult().withSubjectSections(subjects.getResult(),
+                            picksForYouTutorsList, studyMaterialsList));
+                }
+            }
+        });
+    }
+
+    private void showSnapshot(DashboardSnapshotCache.Snapshot snapshot) {
+        newsList.clear();
+        newsList.addAll(snapshot.getNews());
+        newsFeedAdapter.submitList(new ArrayList<>(newsList));
+        updateNewsFeedUI(newsList.isEmpty());
 
-        // News Feed
-        recyclerNewsFeed = view.findViewById(R.id.recycler_news_feed);
-        layoutNewsFeedEmpty = view.findViewById(R.id.layout_news_feed_empty);
+        picksForYouTutorsList.clear();
+        picksForYouTutorsList.addAll(snapshot.getPicksForYou());
+        topTutorsList.clear();
+        topTutorsList.addAll(snapshot.getTopTutors());
+        picksForYouAdapter.submitList(new ArrayList<>(picksForYouTutorsList));
+        topTutorsAdapter.submitList(new ArrayList<>(topTutorsList));
+        updatePicksForYouUI(picksForYouTutorsList.isEmpty());
+        updateTopTutorsUI(topTutorsList.isEmpty());
 
-        // Picks For You Tutors
-        textPicksForYouTitle = view.findViewById(R.id.text_picks_for_you_title); // NEW ID
-        recyclerPicksForYou = view.findViewById(R.id.recycler_picks_for_you);
-        layoutPicksForYouEmpty = view.findViewById(R.id.layout_picks_for_you_empty); // NEW ID
+        studyMaterialsList.clear();
+        studyMaterialsList.addAll(snapshot.getStudyMaterials());
+        studyMaterialsAdapter.submitList(new ArrayList<>(studyMaterialsList));
+        updateStudyMaterialsUI(studyMaterialsList.isEmpty());
+    }
 
-        // Top-Rated Tutors
-        recyclerTopTutors = view.findViewById(R.id.recycler_top_tutors);
+    // Later loads (e.g. every onResume) are served from memory and would skew the metric
+    private void reportTimeToInteractive(long durationMs, int failedSections, boolean fromSnapshot) {
+        if (interactiveReported) return;
+        interactiveReported = true;
+        Log.i(TAG, "Dashboard interactive after " + durationMs + " ms (" + failedSections + " sections failed"
+                + (fromSnapshot ? ", from snapshot)" : ")"));
+
+        Bundle params = new Bundle();
+        params.putLong("duration_ms", durationMs);
+        params.putLong("failed_sections", failedSections);
+        params.putLong("from_snapshot", fromSnapshot ? 1 : 0);
+        FirebaseAnalytics.getInstance(requireContext()).logEvent("dashboard_time_to_interactive", params);
+    }
 
-        // Study Materials
-        textStudyMaterialsTitle = view.findViewById(R.id.text_study_materials_title); // NEW ID
-        recyclerStudyMaterials = view.findViewById(R.id.recycler_study_materials);
-        layoutStudyMaterialsEmpty = view.findViewById(R.id.layout_study_materials_empty); // NEW ID
+    private void initViews(View view) {
+        recyclerDashboard = view.findViewById(R.id.recycler_dashboard);
+        progressBarDashboard = view.findViewById(R.id.progress_bar_dashboard);
     }
 
     private void setupNewsFeedRecyclerView() {
-        newsFeedAdapter = new NewsFeedAdapter(newsList);
-        recyclerNewsFeed.setLayoutManager(new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false));
-        recyclerNewsFeed.setAdapter(newsFeedAdapter);
+        newsFeedAdapter = new NewsFeedAdapter();
 
         newsFeedAdapter.setOnNewsItemClickListener(item -> {
             if (getContext() != null) {
@@ -163,9 +263,7 @@ public class DashboardFragment extends Fragment {
     }
 
     private void setupPicksForYouRecyclerView() {
-        picksForYouAdapter = new TutorOverviewAdapter(picksForYouTutorsList);
-        recyclerPicksForYou.setLayoutManager(new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false));
-        recyclerPicksForYou.setAdapter(picksForYouAdapter);
+        picksForYouAdapter = new TutorOverviewAdapter();
 
         picksForYouAdapter.setOnTutorClickListener(tutor -> {
             if (getContext() != null) {
@@ -176,9 +274,7 @@ public class DashboardFragment extends Fragment {
     }
 
     private void setupTopTutorsRecyclerView() {
-        topTutorsAdapter = new TutorOverviewAdapter(topTutorsList);
-        recyclerTopTutors.setLayoutManager(new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false));
-        recyclerTopTutors.setAdapter(topTutorsAdapter);
+        topTutorsAdapter = new TutorOverviewAdapter();
 
         topTutorsAdapter.setOnTutorClickListener(tutor -> {
             if (getContext() != null) {
@@ -189,14 +285,13 @@ public class DashboardFragment extends Fragment {
     }
 
     private void setupStudyMaterialsRecyclerView() {
-        studyMaterialsAdapter = new StudyMaterialOverviewAdapter(studyMaterialsList);
-        recyclerStudyMaterials.setLayoutManager(new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false));
-        recyclerStudyMaterials.setAdapter(studyMaterialsAdapter);
+        studyMaterialsAdapter = new StudyMaterialOverviewAdapter();
 
         studyMaterialsAdapter.setOnMaterialClickListener(material -> {
             if (getContext() != null) {
                 Intent intent = new Intent(getContext(), MaterialDetailsActivity.class);
-                intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL, material);
+                EntityCache.MATERIALS.put(material);
+                intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL_ID, material.getId());
                 startActivity(intent);
             } else {
                 Log.e(TAG, "Context is null, cannot launch MaterialDetailsActivity.");
@@ -204,26 +299,93 @@ public class DashboardFragment extends Fragment {
         });
     }
 
-    private void setupClickListeners() {
-        btnPostRequest.setOnClickListener(v -> {
-            if (getContext() != null) {
-                Toast.makeText(getContext(), "Post Help Request (Coming Soon!)", Toast.LENGTH_SHORT).show();
+    // The section adapters above are hosted as carousel rows of the dashboard list
+    private void setupDashboardRecyclerView() {
+        dashboardAdapter = new DashboardAdapter();
+        recyclerDashboard.setAdapter(dashboardAdapter);
+
+        dashboardAdapter.setOnDashboardActionListener(new DashboardAdapter.OnDashboardActionListener() {
+            @Override
+            public void onPostRequest() {
+                if (getContext() != null) {
+                    Toast.makeText(getContext(), "Post Help Request (Coming Soon!)", Toast.LENGTH_SHORT).show();
+                }
+
+                if (getActivity() instanceof HomePageActivity) {
+                    ((HomePageActivity) getActivity()).selectBottomNavItem(R.id.nav_requests);
+                }
             }
 
-            if (getActivity() instanceof HomePageActivity) {
-              ((HomePageActivity) getActivity()).selectBottomNavItem(R.id.nav_requests);
-             }
-        });
+            @Override
+            public void onManageSubjects() {
+                openSubjectSelection();
+            }
 
-        btnManageSubjects.setOnClickListener(v -> {
-            if (getContext() != null) {
-                Intent intent = new Intent(getContext(), SubjectSelectionActivity.class);
-                startActivity(intent);
+            @Override
+            public void onEmptyStateAction(String section) {
+                // Both suggestions come down to picking more subjects
+                openSubjectSelection();
             }
         });
+        renderRows();
+    }
+
+    private void openSubjectSelection() {
+        if (getContext() != null) {
+            Intent intent = new Intent(getContext(), SubjectSelectionActivity.class);
+            startActivity(intent);
+        }
     }
 
-    private void loadUserData() {
+    /**
+     * Lists the greeting and each section's rows for the current state. A section that was not loaded
+     * yet shows its header and an empty carousel; an empty section shows its empty state instead.
+     */
+    private void renderRows() {
+        if (dashboardAdapter == null) return;
+        List<DashboardAdapter.Row> rows = new ArrayList<>();
+        rows.add(DashboardAdapter.Row.greeting(welcomeTitle, motivationQuote));
+
+        rows.add(DashboardAdapter.Row.header(SECTION_NEWS, "Latest Campus Buzz"));
+        if (Boolean.TRUE.equals(newsEmpty)) {
+            rows.add(DashboardAdapter.Row.emptyState(SECTION_NEWS, R.drawable.ic_news_black_24dp,
+                    R.string.no_news_found, R.string.no_news_icon_desc, 0));
+        } else {
+            rows.add(DashboardAdapter.Row.carousel(SECTION_NEWS, newsFeedAdapter));
+        }
+
+        if (Boolean.TRUE.equals(picksForYouEmpty)) { // Title hidden if empty
+            rows.add(DashboardAdapter.Row.emptyState(SECTION_PICKS_FOR_YOU, R.drawable.ic_profile_black_24dp,
+                    R.string.no_tutors_found, R.string.no_tutors_icon_desc, R.string.suggest_subjects_tutors));
+        } else {
+            rows.add(DashboardAdapter.Row.header(SECTION_PICKS_FOR_YOU, "Picks For You"));
+            rows.add(DashboardAdapter.Row.carousel(SECTION_PICKS_FOR_YOU, picksForYouAdapter));
+        }
+
+        rows.add(DashboardAdapter.Row.header(SECTION_TOP_TUTORS, "Top-Rated Tutors"));
+        if (Boolean.TRUE.equals(topTutorsEmpty)) {
+            rows.add(DashboardAdapter.Row.emptyState(SECTION_TOP_TUTORS, R.drawable.ic_profile_black_24dp,
+                    R.string.no_top_tutors_found, R.string.no_tutors_icon_desc, 0));
+        } else {
+            rows.add(DashboardAdapter.Row.carousel(SECTION_TOP_TUTORS, topTutorsAdapter));
+        }
+
+        if (Boolean.TRUE.equals(studyMaterialsEmpty)) { // Title hidden if empty
+            rows.add(DashboardAdapter.Row.emptyState(SECTION_STUDY_MATERIALS, R.drawable.ic_book_black_24dp,
+                    R.string.no_materials_found, R.string.no_materials_icon_desc, R.string.suggest_subjects_materials));
+        } else {
+            rows.add(DashboardAdapter.Row.header(SECTION_STUDY_MATERIALS, "Latest Study Materials"));
+            rows.add(DashboardAdapter.Row.carousel(SECTION_STUDY_MATERIALS, studyMaterialsAdapter));
+        }
+        dashboardAdapter.submitList(rows);
+    }
+
+    /**
+     * Shows the greeting.
+     *
+     * @return The subjects to personalize the tutors and study materials with; empty for generic ones.
+     */
+    private Task<List<String>> loadUserData() {
         if (currentUser != null) {
             String userName = "User";
             if (currentUser.getDisplayName() != null && !currentUser.getDisplayName().isEmpty()) {
@@ -231,206 +393,191 @@ public class DashboardFragment extends Fragment {
             } else if (currentUser.getEmail() != null) {
                 userName = currentUser.getEmail().split("@")[0];
             }
-            textWelcomeTitle.setText(String.format("Hello, %s!", userName));
-            fetchUserSubjects(currentUser.getUid()); // Fetch subjects after user data is loaded
+            welcomeTitle = String.format("Hello, %s!", userName);
+            renderRows();
+            return fetchUserSubjects(); // Fetch subjects after user data is loaded
         } else {
-            textWelcomeTitle.setText("Hello!");
-            textMotivationQuote.setText("“Education is the most powerful weapon which you can use to change the world.” - Nelson Mandela");
+            welcomeTitle = "Hello!";
+            motivationQuote = "“Education is the most powerful weapon which you can use to change the world.” - Nelson Mandela";
+            renderRows();
             // If no user, show generic recommendations
-            fetchTutorsFromFirestore(new ArrayList<>());
-            fetchStudyMaterialsFromFirestore(new ArrayList<>());
+            return Tasks.forResult(new ArrayList<>());
         }
     }
 
     // NEW: Fetch user's selected subjects for personalization
-    private void fetchUserSubjects(String userId) {
-        db.collection("users").document(userId).get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (!isAdded() || getContext() == null) return;
-
-                    userSelectedSubjects.clear();
-                    Object subjectsObject = documentSnapshot.get("subjects");
-                    if (subjectsObject instanceof Map) {
-                        Map<String, Boolean> subjectsMap = (Map<String, Boolean>) subjectsObject;
-                        for (Map.Entry<String, Boolean> entry : subjectsMap.entrySet()) {
-                            if (entry.getValue() != null && entry.getValue()) {
-                                userSelectedSubjects.add(entry.getKey());
-                            }
-                        }
-                    } else if (subjectsObject instanceof List) { // Fallback for old List<String> format
-                        List<?> rawSubjectsList = (List<?>) subjectsObject;
-                        for (Object item : rawSubjectsList) {
-                            if (item instanceof String) {
-                                userSelectedSubjects.add((String) item);
-                            }
+    private Task<List<String>> fetchUserSubjects() {
+        return UserProfileRepository.getInstance().getProfile()
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        Exception e = task.getException();
+                        Log.e(TAG, "Error fetching user subjects: " + (e != null ? e.getMessage() : null), e);
+                        if (isAdded() && getContext() != null) {
+                            Toast.makeText(getContext(), "Failed to load user subjects.", Toast.LENGTH_SHORT).show();
                         }
+                        // Fallback to generic recommendations if subjects can't be fetched
+                        return new ArrayList<>();
                     }
 
+                    userSelectedSubjects.clear();
+                    userSelectedSubjects.addAll(task.getResult().getSubjects());
                     Log.d(TAG, "User subjects fetched: " + userSelectedSubjects.size());
-                    // Now that subjects are known, fetch personalized data
-                    fetchTutorsFromFirestore(userSelectedSubjects);
-                    fetchStudyMaterialsFromFirestore(userSelectedSubjects);
-
-                })
-                .addOnFailureListener(e -> {
-                    if (!isAdded() || getContext() == null) return;
-                    Log.e(TAG, "Error fetching user subjects: " + e.getMessage(), e);
-                    Toast.makeText(getContext(), "Failed to load user subjects.", Toast.LENGTH_SHORT).show();
-                    // Fallback to generic recommendations if subjects can't be fetched
-                    fetchTutorsFromFirestore(new ArrayList<>());
-                    fetchStudyMaterialsFromFirestore(new ArrayList<>());
+                    return new ArrayList<>(userSelectedSubjects);
                 });
     }
 
 
     // Fetches news feed data from Firestore
-    private void fetchNewsFeedFromFirestore() {
-        setLoading(true);
-
-        db.collection("newsFeed")
-                .orderBy("timestamp", Query.Direction.DESCENDING)
+    private Task<Void> fetchNewsFeedFromFirestore() {
+        Task<QuerySnapshot> news = db.collection("newsFeed")
+                .orderBy(NewsItemMapper.TIMESTAMP, Query.Direction.DESCENDING)
                 .limit(5)
-                .get()
-                .addOnCompleteListener(task -> {
+                .get();
+        return FirestoreDecoding.decodeQuery(news, NewsItemMapper::decode)
+                .continueWith(task -> {
                     if (!isAdded() || getContext() == null) {
                         Log.d(TAG, "Fragment not attached, skipping Toast/UI update for news feed.");
-                        return;
+                        return null;
                     }
 
-                    newsList.clear();
                     if (task.isSuccessful()) {
-                        for (QueryDocumentSnapshot document : task.getResult()) {
-                            NewsItem newsItem = document.toObject(NewsItem.class);
-                            newsList.add(newsItem);
-                        }
+                        newsList.clear();
+                        newsList.addAll(task.getResult());
                         Log.d(TAG, "News fetched from Firestore successfully: " + newsList.size());
                     } else {
                         Log.w(TAG, "Error getting news from Firestore: ", task.getException());
                         Toast.makeText(getContext(), "Failed to load news.", Toast.LENGTH_SHORT).show();
                     }
 
-                    newsFeedAdapter.notifyDataSetChanged();
+                    newsFeedAdapter.submitList(new ArrayList<>(newsList));
                     updateNewsFeedUI(newsList.isEmpty());
-                    setLoading(false); // Hide overall dashboard loading
+                    if (!task.isSuccessful()) throw task.getException(); // Counted by loadDashboard
+                    return null;
                 });
     }
 
     private void updateNewsFeedUI(boolean isEmpty) {
-        if (isEmpty) {
-            recyclerNewsFeed.setVisibility(View.GONE);
-            layoutNewsFeedEmpty.setVisibility(View.VISIBLE);
-        } else {
-            recyclerNewsFeed.setVisibility(View.VISIBLE);
-            layoutNewsFeedEmpty.setVisibility(View.GONE);
-        }
+        newsEmpty = isEmpty;
+        renderRows();
     }
 
 
     // UPDATED: Fetches tutor data, now with optional subject filtering
-    private void fetchTutorsFromFirestore(List<String> subjects) {
-        picksForYouTutorsList.clear();
-        topTutorsList.clear();
-
-        Query query = db.collection("tutors");
+    private Task<Void> fetchTutorsFromFirestore(List<String> subjects) {
+        Query tutors = db.collection("tutors");
+        List<Query> queries;
 
         if (!subjects.isEmpty()) {
-            // Prioritize tutors who teach at least one of the user's subjects
-            // Note: Firestore 'array-contains-any' can only check up to 10 items.
-            // If user has more than 10 subjects, you might need a different strategy.
-            // For now, if subjects > 10, it will only use the first 10.
-            List<String> querySubjects = subjects.size() > 10 ? subjects.subList(0, 10) : subjects;
-            query = query.whereArrayContainsAny("subjects", querySubjects);
+            // Prioritize tutors who teach at least one of the user's subjects.
+            // 'array-contains-any' takes at most 10 subjects, so larger subject lists are queried in chunks
+            // and merged; a tutor matching several chunks is only listed once.
+            queries = FanOutQuery.chunked(subjects, chunk -> tutors
+                    .whereArrayContainsAny(TutorMapper.SUBJECTS, chunk)
+                    .orderBy(FieldPath.documentId()));
+        } else {
+            queries = Collections.singletonList(tutors.orderBy(FieldPath.documentId()));
         }
 
-        query.limit(10) // Limit the number of tutors fetched for performance
-                .get()
-                .addOnCompleteListener(task -> {
+        Task<List<DocumentSnapshot>> page = new FanOutQuery(queries, FanOutQuery.byDocumentId())
+                .loadNextPage(10); // Limit the number of tutors fetched for performance
+        return FirestoreDecoding.decodePage(page, TutorMapper::decode)
+                .continueWith(task -> {
                     if (!isAdded() || getContext() == null) {
                         Log.d(TAG, "Fragment not attached, skipping Toast/UI update for tutors.");
-                        return;
+                        return null;
                     }
 
-                    if (task.isSuccessful()) {
-                        for (QueryDocumentSnapshot document : task.getResult()) {
-                            Tutor tutor = document.toObject(Tutor.class);
-                            tutor.setUid(document.getId());
-                            picksForYouTutorsList.add(tutor);
-                            // For top-rated, you might filter/sort picksForYouTutorsList by rating or have a separate query
-                            topTutorsList.add(tutor); // For simplicity, adding to both for now
-                        }
-                        picksForYouAdapter.notifyDataSetChanged();
-                        topTutorsAdapter.notifyDataSetChanged();
+                    if (task.isSuccessful()) { // A failed refresh keeps what is shown, e.g. the snapshot
+                        picksForYouTutorsList.clear();
+                        picksForYouTutorsList.addAll(task.getResult());
+                        picksForYouAdapter.submitList(new ArrayList<>(picksForYouTutorsList));
                         Log.d(TAG, "Tutors fetched from Firestore successfully: " + picksForYouTutorsList.size());
                     } else {
                         Log.w(TAG, "Error getting tutors from Firestore: ", task.getException());
                         Toast.makeText(getContext(), "Failed to load tutors.", Toast.LENGTH_SHORT).show();
                     }
                     updatePicksForYouUI(picksForYouTutorsList.isEmpty());
+                    if (!task.isSuccessful()) throw task.getException(); // Counted by loadDashboard
+                    return null;
+                });
+    }
+
+    // Ranked by the precomputed Bayesian score, so these are bounded indexed reads (see TutorRanking)
+    private Task<Void> fetchTopTutorsFromFirestore() {
+        return FirestoreDecoding.decodePage(TutorRanking.topTutors(db, 10), TutorMapper::decode)
+                .continueWith(task -> {
+                    if (!isAdded() || getContext() == null) {
+                        Log.d(TAG, "Fragment not attached, skipping Toast/UI update for top tutors.");
+                        return null;
+                    }
+
+                    if (task.isSuccessful()) { // A failed refresh keeps what is shown, e.g. the snapshot
+                        topTutorsList.clear();
+                        topTutorsList.addAll(task.getResult());
+                        topTutorsAdapter.submitList(new ArrayList<>(topTutorsList));
+                        Log.d(TAG, "Top tutors fetched from Firestore successfully: " + topTutorsList.size());
+                    } else {
+                        Log.w(TAG, "Error getting top tutors from Firestore: ", task.getException());
+                        Toast.makeText(getContext(), "Failed to load top tutors.", Toast.LENGTH_SHORT).show();
+                    }
+                    updateTopTutorsUI(topTutorsList.isEmpty());
+                    if (!task.isSuccessful()) throw task.getException(); // Counted by loadDashboard
+                    return null;
                 });
     }
 
     private void updatePicksForYouUI(boolean isEmpty) {
-        if (isEmpty) {
-            recyclerPicksForYou.setVisibility(View.GONE);
-            layoutPicksForYouEmpty.setVisibility(View.VISIBLE);
-            textPicksForYouTitle.setVisibility(View.GONE); // Hide title if empty
-        } else {
-            recyclerPicksForYou.setVisibility(View.VISIBLE);
-            layoutPicksForYouEmpty.setVisibility(View.GONE);
-            textPicksForYouTitle.setVisibility(View.VISIBLE);
-        }
+        picksForYouEmpty = isEmpty;
+        renderRows();
     }
 
+    private void updateTopTutorsUI(boolean isEmpty) {
+        topTutorsEmpty = isEmpty;
+        renderRows();
+    }
 
-    // UPDATED: Fetches study materials data, now with optional subject filtering
-    private void fetchStudyMaterialsFromFirestore(List<String> subjects) {
-        studyMaterialsList.clear();
 
-        Query query = db.collection("studyMaterials");
+    // UPDATED: Fetches study materials data, now with optional subject filtering
+    private Task<Void> fetchStudyMaterialsFromFirestore(List<String> subjects) {
+        Query materials = db.collection("studyMaterials");
+        List<Query> queries;
 
         if (!subjects.isEmpty()) {
             // Filter materials by subjects, similar to tutors
-            List<String> querySubjects = subjects.size() > 10 ? subjects.subList(0, 10) : subjects;
-            query = query.whereIn("subject", querySubjects); // Use whereIn for exact subject match
+            queries = FanOutQuery.chunked(subjects, chunk -> materials
+                    .whereIn(StudyMaterialMapper.SUBJECT, chunk) // Use whereIn for exact subject match
+                    .orderBy(StudyMaterialMapper.TIMESTAMP, Query.Direction.DESCENDING));
+        } else {
+            queries = Collections.singletonList(materials.orderBy(StudyMaterialMapper.TIMESTAMP, Query.Direction.DESCENDING));
         }
 
-        query.orderBy("timestamp", Query.Direction.DESCENDING) // Order by newest first
-                .limit(10) // Limit the number of materials fetched
-                .get()
-                .addOnCompleteListener(task -> {
+        Task<List<DocumentSnapshot>> page = new FanOutQuery(queries, FanOutQuery.newestFirst(StudyMaterialMapper.TIMESTAMP)) // Order by newest first
+                .loadNextPage(10); // Limit the number of materials fetched
+        return FirestoreDecoding.decodePage(page, StudyMaterialMapper::decode)
+                .continueWith(task -> {
                     if (!isAdded() || getContext() == null) {
                         Log.d(TAG, "Fragment not attached, skipping Toast/UI update for study materials.");
-                        return;
+                        return null;
                     }
 
                     if (task.isSuccessful()) {
-                        for (QueryDocumentSnapshot document : task.getResult()) {
-                            StudyMaterial material = document.toObject(StudyMaterial.class);
-                            if (material != null) {
-                                material.setId(document.getId());
-                                studyMaterialsList.add(material);
-                            }
-                        }
-                        studyMaterialsAdapter.notifyDataSetChanged();
+                        studyMaterialsList.clear();
+                        studyMaterialsList.addAll(task.getResult());
+                        studyMaterialsAdapter.submitList(new ArrayList<>(studyMaterialsList));
                         Log.d(TAG, "Study materials fetched from Firestore successfully: " + studyMaterialsList.size());
                     } else {
                         Log.w(TAG, "Error getting study materials from Firestore: ", task.getException());
                         Toast.makeText(getContext(), "Failed to load study materials.", Toast.LENGTH_SHORT).show();
                     }
                     updateStudyMaterialsUI(studyMaterialsList.isEmpty());
+                    if (!task.isSuccessful()) throw task.getException(); // Counted by loadDashboard
+                    return null;
                 });
     }
 
     private void updateStudyMaterialsUI(boolean isEmpty) {
-        if (isEmpty) {
-            recyclerStudyMaterials.setVisibility(View.GONE);
-            layoutStudyMaterialsEmpty.setVisibility(View.VISIBLE);
-            textStudyMaterialsTitle.setVisibility(View.GONE); // Hide title if empty
-        } else {
-            recyclerStudyMaterials.setVisibility(View.VISIBLE);
-            layoutStudyMaterialsEmpty.setVisibility(View.GONE);
-            textStudyMaterialsTitle.setVisibility(View.VISIBLE);
-        }
+        studyMaterialsEmpty = isEmpty;
+        renderRows();
     }
 
     /**
@@ -440,12 +587,5 @@ public class DashboardFragment extends Fragment {
     private void setLoading(boolean isLoading) {
         if (!isAdded() || getContext() == null) return;
         progressBarDashboard.setVisibility(isLoading ? View.VISIBLE : View.GONE);
-        // Optionally disable other UI elements during full load:
-        // recyclerNewsFeed.setEnabled(!isLoading);
-        // recyclerPicksForYou.setEnabled(!isLoading);
-        // recyclerTopTutors.setEnabled(!isLoading);
-        // recyclerStudyMaterials.setEnabled(!isLoading);
-        // btnPostRequest.setEnabled(!isLoading);
-        // btnManageSubjects.setEnabled(!isLoading);
     }
 }
@@ -9,6 +9,7 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -16,6 +17,8 @@ import com.example.bookup.MaterialDetailsActivity; // NEW import
 import com.example.bookup.R;
 import com.example.bookup.StudyMaterialOverviewAdapter;
 import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.query.EntityCache;
+import com.example.bookup.search.SearchResultsViewModel;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +30,8 @@ public class MaterialSearchResultsFragment extends Fragment {
     private List<StudyMaterial> materialList = new ArrayList<>();
     private TextView textEmptyResults; // Changed to textEmptyResults
 
+    private static final int LOAD_MORE_THRESHOLD = 5; // Items from the end at which the next page is requested
+
     public MaterialSearchResultsFragment() {
         // Required empty public constructor
     }
@@ -38,34 +43,62 @@ public class MaterialSearchResultsFragment extends Fragment {
         recyclerView = view.findViewById(R.id.recycler_search_results);
         textEmptyResults = view.findViewById(R.id.text_empty_search_results); // Use new ID
 
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        adapter = new StudyMaterialOverviewAdapter(materialList);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        recyclerView.setLayoutManager(layoutManager);
+        // Ask SearchFragment for the next page when the list nears its end (server-side search mode)
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy > 0) loadMoreIfNearEnd();
+            }
+        });
+        adapter = new StudyMaterialOverviewAdapter();
         recyclerView.setAdapter(adapter);
 
         // Set click listener for the adapter (this will now navigate to MaterialDetailsActivity)
         adapter.setOnMaterialClickListener(material -> {
             if (getContext() != null) {
                 Intent intent = new Intent(getContext(), MaterialDetailsActivity.class);
-                intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL, material);
+                EntityCache.MATERIALS.put(material);
+                intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL_ID, material.getId());
                 startActivity(intent);
             }
         });
 
         updateUI(); // Initial UI update based on empty list
+
+        // Results come from SearchFragment's shared view model, so this page stays current while it is not visible
+        SearchResultsViewModel searchResults = new ViewModelProvider(requireParentFragment()).get(SearchResultsViewModel.class);
+        searchResults.getMaterialResults().observe(getViewLifecycleOwner(), this::updateSearchResults);
         return view;
     }
 
-    public void updateSearchResults(List<StudyMaterial> results) {
+    private void updateSearchResults(List<StudyMaterial> results) {
         materialList.clear();
         if (results != null) {
             materialList.addAll(results);
         }
         if (adapter != null) {
-            adapter.notifyDataSetChanged();
+            // A page that fits on screen never scrolls, so the end is checked once it is laid out too
+            adapter.submitList(new ArrayList<>(materialList), () -> recyclerView.post(this::loadMoreIfNearEnd));
             updateUI();
         }
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        loadMoreIfNearEnd(); // Only the visible tab is resumed, and only its results are paged
+    }
+
+    private void loadMoreIfNearEnd() {
+        if (!isResumed() || !(getParentFragment() instanceof SearchFragment)) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager != null && layoutManager.findLastVisibleItemPosition() >= materialList.size() - LOAD_MORE_THRESHOLD) {
+            ((SearchFragment) getParentFragment()).loadMoreResults();
+        }
+    }
+
     private void updateUI() {
         if (materialList.isEmpty()) {
             recyclerView.setVisibility(View.GONE);
@@ -34,7 +34,14 @@ import com.example.bookup.SignInActivity;
 import com.example.bookup.StudyMaterialOverviewAdapter;
 import com.example.bookup.SubjectSelectionActivity;
 import com.example.bookup.UploadMaterialActivity;
+import com.example.bookup.chat.LocalChatDatabase;
+import com.example.bookup.dashboard.DashboardSnapshotCache;
 import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.models.StudyMaterialMapper;
+import com.example.bookup.query.EntityCache;
+import com.example.bookup.query.FirestoreDecoding;
+import com.example.bookup.users.UserProfileRepository;
+import com.google.android.gms.tasks.Task;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
@@ -46,12 +53,12 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.messaging.FirebaseMessaging;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 public class ProfileFragment extends Fragment {
@@ -174,12 +181,13 @@ public class ProfileFragment extends Fragment {
      */
     private void setupRecyclerView() {
         recyclerMyMaterials.setLayoutManager(new LinearLayoutManager(getContext()));
-        myMaterialsAdapter = new StudyMaterialOverviewAdapter(myMaterialsList);
+        myMaterialsAdapter = new StudyMaterialOverviewAdapter();
         recyclerMyMaterials.setAdapter(myMaterialsAdapter);
         myMaterialsAdapter.setOnMaterialClickListener(material -> {
             if (getContext() != null) {
                 Intent intent = new Intent(getContext(), MaterialDetailsActivity.class);
-                intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL, material); // Pass the StudyMaterial object
+                EntityCache.MATERIALS.put(material);
+                intent.putExtra(MaterialDetailsActivity.EXTRA_MATERIAL_ID, material.getId());
                 startActivity(intent);
             }
         });
@@ -284,6 +292,8 @@ public class ProfileFragment extends Fragment {
                         .setMessage("Are you sure you want to log out?")
                         .setPositiveButton("Yes", (dialog, which) -> {
                             mAuth.signOut();
+                            LocalChatDatabase.getInstance(requireContext()).clear(); // The next account must not see this user's chats
+                            DashboardSnapshotCache.getInstance(requireContext()).clear(); // ...nor their dashboard
                             Toast.makeText(getContext(), "Logged out.", Toast.LENGTH_SHORT).show();
                             Intent intent = new Intent(getContext(), SignInActivity.class);
                             intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -331,23 +341,20 @@ public class ProfileFragment extends Fragment {
             imgProfilePicture.setImageResource(R.drawable.ic_profile_placeholder);
         }
 
-        db.collection("users").document(userId).get()
-                .addOnSuccessListener(documentSnapshot -> {
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
                     if (!isAdded() || getContext() == null) {
                         Log.d(TAG, "Fragment not attached, skipping UI update for user data.");
                         return;
                     }
 
-                    if (documentSnapshot.exists()) {
+                    if (profile.exists()) {
                         // Load basic profile data
-                        String firstName = documentSnapshot.getString("firstName");
-                        String lastName = documentSnapshot.getString("lastName");
-                        String phoneNumber = documentSnapshot.getString("phoneNumber");
-                        String gender = documentSnapshot.getString("gender");
-                        String role = documentSnapshot.getString("role");
-                        Boolean isTutor = documentSnapshot.getBoolean("isTutor");
-                        Boolean shareLocation = documentSnapshot.getBoolean("shareLocation");
-                        Boolean isAdmin = documentSnapshot.getBoolean("isAdmin"); // NEW: Get isAdmin flag
+                        String firstName = profile.getString("firstName");
+                        String lastName = profile.getString("lastName");
+                        String phoneNumber = profile.getString("phoneNumber");
+                        String gender = profile.getString("gender");
+                        String role = profile.getString("role");
 
                         textFullName.setText(String.format("%s %s",
                                 firstName != null ? firstName : "",
@@ -357,15 +364,15 @@ public class ProfileFragment extends Fragment {
                         textUserRole.setText(role != null ? role : "N/A");
 
                         // Show/hide location sharing UI if the user is a tutor
-                        if (isTutor != null && isTutor) {
+                        if (profile.isTutor()) {
                             layoutLocationSharing.setVisibility(View.VISIBLE);
-                            switchLocationSharing.setChecked(shareLocation != null && shareLocation);
+                            switchLocationSharing.setChecked(profile.isSharingLocation());
                         } else {
                             layoutLocationSharing.setVisibility(View.GONE);
                         }
 
                         // NEW: Show/hide Admin Panel button
-                        if (isAdmin != null && isAdmin) {
+                        if (profile.isAdmin()) {
                             btnAdminPanel.setVisibility(View.VISIBLE);
                         } else {
                             btnAdminPanel.setVisibility(View.GONE);
@@ -373,24 +380,7 @@ public class ProfileFragment extends Fragment {
 
                         // --- Load User Subjects ---
                         chipGroupUserSubjects.removeAllViews();
-                        Set<String> userSubjects = new HashSet<>();
-
-                        Object subjectsObject = documentSnapshot.get("subjects");
-                        if (subjectsObject instanceof Map) {
-                            Map<String, Boolean> subjectsMap = (Map<String, Boolean>) subjectsObject;
-                            for (Map.Entry<String, Boolean> entry : subjectsMap.entrySet()) {
-                                if (entry.getValue() != null && entry.getValue()) {
-                                    userSubjects.add(entry.getKey());
-                                }
-                            }
-                        } else if (subjectsObject instanceof List) { // Fallback for old List<String> format
-                            List<?> rawSubjectsList = (List<?>) subjectsObject;
-                            for (Object item : rawSubjectsList) {
-                                if (item instanceof String) {
-                                    userSubjects.add((String) item);
-                                }
-                            }
-                        }
+                        Set<String> userSubjects = new HashSet<>(profile.getSubjects());
 
                         if (!userSubjects.isEmpty()) {
                             textNoSubjects.setVisibility(View.GONE);
@@ -460,29 +450,24 @@ public class ProfileFragment extends Fragment {
      * @param userId The UID of the current user.
      */
     private void loadMyUploadedMaterials(String userId) {
-        db.collection("studyMaterials")
-                .whereEqualTo("uploaderUid", userId)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
+        Task<QuerySnapshot> materials = db.collection("studyMaterials")
+                .whereEqualTo(StudyMaterialMapper.UPLOADER_UID, userId)
+                .get();
+        FirestoreDecoding.decodeQuery(materials, StudyMaterialMapper::decode)
+                .addOnSuccessListener(uploadedMaterials -> {
                     if (!isAdded() || getContext() == null) {
                         Log.d(TAG, "Fragment not attached, skipping UI update for uploaded materials.");
                         return;
                     }
 
                     myMaterialsList.clear();
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        for (DocumentSnapshot doc : queryDocumentSnapshots) {
-                            StudyMaterial material = doc.toObject(StudyMaterial.class);
-                            if (material != null) {
-                                material.setId(doc.getId());
-                                myMaterialsList.add(material);
-                            }
-                        }
-                        myMaterialsAdapter.notifyDataSetChanged();
+                    if (!uploadedMaterials.isEmpty()) {
+                        myMaterialsList.addAll(uploadedMaterials);
+                        myMaterialsAdapter.submitList(new ArrayList<>(myMaterialsList));
                         textNoUploadedMaterials.setVisibility(View.GONE);
                     } else {
                         myMaterialsList.clear();
-                        myMaterialsAdapter.notifyDataSetChanged();
+                        myMaterialsAdapter.submitList(new ArrayList<>(myMaterialsList));
                         textNoUploadedMaterials.setVisibility(View.VISIBLE);
                     }
                     setLoading(false); // Make sure loading is turned off after materials too
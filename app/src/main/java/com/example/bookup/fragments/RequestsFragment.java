@@ -15,6 +15,7 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
@@ -23,23 +24,23 @@ import com.example.bookup.CreateRequestActivity; // For launching new request ac
 import com.example.bookup.HelpRequestAdapter;
 import com.example.bookup.R;
 import com.example.bookup.RequestDetailsActivity; // For launching request details
-import com.example.bookup.models.HelpRequest;
+import com.example.bookup.requests.HelpRequestFeedViewModel;
+import com.example.bookup.users.UserProfileRepository;
+import com.google.android.material.button.MaterialButton;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.HashSet; // For user subjects
 
 public class RequestsFragment extends Fragment {
 
     private static final String TAG = "RequestsFragment";
+    private static final int LOAD_MORE_THRESHOLD = 5; // Items from the end at which the next page is requested
 
     // UI Elements
     private RecyclerView recyclerView;
@@ -49,6 +50,7 @@ public class RequestsFragment extends Fragment {
     private TextView textNoRequestsTitle; // NEW
     private TextView textNoRequestsDescription; // NEW
     private ExtendedFloatingActionButton fabNewRequest;
+    private MaterialButton btnNewRequests;
     private ProgressBar progressBar;
 
     // Firebase
@@ -58,7 +60,8 @@ public class RequestsFragment extends Fragment {
 
     // Adapter and Data
     private HelpRequestAdapter requestAdapter;
-    private List<HelpRequest> requestList;
+    private HelpRequestFeedViewModel requestFeed;
+    private boolean scrollToTopOnNextList; // Set when the "new requests" pill was tapped
 
     // User-specific data for personalized queries
     private boolean isCurrentUserTutor = false; // Flag to determine role
@@ -74,7 +77,7 @@ public class RequestsFragment extends Fragment {
         mAuth = FirebaseAuth.getInstance();
         db = FirebaseFirestore.getInstance();
         currentUser = mAuth.getCurrentUser();
-        requestList = new ArrayList<>();
+        requestFeed = new ViewModelProvider(requireActivity()).get(HelpRequestFeedViewModel.class);
     }
 
     @Override
@@ -90,11 +93,29 @@ public class RequestsFragment extends Fragment {
         return view;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        observeRequestFeed();
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        requestFeed.startLiveUpdates(); // New and changed requests arrive while the feed is visible
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        requestFeed.stopLiveUpdates();
+    }
+
     @Override
     public void onResume() {
         super.onResume();
         if (currentUser != null) {
-            fetchUserRoleAndSubjects(); // Fetch user role and then requests
+            fetchUserRoleAndSubjects(false); // Fetch user role and then requests
         } else {
             Log.e(TAG, "User not authenticated. Cannot fetch requests.");
             if (getContext() != null) Toast.makeText(getContext(), "Please sign in to view requests.", Toast.LENGTH_SHORT).show();
@@ -111,12 +132,19 @@ public class RequestsFragment extends Fragment {
         textNoRequestsTitle = view.findViewById(R.id.text_no_requests_title); // NEW
         textNoRequestsDescription = view.findViewById(R.id.text_no_requests_description); // NEW
         fabNewRequest = view.findViewById(R.id.fab_new_request);
+        btnNewRequests = view.findViewById(R.id.btn_new_requests);
         progressBar = view.findViewById(R.id.progress_bar_requests);
     }
 
     private void setupRecyclerView() {
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        requestAdapter = new HelpRequestAdapter(requestList);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy > 0) loadMoreIfNearEnd();
+            }
+        });
+        requestAdapter = new HelpRequestAdapter();
         recyclerView.setAdapter(requestAdapter);
         // Note: onRequestClickListener is now handled directly in adapter for navigation
     }
@@ -128,12 +156,17 @@ public class RequestsFragment extends Fragment {
                 startActivity(intent);
             }
         });
+
+        btnNewRequests.setOnClickListener(v -> {
+            scrollToTopOnNextList = true;
+            requestFeed.showNewRequests();
+        });
     }
 
     private void setupSwipeRefresh() {
         swipeRefreshLayout.setOnRefreshListener(() -> {
             if (currentUser != null) {
-                fetchUserRoleAndSubjects(); // Re-fetch all data on refresh
+                fetchUserRoleAndSubjects(true); // Re-fetch all data on refresh
             } else {
                 swipeRefreshLayout.setRefreshing(false); // Stop refreshing if no user
             }
@@ -142,44 +175,28 @@ public class RequestsFragment extends Fragment {
     }
 
     // NEW: Fetch user's role and subjects before fetching requests
-    private void fetchUserRoleAndSubjects() {
+    private void fetchUserRoleAndSubjects(boolean reload) {
         if (currentUser == null) return;
 
         setLoading(true);
 
-        db.collection("users").document(currentUser.getUid()).get()
-                .addOnSuccessListener(documentSnapshot -> {
+        UserProfileRepository.getInstance().getProfile()
+                .addOnSuccessListener(profile -> {
                     if (!isAdded() || getContext() == null) return;
 
-                    if (documentSnapshot.exists()) {
-                        Boolean isTutorBool = documentSnapshot.getBoolean("isTutor");
-                        isCurrentUserTutor = (isTutorBool != null && isTutorBool);
+                    if (profile.exists()) {
+                        isCurrentUserTutor = profile.isTutor();
                         Log.d(TAG, "Current user isTutor: " + isCurrentUserTutor);
 
                         currentUserSubjects.clear();
-                        Object subjectsObject = documentSnapshot.get("subjects");
-                        if (subjectsObject instanceof Map) {
-                            Map<String, Boolean> subjectsMap = (Map<String, Boolean>) subjectsObject;
-                            for (Map.Entry<String, Boolean> entry : subjectsMap.entrySet()) {
-                                if (entry.getValue() != null && entry.getValue()) {
-                                    currentUserSubjects.add(entry.getKey());
-                                }
-                            }
-                        } else if (subjectsObject instanceof List) { // Fallback for old List<String> format
-                            List<?> rawSubjectsList = (List<?>) subjectsObject;
-                            for (Object item : rawSubjectsList) {
-                                if (item instanceof String) {
-                                    currentUserSubjects.add((String) item);
-                                }
-                            }
-                        }
+                        currentUserSubjects.addAll(profile.getSubjects());
                         Log.d(TAG, "User subjects: " + currentUserSubjects.size());
                     } else {
                         Log.w(TAG, "User profile not found for " + currentUser.getUid());
                         isCurrentUserTutor = false; // Default to student
                     }
                     // Now that role and subjects are known, fetch the relevant requests
-                    fetchHelpRequests();
+                    fetchHelpRequests(reload);
                 })
                 .addOnFailureListener(e -> {
                     if (!isAdded() || getContext() == null) return;
@@ -187,12 +204,12 @@ public class RequestsFragment extends Fragment {
                     Log.e(TAG, "Error fetching user role and subjects: " + e.getMessage(), e);
                     Toast.makeText(getContext(), "Failed to get user details.", Toast.LENGTH_SHORT).show();
                     isCurrentUserTutor = false; // Default to student on error
-                    fetchHelpRequests(); // Still try to fetch requests, maybe general ones
+                    fetchHelpRequests(reload); // Still try to fetch requests, maybe general ones
                 });
     }
 
 
-    private void fetchHelpRequests() {
+    private void fetchHelpRequests(boolean reload) {
         if (currentUser == null) {
             Log.e(TAG, "User not authenticated for fetchHelpRequests.");
             if (getContext() != null) Toast.makeText(getContext(), "Please sign in to view requests.", Toast.LENGTH_SHORT).show();
@@ -202,66 +219,53 @@ public class RequestsFragment extends Fragment {
             return;
         }
 
-        setLoading(true); // Show progress bar
-
-        Query query = db.collection("helpRequests");
-
-        if (isCurrentUserTutor && !currentUserSubjects.isEmpty()) {
-            // Tutor view: Show open requests that match their teaching subjects
-            List<String> querySubjects = currentUserSubjects.size() > 10 ? currentUserSubjects.subList(0, 10) : currentUserSubjects; // Firestore limit for whereIn
-            query = query.whereEqualTo("status", "Open")
-                    .whereIn("subject", querySubjects);
-            Log.d(TAG, "Fetching requests for tutor. Subjects: " + querySubjects);
-        } else if (!isCurrentUserTutor) {
-            // Student view: Show their own requests, and potentially other open requests
-            // For simplicity, let's show ALL open requests, and also their own if they are resolved.
-            // Or, you might want two separate lists: "My Requests" and "Other Open Requests"
-            // For now, let's fetch all open requests that are not by the current user
-            // and then separately fetch the user's own requests.
-            // A more complex setup might filter this into two tabs/sections within the fragment.
-
-            // Simplest approach: fetch all open requests that are not by the current user
-            query = query.whereEqualTo("status", "Open");
-            Log.d(TAG, "Fetching general open requests for student.");
-            // We could add an additional query for requests posted by the student,
-            // even if they are 'Assigned' or 'Resolved', and merge the lists.
-            // For this iteration, let's just show general 'Open' requests to all students.
-            // A dedicated "My Requests" tab would be better for personal requests.
-        } else {
-            // Fallback for tutors without subjects, or if isCurrentUserTutor is false for other reasons
-            query = query.whereEqualTo("status", "Open");
-            Log.d(TAG, "Fetching general open requests (fallback).");
-        }
-
-
-        query.orderBy("timestamp", Query.Direction.DESCENDING)
-                .limit(20)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!isAdded() || getContext() == null) return;
+        Log.d(TAG, "Fetching open requests. Tutor: " + isCurrentUserTutor + ", subjects: " + currentUserSubjects);
+        // The feed keeps its loaded pages across onResume; only a swipe refresh or changed subjects reload them
+        boolean loadingFirstPage = requestFeed.setFeed(isCurrentUserTutor, currentUserSubjects, reload);
+        setLoading(loadingFirstPage);
+        if (!loadingFirstPage && swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
+    }
 
-                    requestList.clear();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        HelpRequest request = document.toObject(HelpRequest.class);
-                        if (request != null) {
-                            request.setId(document.getId());
-                            requestList.add(request);
-                        }
-                    }
-                    requestAdapter.notifyDataSetChanged();
-                    updateUI(requestList.isEmpty());
-                    setLoading(false);
-                    if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
-                })
-                .addOnFailureListener(e -> {
-                    if (!isAdded() || getContext() == null) return;
+    private void observeRequestFeed() {
+        requestFeed.getRequests().observe(getViewLifecycleOwner(), requests -> {
+            if (requests == null) return;
+            boolean scrollToTop = scrollToTopOnNextList;
+            scrollToTopOnNextList = false;
+            requestAdapter.submitList(requests, () -> {
+                if (scrollToTop) recyclerView.scrollToPosition(0);
+                loadMoreIfNearEnd(); // The page may not fill the screen
+            });
+            updateUI(requests.isEmpty());
+            setLoading(false);
+            if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
+        });
+        requestFeed.getNewRequestCount().observe(getViewLifecycleOwner(), count -> {
+            btnNewRequests.setVisibility(count > 0 ? View.VISIBLE : View.GONE);
+            if (count > 0) {
+                btnNewRequests.setText(getResources().getQuantityString(R.plurals.new_requests_pill, count, count));
+            }
+        });
+        requestFeed.getErrors().observe(getViewLifecycleOwner(), e -> {
+            if (e == null) return;
+            Log.e(TAG, "Error fetching help requests: " + e.getMessage(), e);
+            Toast.makeText(getContext(), "Failed to load requests.", Toast.LENGTH_SHORT).show();
+            requestFeed.clearError();
+            if (requestAdapter.getItemCount() == 0) {
+                updateUI(true); // Show empty state on failure
+            }
+            setLoading(false);
+            if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
+        });
+    }
 
-                    Log.e(TAG, "Error fetching help requests: " + e.getMessage(), e);
-                    if (getContext() != null) Toast.makeText(getContext(), "Failed to load requests.", Toast.LENGTH_SHORT).show();
-                    updateUI(true); // Show empty state on failure
-                    setLoading(false);
-                    if (swipeRefreshLayout.isRefreshing()) swipeRefreshLayout.setRefreshing(false);
-                });
+    // Prefetches the next page while a few rows are still left to scroll through
+    private void loadMoreIfNearEnd() {
+        if (!isAdded() || !requestFeed.hasMore()) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager != null
+                && layoutManager.findLastVisibleItemPosition() >= requestAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+            requestFeed.loadNextPage();
+        }
     }
 
     private void updateUI(boolean isEmpty) {
@@ -1,6 +1,8 @@
 package com.example.bookup.fragments;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -12,23 +14,39 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.viewpager2.widget.ViewPager2;
 
 import com.example.bookup.R;
 import com.example.bookup.adapters.SearchFragmentStateAdapter;
 import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.models.StudyMaterialMapper;
 import com.example.bookup.models.Tutor;
+import com.example.bookup.models.TutorMapper;
+import com.example.bookup.query.FirestoreDecoding;
+import com.example.bookup.search.PagedSearchQuery;
+import com.example.bookup.search.SearchFields;
+import com.example.bookup.search.SearchIndex;
+import com.example.bookup.search.SearchResultsViewModel;
+import com.example.bookup.search.SearchSettings;
+import com.example.bookup.search.SearchTokens;
 import com.google.android.material.search.SearchBar;
 import com.google.android.material.search.SearchView;
 import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SearchFragment extends Fragment {
 
@@ -44,9 +62,39 @@ public class SearchFragment extends Fragment {
 
     private SearchFragmentStateAdapter viewPagerFragmentAdapter;
 
-    // To hold all data once fetched from Firestore for client-side filtering
-    private List<StudyMaterial> allStudyMaterials = new ArrayList<>();
-    private List<Tutor> allTutors = new ArrayList<>();
+    // Search results are capped and verification stops after this budget, so typing stays responsive
+    private static final int MAX_SEARCH_RESULTS = 200;
+    private static final long SEARCH_TIME_BUDGET_MS = 50;
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+
+    // Server-side search mode: queries the precomputed searchTokens field page by page
+    // instead of downloading both collections. Chosen app-wide through SearchSettings; searches
+    // wait until the mode is known.
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private boolean searchModeKnown;
+    private boolean serverSideSearch;
+    private PagedSearchQuery<StudyMaterial> materialPages;
+    private PagedSearchQuery<Tutor> tutorPages;
+    private List<String> serverQueryTokens = new ArrayList<>();
+
+    private ListenerRegistration materialsListener;
+    private ListenerRegistration tutorsListener;
+
+    // Inverted indexes over all fetched data for client-side search; only touched on searchExecutor
+    // Weighted by field position; subjects, after name and bio, use the default weight
+    private final SearchIndex<StudyMaterial> materialIndex = new SearchIndex<>(SearchFields::material, 4, 3, 1, 2, 2);
+    private final SearchIndex<Tutor> tutorIndex = new SearchIndex<>(SearchFields::tutor, 4, 1);
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Search pipeline state (main thread only, except searchGeneration which the executor reads)
+    private final Runnable debouncedSearch = () -> performSearch(searchView.getText().toString());
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+    private Future<?> inFlightSearch;
+    private String lastSearchedQuery;
+
+    // Results shared with the result fragments, which observe them
+    private SearchResultsViewModel searchResults;
 
     // Keep track of the currently displayed search results in case a new search happens
     private List<StudyMaterial> currentFilteredMaterials = new ArrayList<>();
@@ -60,6 +108,7 @@ public class SearchFragment extends Fragment {
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         db = FirebaseFirestore.getInstance();
+        searchResults = new ViewModelProvider(this).get(SearchResultsViewModel.class);
     }
 
     @Override
@@ -70,12 +119,27 @@ public class SearchFragment extends Fragment {
         initViews(view);
         setupViewPagerAndTabs();
         setupSearchView();
-
-        fetchAllDataForSearch(); // Fetch all data once
+        loadSearchMode();
 
         return view;
     }
 
+    private void loadSearchMode() {
+        setLoading(true);
+        SearchSettings.isServerSideSearch(requireContext(), db).addOnSuccessListener(enabled -> {
+            if (!isAdded() || getView() == null || searchModeKnown) return; // Gone, or answered for an earlier view
+            searchModeKnown = true;
+            serverSideSearch = enabled;
+            if (serverSideSearch) {
+                setLoading(false);
+            } else {
+                fetchAllDataForSearch(); // Fetch all data once and search it locally
+            }
+            lastSearchedQuery = null;
+            performSearch(searchView.getText().toString()); // Anything typed in the meantime
+        });
+    }
+
     private void initViews(View view) {
         searchBar = view.findViewById(R.id.search_bar);
         searchView = view.findViewById(R.id.search_view);
@@ -101,37 +165,7 @@ public class SearchFragment extends Fragment {
                 }
         ).attach();
 
-        // Listener for tab changes to update results immediately
-        tabLayout.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
-            @Override
-            public void onTabSelected(TabLayout.Tab tab) {
-                // When tab changes, re-apply the current search query to the new tab's fragment
-                performSearch(searchView.getText().toString());
-            }
-
-            @Override
-            public void onTabUnselected(TabLayout.Tab tab) {}
-
-            @Override
-            public void onTabReselected(TabLayout.Tab tab) {
-                // Optional: Scroll to top of list when re-selecting, if applicable
-            }
-        });
-
-        // Ensure fragments are ready to receive data when they come into view
-        // This is a more robust way to handle passing data to ViewPager2 fragments
-        getChildFragmentManager().registerFragmentLifecycleCallbacks(new FragmentManager.FragmentLifecycleCallbacks() {
-            @Override
-            public void onFragmentResumed(@NonNull FragmentManager fm, @NonNull Fragment f) {
-                super.onFragmentResumed(fm, f);
-                // When a fragment is resumed (visible), update it with the current filtered data
-                if (f instanceof MaterialSearchResultsFragment && viewPager.getCurrentItem() == 0) {
-                    ((MaterialSearchResultsFragment) f).updateSearchResults(currentFilteredMaterials);
-                } else if (f instanceof TutorSearchResultsFragment && viewPager.getCurrentItem() == 1) {
-                    ((TutorSearchResultsFragment) f).updateSearchResults(currentFilteredTutors);
-                }
-            }
-        }, false);
+        // The result fragments observe searchResults themselves, so tab switches need no extra work here
     }
 
     private void setupSearchView() {
@@ -154,8 +188,8 @@ public class SearchFragment extends Fragment {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                // Perform search live as user types, or debounce for performance
-                performSearch(s.toString());
+                // Search live as user types, debounced so a burst of keystrokes runs one query
+                scheduleSearch();
             }
 
             @Override
@@ -166,122 +200,242 @@ public class SearchFragment extends Fragment {
         searchView.addTransitionListener((searchView, previousState, newState) -> {
             if (newState == SearchView.TransitionState.HIDDEN) {
                 searchBar.setText(searchView.getText()); // Update searchBar text to reflect last search
-                performSearch(searchView.getText().toString()); // Re-apply search to ensure correct display
+                performSearch(searchView.getText().toString()); // No-op unless the query changed since the last search
             }
         });
     }
 
-    // Fetches all study materials and tutors from Firestore initially
+    // The document changes of one index listener snapshot, decoded off the main thread
+    private static class IndexChanges<T> {
+        final List<T> changed = new ArrayList<>();
+        final List<String> removedIds = new ArrayList<>();
+
+        IndexChanges(QuerySnapshot snapshot, FirestoreDecoding.DocumentDecoder<T> decoder) {
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                QueryDocumentSnapshot document = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    removedIds.add(document.getId());
+                    continue;
+                }
+                T model = decoder.decode(document);
+                if (model != null) changed.add(model);
+            }
+        }
+    }
+
+    // Listens to study materials and tutors and keeps the search indexes in sync with document changes
     private void fetchAllDataForSearch() {
         setLoading(true);
 
-        // Fetch Study Materials
-        db.collection("studyMaterials")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    allStudyMaterials.clear();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        StudyMaterial material = document.toObject(StudyMaterial.class);
-                        if (material != null) {
-                            material.setId(document.getId());
-                            allStudyMaterials.add(material);
-                        }
+        // Study Materials
+        materialsListener = FirestoreDecoding.listen(db.collection("studyMaterials"),
+                snapshot -> new IndexChanges<StudyMaterial>(snapshot, StudyMaterialMapper::decode),
+                (changes, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Error fetching all study materials: " + e.getMessage(), e);
+                        if (getContext() != null) Toast.makeText(getContext(), "Failed to load materials for search.", Toast.LENGTH_SHORT).show();
+                        return;
                     }
-                    Log.d(TAG, "Fetched " + allStudyMaterials.size() + " study materials for search.");
-                    // After fetching, immediately perform initial search (empty query)
+                    if (changes == null) return;
+
+                    searchExecutor.execute(() -> {
+                        for (String id : changes.removedIds) materialIndex.remove(id);
+                        for (StudyMaterial material : changes.changed) materialIndex.put(material.getId(), material);
+                        Log.d(TAG, "Indexed " + materialIndex.size() + " study materials for search.");
+                    });
+                    // Re-run the current query so the visible results reflect the change
+                    lastSearchedQuery = null;
                     performSearch(searchView.getText().toString());
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error fetching all study materials: " + e.getMessage(), e);
-                    if (getContext() != null) Toast.makeText(getContext(), "Failed to load materials for search.", Toast.LENGTH_SHORT).show();
                 });
 
-        // Fetch Tutors
-        db.collection("tutors")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    allTutors.clear();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        Tutor tutor = document.toObject(Tutor.class);
-                        if (tutor != null) {
-                            tutor.setUid(document.getId());
-                            allTutors.add(tutor);
-                        }
+        // Tutors
+        tutorsListener = FirestoreDecoding.listen(db.collection("tutors"),
+                snapshot -> new IndexChanges<Tutor>(snapshot, TutorMapper::decode),
+                (changes, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Error fetching all tutors: " + e.getMessage(), e);
+                        if (getContext() != null) Toast.makeText(getContext(), "Failed to load tutors for search.", Toast.LENGTH_SHORT).show();
+                        setLoading(false); // Ensure loading is turned off even on failure
+                        return;
                     }
-                    Log.d(TAG, "Fetched " + allTutors.size() + " tutors for search.");
-                    // After fetching, immediately perform initial search (empty query)
+                    if (changes == null) return;
+
+                    searchExecutor.execute(() -> {
+                        for (String id : changes.removedIds) tutorIndex.remove(id);
+                        for (Tutor tutor : changes.changed) tutorIndex.put(tutor.getUid(), tutor);
+                        Log.d(TAG, "Indexed " + tutorIndex.size() + " tutors for search.");
+                    });
+                    lastSearchedQuery = null;
                     performSearch(searchView.getText().toString());
-                    setLoading(false); // Only set loading to false after both fetches complete
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error fetching all tutors: " + e.getMessage(), e);
-                    if (getContext() != null) Toast.makeText(getContext(), "Failed to load tutors for search.", Toast.LENGTH_SHORT).show();
-                    setLoading(false); // Ensure loading is turned off even on failure
+                    setLoading(false);
                 });
     }
 
 
+    // Restarts the debounce window; only the text present when it expires is searched
+    private void scheduleSearch() {
+        mainHandler.removeCallbacks(debouncedSearch);
+        mainHandler.postDelayed(debouncedSearch, SEARCH_DEBOUNCE_MS);
+    }
+
     /**
-     * Performs a client-side search on the fetched data and updates the current fragment.
+     * Queries the search indexes on the search executor and updates the current fragment on the main thread.
+     * Any pending or in-flight older query is cancelled, and its results are never posted.
      * @param query The search string.
      */
     private void performSearch(String query) {
-        if (!isAdded() || getContext() == null) return;
+        if (!isAdded() || getContext() == null || !searchModeKnown) return;
+        mainHandler.removeCallbacks(debouncedSearch); // An explicit search supersedes a pending debounced one
 
-        String lowerCaseQuery = query.toLowerCase(Locale.getDefault()).trim();
+        String trimmedQuery = query.trim();
+        if (trimmedQuery.equals(lastSearchedQuery)) return; // Results for this query are already showing or on their way
+        lastSearchedQuery = trimmedQuery;
 
-        // Filter materials
-        currentFilteredMaterials.clear();
-        if (!lowerCaseQuery.isEmpty()) {
-            for (StudyMaterial material : allStudyMaterials) {
-                boolean match = (material.getTitle() != null && material.getTitle().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery)) ||
-                        (material.getDescription() != null && material.getDescription().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery)) ||
-                        (material.getSubject() != null && material.getSubject().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery)) ||
-                        (material.getMaterialType() != null && material.getMaterialType().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery)) ||
-                        (material.getUploaderName() != null && material.getUploaderName().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery));
-                if (match) {
-                    currentFilteredMaterials.add(material);
+        int generation = searchGeneration.incrementAndGet();
+        if (serverSideSearch) {
+            startServerSearch(trimmedQuery, generation);
+            return;
+        }
+        if (inFlightSearch != null) {
+            inFlightSearch.cancel(false); // Drops it from the queue if it has not started yet
+        }
+        inFlightSearch = searchExecutor.submit(() -> {
+            if (generation != searchGeneration.get()) return;
+            // An empty query returns no results, matching the usual search behaviour
+            List<StudyMaterial> materials = materialIndex.search(trimmedQuery, MAX_SEARCH_RESULTS, SEARCH_TIME_BUDGET_MS);
+            if (generation != searchGeneration.get()) return;
+            List<Tutor> tutors = tutorIndex.search(trimmedQuery, MAX_SEARCH_RESULTS, SEARCH_TIME_BUDGET_MS);
+            if (generation != searchGeneration.get()) return;
+            mainHandler.post(() -> {
+                if (generation == searchGeneration.get()) {
+                    showSearchResults(materials, tutors);
                 }
-            }
-        } else {
-            // If query is empty, show all materials (or none, depending on desired behavior)
-            // For search, usually show none if query is empty.
-            // If you want to show all: currentFilteredMaterials.addAll(allStudyMaterials);
+            });
+        });
+    }
+
+    // Starts a new paged server-side search; pages of the previous query are discarded by generation
+    private void startServerSearch(String query, int generation) {
+        serverQueryTokens = SearchTokens.forQuery(query);
+        if (serverQueryTokens.isEmpty()) {
+            materialPages = null;
+            tutorPages = null;
+            showSearchResults(new ArrayList<>(), new ArrayList<>());
+            return;
         }
 
+        String token = SearchTokens.mostSelective(serverQueryTokens);
+        List<String> queryTokens = serverQueryTokens; // Pages are decoded in the background, so they keep their own copy
+        materialPages = new PagedSearchQuery<>(db.collection("studyMaterials").whereArrayContains(SearchTokens.FIELD, token),
+                SEARCH_PAGE_SIZE, document -> {
+                    if (!matchesAllTokens(document, queryTokens)) return null;
+                    return StudyMaterialMapper.decode(document);
+                });
+        tutorPages = new PagedSearchQuery<>(db.collection("tutors").whereArrayContains(SearchTokens.FIELD, token),
+                SEARCH_PAGE_SIZE, document -> {
+                    if (!matchesAllTokens(document, queryTokens)) return null;
+                    return TutorMapper.decode(document);
+                });
+        showSearchResults(new ArrayList<>(), new ArrayList<>());
+        loadMaterialPage(generation);
+        loadTutorPage(generation);
+    }
 
-        // Filter tutors
-        currentFilteredTutors.clear();
-        if (!lowerCaseQuery.isEmpty()) {
-            for (Tutor tutor : allTutors) {
-                boolean match = (tutor.getName() != null && tutor.getName().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery)) ||
-                        (tutor.getBio() != null && tutor.getBio().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery));
-
-                if (!match && tutor.getSubjects() != null) {
-                    for (String subject : tutor.getSubjects()) {
-                        if (subject != null && subject.toLowerCase(Locale.getDefault()).contains(lowerCaseQuery)) {
-                            match = true;
-                            break;
-                        }
-                    }
+    /**
+     * Loads the next page of server-side results for the visible tab.
+     * Called by the result fragments when their list nears its end; does nothing in local search mode.
+     */
+    public void loadMoreResults() {
+        if (!serverSideSearch || viewPager == null) return;
+        if (viewPager.getCurrentItem() == 0) {
+            loadMaterialPage(searchGeneration.get());
+        } else {
+            loadTutorPage(searchGeneration.get());
+        }
+    }
+
+    private void loadMaterialPage(int generation) {
+        if (materialPages == null) return;
+        materialPages.loadNextPage(new PagedSearchQuery.PageCallback<StudyMaterial>() {
+            @Override
+            public void onPageLoaded(List<StudyMaterial> results, boolean hasMore) {
+                if (generation != searchGeneration.get() || !isAdded()) return;
+                if (results.isEmpty() && hasMore) {
+                    loadMaterialPage(generation); // Nothing on this page passed the other words; an empty list would never scroll to ask for more
+                    return;
                 }
-                if (match) {
-                    currentFilteredTutors.add(tutor);
+                currentFilteredMaterials.addAll(results);
+                searchResults.setMaterialResults(currentFilteredMaterials);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Error searching study materials: " + e.getMessage(), e);
+                if (getContext() != null) Toast.makeText(getContext(), "Failed to search materials.", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void loadTutorPage(int generation) {
+        if (tutorPages == null) return;
+        tutorPages.loadNextPage(new PagedSearchQuery.PageCallback<Tutor>() {
+            @Override
+            public void onPageLoaded(List<Tutor> results, boolean hasMore) {
+                if (generation != searchGeneration.get() || !isAdded()) return;
+                if (results.isEmpty() && hasMore) {
+                    loadTutorPage(generation); // Nothing on this page passed the other words; an empty list would never scroll to ask for more
+                    return;
                 }
+                currentFilteredTutors.addAll(results);
+                searchResults.setTutorResults(currentFilteredTutors);
             }
-        } else {
-            // If query is empty, show all tutors (or none)
-            // If you want to show all: currentFilteredTutors.addAll(allTutors);
-        }
 
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Error searching tutors: " + e.getMessage(), e);
+                if (getContext() != null) Toast.makeText(getContext(), "Failed to search tutors.", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // The server only filters on the most selective word; the remaining words are checked here
+    private static boolean matchesAllTokens(DocumentSnapshot document, List<String> queryTokens) {
+        Object tokens = document.get(SearchTokens.FIELD);
+        return tokens instanceof List && ((List<?>) tokens).containsAll(queryTokens);
+    }
+
+    private void showSearchResults(List<StudyMaterial> materials, List<Tutor> tutors) {
+        if (!isAdded() || getContext() == null) return;
+
+        currentFilteredMaterials.clear();
+        currentFilteredMaterials.addAll(materials);
+        currentFilteredTutors.clear();
+        currentFilteredTutors.addAll(tutors);
+        searchResults.setMaterialResults(currentFilteredMaterials);
+        searchResults.setTutorResults(currentFilteredTutors);
+    }
 
-        // Update the currently visible fragment with the filtered results
-        Fragment currentFragment = viewPagerFragmentAdapter.createFragment(viewPager.getCurrentItem()); // Get the active fragment instance
-        if (currentFragment instanceof MaterialSearchResultsFragment) {
-            ((MaterialSearchResultsFragment) currentFragment).updateSearchResults(currentFilteredMaterials);
-        } else if (currentFragment instanceof TutorSearchResultsFragment) {
-            ((TutorSearchResultsFragment) currentFragment).updateSearchResults(currentFilteredTutors);
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (materialsListener != null) {
+            materialsListener.remove();
+            materialsListener = null;
         }
+        if (tutorsListener != null) {
+            tutorsListener.remove();
+            tutorsListener = null;
+        }
+        mainHandler.removeCallbacksAndMessages(null);
+        searchGeneration.incrementAndGet(); // Results computed for the old view must not be posted
+        lastSearchedQuery = null;
+        searchModeKnown = false; // Read again with the next view
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        searchExecutor.shutdownNow();
     }
 
     private void setLoading(boolean isLoading) {
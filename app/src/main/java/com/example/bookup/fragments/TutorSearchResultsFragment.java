@@ -9,6 +9,7 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -16,6 +17,8 @@ import com.example.bookup.R;
 import com.example.bookup.TutorDetailsActivity; // NEW import
 import com.example.bookup.TutorOverviewAdapter;
 import com.example.bookup.models.Tutor;
+import com.example.bookup.query.EntityCache;
+import com.example.bookup.search.SearchResultsViewModel;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +30,8 @@ public class TutorSearchResultsFragment extends Fragment {
     private List<Tutor> tutorList = new ArrayList<>();
     private TextView textEmptyResults; // Changed to textEmptyResults
 
+    private static final int LOAD_MORE_THRESHOLD = 5; // Items from the end at which the next page is requested
+
     public TutorSearchResultsFragment() {
         // Required empty public constructor
     }
@@ -38,35 +43,63 @@ public class TutorSearchResultsFragment extends Fragment {
         recyclerView = view.findViewById(R.id.recycler_search_results);
         textEmptyResults = view.findViewById(R.id.text_empty_search_results); // Use new ID
 
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        adapter = new TutorOverviewAdapter(tutorList);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        recyclerView.setLayoutManager(layoutManager);
+        // Ask SearchFragment for the next page when the list nears its end (server-side search mode)
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy > 0) loadMoreIfNearEnd();
+            }
+        });
+        adapter = new TutorOverviewAdapter();
         recyclerView.setAdapter(adapter);
 
         // Set click listener for the adapter (this will now navigate to TutorDetailsActivity)
         adapter.setOnTutorClickListener(tutor -> {
             if (getContext() != null) {
                 Intent intent = new Intent(getContext(), TutorDetailsActivity.class);
-                intent.putExtra(TutorDetailsActivity.EXTRA_TUTOR, tutor);
+                EntityCache.TUTORS.put(tutor);
+                intent.putExtra(TutorDetailsActivity.EXTRA_TUTOR_ID, tutor.getUid());
                 startActivity(intent);
             }
         });
 
 
         updateUI(); // Initial UI update based on empty list
+
+        // Results come from SearchFragment's shared view model, so this page stays current while it is not visible
+        SearchResultsViewModel searchResults = new ViewModelProvider(requireParentFragment()).get(SearchResultsViewModel.class);
+        searchResults.getTutorResults().observe(getViewLifecycleOwner(), this::updateSearchResults);
         return view;
     }
 
-    public void updateSearchResults(List<Tutor> results) {
+    private void updateSearchResults(List<Tutor> results) {
         tutorList.clear();
         if (results != null) {
             tutorList.addAll(results);
         }
         if (adapter != null) {
-            adapter.notifyDataSetChanged();
+            // A page that fits on screen never scrolls, so the end is checked once it is laid out too
+            adapter.submitList(new ArrayList<>(tutorList), () -> recyclerView.post(this::loadMoreIfNearEnd));
             updateUI();
         }
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        loadMoreIfNearEnd(); // Only the visible tab is resumed, and only its results are paged
+    }
+
+    private void loadMoreIfNearEnd() {
+        if (!isResumed() || !(getParentFragment() instanceof SearchFragment)) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager != null && layoutManager.findLastVisibleItemPosition() >= tutorList.size() - LOAD_MORE_THRESHOLD) {
+            ((SearchFragment) getParentFragment()).loadMoreResults();
+        }
+    }
+
     private void updateUI() {
         if (tutorList.isEmpty()) {
             recyclerView.setVisibility(View.GONE);
@@ -0,0 +1,66 @@
+package com.example.bookup.models;
+
+import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.ServerTimestamp;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * One user's view of a chat channel, stored at users/{uid}/channelSummaries/{channelId}.
+ * Holds only what the chat list shows, so the list doesn't have to read whole channel documents.
+ */
+@FirestoreModel(encoder = false) // Written field by field with merges (see ChannelSummaries), using the mapper's names
+public class ChannelSummary implements Serializable {
+    @DocumentId
+    private String id; // Document ID, same as the chatChannels document ID
+    private String title; // Display name of the other participant (null for group chats)
+    private String otherParticipantId; // UID of the other participant in a 1-to-1 chat
+    private String lastMessage; // Short text of the last message in the channel
+    @ServerTimestamp
+    private Date lastMessageTimestamp; // Timestamp of the last message
+    private long unreadCount; // Messages this user has not seen yet
+    private boolean isGroupChat;
+
+    public ChannelSummary() {
+        // Required for Firestore deserialization
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getTitle() { return title; }
+    public String getOtherParticipantId() { return otherParticipantId; }
+    public String getLastMessage() { return lastMessage; }
+    public Date getLastMessageTimestamp() { return lastMessageTimestamp; }
+    public long getUnreadCount() { return unreadCount; }
+    public boolean getIsGroupChat() { return isGroupChat; }
+
+    // Setters
+    public void setId(String id) { this.id = id; }
+    public void setTitle(String title) { this.title = title; }
+    public void setOtherParticipantId(String otherParticipantId) { this.otherParticipantId = otherParticipantId; }
+    public void setLastMessage(String lastMessage) { this.lastMessage = lastMessage; }
+    public void setLastMessageTimestamp(Date lastMessageTimestamp) { this.lastMessageTimestamp = lastMessageTimestamp; }
+    public void setUnreadCount(long unreadCount) { this.unreadCount = unreadCount; }
+    public void setIsGroupChat(boolean isGroupChat) { this.isGroupChat = isGroupChat; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChannelSummary that = (ChannelSummary) o;
+        return unreadCount == that.unreadCount &&
+                isGroupChat == that.isGroupChat &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(title, that.title) &&
+                Objects.equals(otherParticipantId, that.otherParticipantId) &&
+                Objects.equals(lastMessage, that.lastMessage) &&
+                Objects.equals(lastMessageTimestamp, that.lastMessageTimestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, otherParticipantId, lastMessage, lastMessageTimestamp, unreadCount, isGroupChat);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.bookup.models;
 
+import com.google.firebase.firestore.DocumentId;
 import com.google.firebase.firestore.Exclude;
 import com.google.firebase.firestore.ServerTimestamp;
 
@@ -9,8 +10,11 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+@FirestoreModel
 public class ChatChannel implements Serializable {
+    @DocumentId
     private String id; // Document ID from Firestore
     private List<String> participantIds; // UIDs of all participants in the channel
     private Map<String, String> participantNames; // Map of participant UIDs to their display names
@@ -18,7 +22,7 @@ public class ChatChannel implements Serializable {
     @ServerTimestamp
     private Date lastMessageTimestamp; // Timestamp of the last message
     private boolean isGroupChat; // False for 1-to-1, true for group chats (future expansion)
-    // You might add an unreadCount for the current user, but often managed client-side or with cloud functions
+    // Unread counts are per user, see ChannelSummary
 
     public ChatChannel() {
         // Required for Firestore deserialization
@@ -49,6 +53,17 @@ public class ChatChannel implements Serializable {
     public void setLastMessageTimestamp(Date lastMessageTimestamp) { this.lastMessageTimestamp = lastMessageTimestamp; }
     public void setIsGroupChat(boolean isGroupChat) { this.isGroupChat = isGroupChat; }
 
+    /**
+     * Returns the document ID used for the 1-to-1 channel between two users.
+     * The UIDs are sorted, so both users derive the same ID.
+     * @param uidA The UID of one participant.
+     * @param uidB The UID of the other participant.
+     * @return The deterministic chatChannels document ID for this pair.
+     */
+    public static String directChannelId(String uidA, String uidB) {
+        return uidA.compareTo(uidB) < 0 ? uidA + "_" + uidB : uidB + "_" + uidA;
+    }
+
     /**
      * Helper method to get the display name of the other participant in a 1-to-1 chat.
      * Assumes it's a 1-to-1 chat (not a group chat).
@@ -86,4 +101,22 @@ public class ChatChannel implements Serializable {
         }
         return null;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChatChannel that = (ChatChannel) o;
+        return isGroupChat == that.isGroupChat &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(participantIds, that.participantIds) &&
+                Objects.equals(participantNames, that.participantNames) &&
+                Objects.equals(lastMessage, that.lastMessage) &&
+                Objects.equals(lastMessageTimestamp, that.lastMessageTimestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, participantIds, participantNames, lastMessage, lastMessageTimestamp, isGroupChat);
+    }
 }
@@ -1,11 +1,16 @@
 package com.example.bookup.models;
 
+import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.Exclude;
 import com.google.firebase.firestore.ServerTimestamp;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.Objects;
 
+@FirestoreModel
 public class ChatMessage implements Serializable {
+    @DocumentId
     private String id; // Document ID from Firestore (optional, messages can be subcollection documents)
     private String senderId; // UID of the user who sent the message
     private String senderName; // Display name of the sender
@@ -13,6 +18,8 @@ public class ChatMessage implements Serializable {
     @ServerTimestamp
     private Date timestamp; // When the message was sent
     private boolean read; // True if the message has been read by recipients (optional)
+    @Exclude
+    private boolean pending; // True while the message is not yet written to the server (local only)
     // Add other fields as needed, e.g., imageUrl for image messages, messageType etc.
 
     public ChatMessage() {
@@ -34,6 +41,8 @@ public class ChatMessage implements Serializable {
     public String getMessageText() { return messageText; }
     public Date getTimestamp() { return timestamp; }
     public boolean isRead() { return read; } // Note: isRead for boolean getters
+    @Exclude
+    public boolean isPending() { return pending; }
 
 
     // Setters
@@ -43,4 +52,25 @@ public class ChatMessage implements Serializable {
     public void setMessageText(String messageText) { this.messageText = messageText; }
     public void setTimestamp(Date timestamp) { this.timestamp = timestamp; }
     public void setRead(boolean read) { this.read = read; }
+    @Exclude
+    public void setPending(boolean pending) { this.pending = pending; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChatMessage that = (ChatMessage) o;
+        return read == that.read &&
+                pending == that.pending &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(senderId, that.senderId) &&
+                Objects.equals(senderName, that.senderName) &&
+                Objects.equals(messageText, that.messageText) &&
+                Objects.equals(timestamp, that.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, senderId, senderName, messageText, timestamp, read, pending);
+    }
 }
@@ -0,0 +1,102 @@
+package com.example.bookup.models;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed field access shared by the model mappers {@link FirestoreModel} generates. Missing fields
+ * read as null, zero or false, like {@code toObject} leaves them; values of an unexpected type are
+ * treated as missing rather than failing the whole document.
+ */
+final class FirestoreFields {
+
+    private FirestoreFields() {
+        // Utility class
+    }
+
+    @Nullable
+    static String string(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        return value instanceof String ? (String) value : null;
+    }
+
+    static int intValue(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    static long longValue(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    static double doubleValue(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    static boolean booleanValue(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        return value instanceof Boolean && (Boolean) value;
+    }
+
+    /**
+     * @return The timestamp, or null if missing or still pending on the server.
+     */
+    @Nullable
+    static Date date(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        return value instanceof Timestamp ? ((Timestamp) value).toDate() : null;
+    }
+
+    /**
+     * @return The list's strings; null if the field is missing, like {@code toObject}.
+     */
+    @Nullable
+    static List<String> stringList(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        if (!(value instanceof List)) return null;
+        List<String> strings = new ArrayList<>(((List<?>) value).size());
+        for (Object element : (List<?>) value) {
+            if (element instanceof String) strings.add((String) element);
+        }
+        return strings;
+    }
+
+    @Nullable
+    static Map<String, String> stringMap(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        if (!(value instanceof Map)) return null;
+        Map<String, String> strings = new HashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+                strings.put((String) entry.getKey(), (String) entry.getValue());
+            }
+        }
+        return strings;
+    }
+
+    /**
+     * @return The field to read for a field with a {@link LegacyName}: the current one, unless only
+     * the legacy one is stored.
+     */
+    static String currentOrLegacy(DocumentSnapshot document, String field, String legacyField) {
+        return !document.contains(field) && document.contains(legacyField) ? legacyField : field;
+    }
+
+    /**
+     * For fields marked {@code @ServerTimestamp}: a null date is written as the server's time.
+     */
+    static Object serverTimestampIfNull(@Nullable Date date) {
+        return date != null ? date : FieldValue.serverTimestamp();
+    }
+}
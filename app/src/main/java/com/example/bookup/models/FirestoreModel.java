@@ -0,0 +1,33 @@
+package com.example.bookup.models;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a reflection-free {@code <Model>Mapper} for a model at compile time (see the
+ * {@code mapper-processor} module), with a constant per stored field name and a
+ * {@code decode(DocumentSnapshot)} / {@code encode(model)} pair. Writers and readers both go
+ * through those, so the stored schema has one definition: the model's fields.
+ *
+ * Every field is stored under its own name, through its getter and setter, except:
+ * <ul>
+ *     <li>{@code @Exclude} fields, which are not stored;</li>
+ *     <li>{@code @PropertyName} fields, stored under the given name;</li>
+ *     <li>the {@code @DocumentId} field, read from the document ID (and written if set);</li>
+ *     <li>{@code @ServerTimestamp} dates, written as the server's time while null;</li>
+ *     <li>{@link LegacyName} fields, also read from an older name.</li>
+ * </ul>
+ * Field types are those {@link FirestoreFields} reads. The model must be in this package, as the
+ * mapper uses {@link FirestoreFields}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface FirestoreModel {
+
+    /**
+     * False for models the app only reads, so no {@code encode} is generated.
+     */
+    boolean encoder() default true;
+}
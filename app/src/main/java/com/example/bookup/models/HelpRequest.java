@@ -1,10 +1,14 @@
 package com.example.bookup.models;
 
+import com.google.firebase.firestore.DocumentId;
 import com.google.firebase.firestore.ServerTimestamp;
 import java.io.Serializable;
 import java.util.Date;
+import java.util.Objects;
 
+@FirestoreModel
 public class HelpRequest implements Serializable {
+    @DocumentId
     private String id; // Document ID from Firestore
     private String title;
     private String description;
@@ -94,4 +98,24 @@ public class HelpRequest implements Serializable {
     public void setTimestamp(Date timestamp) {
         this.timestamp = timestamp;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HelpRequest that = (HelpRequest) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(title, that.title) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(subject, that.subject) &&
+                Objects.equals(requestedByUid, that.requestedByUid) &&
+                Objects.equals(requestedByName, that.requestedByName) &&
+                Objects.equals(status, that.status) &&
+                Objects.equals(timestamp, that.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, description, subject, requestedByUid, requestedByName, status, timestamp);
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.bookup.models;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The name older app versions stored a field under. The generated mapper reads it when only the
+ * legacy name is stored, and exposes it as a {@code LEGACY_} constant for migrations; it always
+ * writes the current name.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface LegacyName {
+    String value();
+}
@@ -1,11 +1,15 @@
 package com.example.bookup.models;
 
+import com.google.firebase.firestore.DocumentId;
 import com.google.firebase.firestore.ServerTimestamp;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.Objects;
 
+@FirestoreModel
 public class NewsItem implements Serializable {
+    @DocumentId
     private String id; // NEW: Document ID for editing/deleting
     private String title;
     private String description;
@@ -53,4 +57,22 @@ public class NewsItem implements Serializable {
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
     public void setSource(String source) { this.source = source; }
     public void setTimestamp(Date timestamp) { this.timestamp = timestamp; } // Setter for timestamp
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NewsItem that = (NewsItem) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(title, that.title) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(imageUrl, that.imageUrl) &&
+                Objects.equals(source, that.source) &&
+                Objects.equals(timestamp, that.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, description, imageUrl, source, timestamp);
+    }
 }
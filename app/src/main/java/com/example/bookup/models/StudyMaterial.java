@@ -1,24 +1,33 @@
 package com.example.bookup.models;
 
+import com.google.firebase.firestore.DocumentId;
 import com.google.firebase.firestore.ServerTimestamp;
 
 import java.io.Serializable;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
+// Materials uploaded by older app versions use the legacy names until StudyMaterialMigration has run
+@FirestoreModel
 public class StudyMaterial implements Serializable {
+    @DocumentId
     private String id; // Document ID
     private String title;
     private String description;
     private String subject; // e.g., "Math", "Chemistry"
+    @LegacyName("type")
     private String materialType; // e.g., "Notes", "Past Paper", "Video Link"
+    @LegacyName("downloadUrl")
     private String fileUrl; // URL to PDF, image, or video
     private String thumbnailUrl; // For preview images
     private String uploaderUid; // UID of the user who uploaded it
     private String uploaderName; // Name of the user who uploaded it
     private double averageRating; // Rating given by users
+    @LegacyName("downloads")
     private int downloadCount;
     @ServerTimestamp
+    @LegacyName("uploadDate")
     private Date timestamp; // When it was uploaded
 
     public StudyMaterial() {
@@ -67,4 +76,28 @@ public class StudyMaterial implements Serializable {
     public void setAverageRating(double averageRating) { this.averageRating = averageRating; }
     public void setDownloadCount(int downloadCount) { this.downloadCount = downloadCount; }
     public void setTimestamp(Date timestamp) { this.timestamp = timestamp; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StudyMaterial that = (StudyMaterial) o;
+        return Double.compare(that.averageRating, averageRating) == 0 &&
+                downloadCount == that.downloadCount &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(title, that.title) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(subject, that.subject) &&
+                Objects.equals(materialType, that.materialType) &&
+                Objects.equals(fileUrl, that.fileUrl) &&
+                Objects.equals(thumbnailUrl, that.thumbnailUrl) &&
+                Objects.equals(uploaderUid, that.uploaderUid) &&
+                Objects.equals(uploaderName, that.uploaderName) &&
+                Objects.equals(timestamp, that.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, description, subject, materialType, fileUrl, thumbnailUrl, uploaderUid, uploaderName, timestamp, averageRating, downloadCount);
+    }
 }
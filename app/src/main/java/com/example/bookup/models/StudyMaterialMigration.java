@@ -0,0 +1,53 @@
+package com.example.bookup.models;
+
+import com.example.bookup.query.CollectionMigration;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renames the legacy fields of study material documents uploaded by older app versions
+ * ({@code type}, {@code downloadUrl}, {@code uploadDate}, {@code downloads}) to the names
+ * {@link StudyMaterialMapper} writes.
+ *
+ * Besides letting StudyMaterial drop its {@link LegacyName}s eventually, this gives those
+ * materials a {@link StudyMaterialMapper#TIMESTAMP}, without which every query ordered by it
+ * leaves them out.
+ * Documents without legacy fields are not written, so it can be re-run safely
+ * (see {@link CollectionMigration}).
+ */
+public final class StudyMaterialMigration {
+
+    private static final String[][] RENAMED_FIELDS = {
+            {StudyMaterialMapper.LEGACY_TYPE, StudyMaterialMapper.MATERIAL_TYPE},
+            {StudyMaterialMapper.LEGACY_DOWNLOAD_URL, StudyMaterialMapper.FILE_URL},
+            {StudyMaterialMapper.LEGACY_UPLOAD_DATE, StudyMaterialMapper.TIMESTAMP},
+            {StudyMaterialMapper.LEGACY_DOWNLOADS, StudyMaterialMapper.DOWNLOAD_COUNT},
+    };
+
+    private StudyMaterialMigration() {
+        // Utility class
+    }
+
+    /**
+     * @return The number of documents rewritten.
+     */
+    public static Task<Integer> run(FirebaseFirestore db) {
+        return CollectionMigration.run(db, "studyMaterials", (doc, batch) -> {
+            Map<String, Object> updates = new HashMap<>();
+            for (String[] renamed : RENAMED_FIELDS) {
+                if (!doc.contains(renamed[0])) continue;
+                if (!doc.contains(renamed[1])) {
+                    updates.put(renamed[1], doc.get(renamed[0])); // A value under the current name wins
+                }
+                updates.put(renamed[0], FieldValue.delete());
+            }
+            if (updates.isEmpty()) return false;
+            batch.update(doc.getReference(), updates);
+            return true;
+        });
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.bookup.models;
 
+import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.PropertyName;
+
 import java.io.Serializable;
 import java.util.List;
+import java.util.Objects;
 
+// Tutor profiles are written by the backend, so the app only reads them
+@FirestoreModel(encoder = false)
 public class Tutor implements Serializable {
+    @DocumentId
     private String uid;
     private String name;
     private String profileImageUrl;
@@ -11,6 +18,7 @@ public class Tutor implements Serializable {
     private List<String> subjects; // e.g., ["Math", "Physics"]
     private double rating; // Average rating
     private int reviewCount;
+    @PropertyName("available")
     private boolean isAvailable; // Whether they are currently accepting new students
 
     public Tutor() {
@@ -47,4 +55,24 @@ public class Tutor implements Serializable {
     public void setRating(double rating) { this.rating = rating; }
     public void setReviewCount(int reviewCount) { this.reviewCount = reviewCount; }
     public void setAvailable(boolean available) { isAvailable = available; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Tutor that = (Tutor) o;
+        return Double.compare(that.rating, rating) == 0 &&
+                reviewCount == that.reviewCount &&
+                isAvailable == that.isAvailable &&
+                Objects.equals(uid, that.uid) &&
+                Objects.equals(name, that.name) &&
+                Objects.equals(profileImageUrl, that.profileImageUrl) &&
+                Objects.equals(bio, that.bio) &&
+                Objects.equals(subjects, that.subjects);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(uid, name, profileImageUrl, bio, subjects, rating, reviewCount, isAvailable);
+    }
 }
@@ -0,0 +1,84 @@
+package com.example.bookup.query;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.List;
+
+/**
+ * Rewrites the documents of a whole collection, e.g. to migrate or backfill a field.
+ *
+ * Walks the collection one page at a time in document ID order and writes each page's changes in
+ * one batch, so memory and batch size stay bounded for any collection size. Rewriters only write
+ * documents that actually change, so a migration can be re-run safely, e.g. after an interruption.
+ * Takes the Firestore instance to run against, which may point at the emulator.
+ */
+public final class CollectionMigration {
+
+    private static final int PAGE_SIZE = 200; // Also the most writes per batch, well below Firestore's 500
+
+    /**
+     * Decides what to write for one document.
+     */
+    public interface DocumentRewriter {
+        /**
+         * Adds the document's writes to the batch, if it needs any.
+         *
+         * @return True if anything was added for this document.
+         */
+        boolean rewrite(DocumentSnapshot document, WriteBatch batch);
+    }
+
+    private CollectionMigration() {
+        // Utility class
+    }
+
+    /**
+     * @return The number of documents rewritten.
+     */
+    public static Task<Integer> run(FirebaseFirestore db, String collection, DocumentRewriter rewriter) {
+        TaskCompletionSource<Integer> result = new TaskCompletionSource<>();
+        rewritePage(db, collection, rewriter, null, 0, result);
+        return result.getTask();
+    }
+
+    private static void rewritePage(FirebaseFirestore db, String collection, DocumentRewriter rewriter,
+                                    DocumentSnapshot lastDocument, int rewrittenSoFar,
+                                    TaskCompletionSource<Integer> result) {
+        Query page = db.collection(collection).orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+        if (lastDocument != null) {
+            page = page.startAfter(lastDocument);
+        }
+
+        page.get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    WriteBatch batch = db.batch();
+                    int rewritten = 0;
+                    for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
+                        if (rewriter.rewrite(doc, batch)) {
+                            rewritten++;
+                        }
+                    }
+
+                    int total = rewrittenSoFar + rewritten;
+                    List<DocumentSnapshot> documents = queryDocumentSnapshots.getDocuments();
+                    Task<Void> write = rewritten > 0 ? batch.commit() : Tasks.forResult(null);
+                    write.addOnSuccessListener(aVoid -> {
+                                if (documents.size() < PAGE_SIZE) {
+                                    result.setResult(total); // A short page is the last one
+                                } else {
+                                    rewritePage(db, collection, rewriter, documents.get(documents.size() - 1), total, result);
+                                }
+                            })
+                            .addOnFailureListener(result::setException);
+                })
+                .addOnFailureListener(result::setException);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bookup.query;
+
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import com.example.bookup.models.HelpRequest;
+import com.example.bookup.models.HelpRequestMapper;
+import com.example.bookup.models.NewsItem;
+import com.example.bookup.models.NewsItemMapper;
+import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.models.StudyMaterialMapper;
+import com.example.bookup.models.Tutor;
+import com.example.bookup.models.TutorMapper;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide identity map of the models detail screens show, keyed by document ID.
+ *
+ * List screens put the model they show before opening its detail screen, so the Intent carries
+ * only the ID and the detail screen gets the very same object back, without serializing it. If
+ * the model is not cached (e.g. the process was recreated since), it is read once from its
+ * document, and concurrent requests for the same ID share that read.
+ * Cached models are shared: treat them as read-only and put an updated copy instead.
+ * Must be used on the main thread.
+ */
+public final class EntityCache<T> {
+
+    // Per model type; detail screens only need the models recently shown in lists
+    private static final int MAX_ENTRIES = 100;
+
+    public static final EntityCache<StudyMaterial> MATERIALS =
+            new EntityCache<>("studyMaterials", StudyMaterialMapper::decode, StudyMaterial::getId);
+    public static final EntityCache<Tutor> TUTORS =
+            new EntityCache<>("tutors", TutorMapper::decode, Tutor::getUid);
+    public static final EntityCache<HelpRequest> REQUESTS =
+            new EntityCache<>("helpRequests", HelpRequestMapper::decode, HelpRequest::getId);
+    public static final EntityCache<NewsItem> NEWS_ITEMS =
+            new EntityCache<>("newsFeed", NewsItemMapper::decode, NewsItem::getId);
+
+    /**
+     * The document ID of a model.
+     */
+    public interface IdGetter<T> {
+        String getId(T model);
+    }
+
+    private final String collection;
+    private final FirestoreDecoding.DocumentDecoder<T> decoder;
+    private final IdGetter<T> idGetter;
+    private final LruCache<String, T> entries = new LruCache<>(MAX_ENTRIES);
+    private final Map<String, Task<T>> pendingLoads = new HashMap<>();
+
+    private EntityCache(String collection, FirestoreDecoding.DocumentDecoder<T> decoder, IdGetter<T> idGetter) {
+        this.collection = collection;
+        this.decoder = decoder;
+        this.idGetter = idGetter;
+    }
+
+    /**
+     * Caches a model, replacing the one cached under its ID.
+     */
+    public void put(T model) {
+        String id = idGetter.getId(model);
+        if (id != null) {
+            entries.put(id, model);
+        }
+    }
+
+    /**
+     * @return The cached model, or null if it has to be loaded.
+     */
+    @Nullable
+    public T get(String id) {
+        return entries.get(id);
+    }
+
+    /**
+     * @return The cached model, or else the model read from its document, which is then cached.
+     * Fails with {@link FirebaseFirestoreException.Code#NOT_FOUND} if the document does not exist.
+     */
+    public Task<T> load(String id) {
+        T cached = entries.get(id);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+        Task<T> pending = pendingLoads.get(id);
+        if (pending != null) {
+            return pending;
+        }
+
+        // Decoded in the background; the cache itself is only touched on the main thread
+        Task<T> load = FirebaseFirestore.getInstance().collection(collection).document(id).get()
+                .continueWith(FirestoreDecoding.executor(), task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    DocumentSnapshot document = task.getResult();
+                    T model = document.exists() ? decoder.decode(document) : null;
+                    if (model == null) {
+                        throw new FirebaseFirestoreException("No " + collection + " document " + id,
+                                FirebaseFirestoreException.Code.NOT_FOUND);
+                    }
+                    return model;
+                })
+                .continueWith(task -> {
+                    pendingLoads.remove(id);
+                    if (!task.isSuccessful()) throw task.getException();
+                    entries.put(id, task.getResult());
+                    return task.getResult();
+                });
+        pendingLoads.put(id, load);
+        return load;
+    }
+}
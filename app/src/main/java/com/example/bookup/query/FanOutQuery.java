@@ -0,0 +1,144 @@
+package com.example.bookup.query;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs several Firestore queries with the same ordering as if they were one, a page at a time.
+ *
+ * Firestore limits {@code whereIn}/{@code whereArrayContainsAny} to {@link #MAX_DISJUNCTION_VALUES}
+ * values, so a filter on more values is split into one query per chunk (see {@link #chunked}).
+ * Each page requests the chunk queries concurrently, then merges their ordered results with a
+ * k-way heap merge, skipping documents already returned by another chunk (see {@link PageMerger}).
+ *
+ * Every query must be ordered the way the given comparator orders documents. Each chunk keeps
+ * its own {@code startAfter} cursor and the documents it fetched but that were not returned
+ * yet, so later pages continue exactly where the previous one stopped.
+ * Must be used on the main thread.
+ */
+public class FanOutQuery {
+
+    public static final int MAX_DISJUNCTION_VALUES = 10;
+
+    public interface ChunkQueryFactory {
+        /**
+         * @param values At most {@link #MAX_DISJUNCTION_VALUES} filter values.
+         * @return The query for documents matching any of the values.
+         */
+        Query create(List<String> values);
+    }
+
+    private static class Chunk extends PageMerger.Source<DocumentSnapshot> {
+        final Query query;
+        DocumentSnapshot lastFetched;
+
+        Chunk(Query query) {
+            this.query = query;
+        }
+    }
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final PageMerger<DocumentSnapshot> merger;
+    private boolean loading;
+
+    /**
+     * @param queries The queries to merge, all ordered according to {@code order}.
+     */
+    public FanOutQuery(List<Query> queries, Comparator<DocumentSnapshot> order) {
+        for (Query query : queries) {
+            chunks.add(new Chunk(query));
+        }
+        merger = new PageMerger<>(order, DocumentSnapshot::getId);
+    }
+
+    /**
+     * Splits the values into chunks of at most {@link #MAX_DISJUNCTION_VALUES} and builds one query per chunk.
+     */
+    public static List<Query> chunked(List<String> values, ChunkQueryFactory factory) {
+        List<Query> queries = new ArrayList<>();
+        for (int start = 0; start < values.size(); start += MAX_DISJUNCTION_VALUES) {
+            List<String> chunk = new ArrayList<>(values.subList(start, Math.min(values.size(), start + MAX_DISJUNCTION_VALUES)));
+            queries.add(factory.create(chunk));
+        }
+        return queries;
+    }
+
+    /**
+     * Orders documents newest first by a timestamp field, matching
+     * {@code orderBy(field, Query.Direction.DESCENDING)}.
+     */
+    public static Comparator<DocumentSnapshot> newestFirst(String field) {
+        return (a, b) -> {
+            Timestamp ta = a.getTimestamp(field);
+            Timestamp tb = b.getTimestamp(field);
+            if (ta != null && tb != null && !ta.equals(tb)) return tb.compareTo(ta);
+            if (ta == null && tb != null) return 1; // Documents without the field come last
+            if (ta != null && tb == null) return -1;
+            return b.getId().compareTo(a.getId()); // Ties are ordered by ID in the same direction
+        };
+    }
+
+    /**
+     * Orders documents by ID, matching {@code orderBy(FieldPath.documentId())}.
+     */
+    public static Comparator<DocumentSnapshot> byDocumentId() {
+        return (a, b) -> a.getId().compareTo(b.getId());
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean hasMore() {
+        for (Chunk chunk : chunks) {
+            if (!chunk.exhausted || !chunk.buffer.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the next (at most) {@code pageSize} documents in order. A page may be shorter than
+     * {@code pageSize} even though {@link #hasMore()} is still true, when duplicates were skipped.
+     */
+    public Task<List<DocumentSnapshot>> loadNextPage(int pageSize) {
+        if (loading) {
+            return Tasks.forException(new IllegalStateException("A page is already loading."));
+        }
+        loading = true;
+
+        // Top up every chunk that could run dry within this page
+        List<Task<?>> fetches = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            if (chunk.exhausted || chunk.buffer.size() >= pageSize) continue;
+            Query pageQuery = chunk.query.limit(pageSize);
+            if (chunk.lastFetched != null) {
+                pageQuery = pageQuery.startAfter(chunk.lastFetched);
+            }
+            fetches.add(pageQuery.get().addOnSuccessListener(queryDocumentSnapshots -> {
+                List<DocumentSnapshot> documents = queryDocumentSnapshots.getDocuments();
+                chunk.buffer.addAll(documents);
+                if (!documents.isEmpty()) {
+                    chunk.lastFetched = documents.get(documents.size() - 1);
+                }
+                chunk.exhausted = documents.size() < pageSize; // A short page means there is nothing after it
+            }));
+        }
+
+        return Tasks.whenAllComplete(fetches).continueWith(task -> {
+            loading = false;
+            for (Task<?> fetch : fetches) {
+                if (!fetch.isSuccessful()) {
+                    throw fetch.getException();
+                }
+            }
+            return merger.merge(chunks, pageSize);
+        });
+    }
+}
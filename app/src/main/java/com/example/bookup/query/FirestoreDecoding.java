@@ -0,0 +1,198 @@
+package com.example.bookup.query;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns Firestore results into model lists off the main thread.
+ *
+ * Even with the reflection-free mappers in {@code models}, decoding a result of more than a handful
+ * of documents is too much work for the main thread. Decoding, filtering and list building therefore
+ * run on a small shared pool of background threads; the UI only receives the finished,
+ * unmodifiable lists. Listeners of the returned tasks run on the main thread as usual, and
+ * {@link #listen} delivers its decoded snapshots on the main thread in the order they arrived.
+ */
+public final class FirestoreDecoding {
+
+    private static final String TAG = "FirestoreDecoding";
+
+    // Decoding is short and CPU-bound, so a couple of threads are enough and never starve the UI
+    private static final int DECODE_THREADS = 2;
+
+    private static final ExecutorService DECODE_EXECUTOR = Executors.newFixedThreadPool(DECODE_THREADS, new DecodeThreadFactory());
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private FirestoreDecoding() {
+        // Utility class
+    }
+
+    /**
+     * Maps one document to a model.
+     */
+    public interface DocumentDecoder<T> {
+        /**
+         * @return The model, or null to leave the document out (e.g. it does not match a filter).
+         */
+        @Nullable
+        T decode(@NonNull DocumentSnapshot document);
+    }
+
+    /**
+     * Maps a whole query snapshot, e.g. to the models of its document changes.
+     */
+    public interface SnapshotDecoder<T> {
+        T decode(@NonNull QuerySnapshot snapshot);
+    }
+
+    /**
+     * The background executor decoding runs on, for continuations that decode by themselves.
+     */
+    public static Executor executor() {
+        return DECODE_EXECUTOR;
+    }
+
+    /**
+     * Decodes documents on the calling thread; meant to be called on {@link #executor()}.
+     *
+     * @return The decoded models in document order, without the ones the decoder left out.
+     */
+    public static <T> List<T> decodeAll(List<? extends DocumentSnapshot> documents, DocumentDecoder<T> decoder) {
+        List<T> models = new ArrayList<>(documents.size());
+        for (DocumentSnapshot document : documents) {
+            T model = decoder.decode(document);
+            if (model != null) {
+                models.add(model);
+            }
+        }
+        return Collections.unmodifiableList(models);
+    }
+
+    /**
+     * @return The query's documents decoded in the background; fails if the query failed.
+     */
+    public static <T> Task<List<T>> decodeQuery(Task<QuerySnapshot> query, DocumentDecoder<T> decoder) {
+        return query.onSuccessTask(DECODE_EXECUTOR,
+                snapshot -> Tasks.forResult(decodeAll(snapshot.getDocuments(), decoder)));
+    }
+
+    /**
+     * @return The page's documents decoded in the background, e.g. a {@link FanOutQuery} page.
+     */
+    public static <T> Task<List<T>> decodePage(Task<List<DocumentSnapshot>> page, DocumentDecoder<T> decoder) {
+        return page.onSuccessTask(DECODE_EXECUTOR,
+                documents -> Tasks.forResult(decodeAll(documents, decoder)));
+    }
+
+    public static <T> ListenerRegistration listen(Query query, SnapshotDecoder<T> decoder, EventListener<T> listener) {
+        return listen(query, MetadataChanges.EXCLUDE, decoder, listener);
+    }
+
+    /**
+     * Like {@link Query#addSnapshotListener}, but each snapshot is decoded in the background and only
+     * the result is delivered to the listener, on the main thread. Snapshots of one listener are
+     * decoded and delivered one at a time, in order. No event is delivered once the registration
+     * was removed. If the decoder throws, the listener receives that failure as its error and keeps
+     * receiving later snapshots.
+     */
+    public static <T> ListenerRegistration listen(Query query, MetadataChanges metadataChanges,
+                                                  SnapshotDecoder<T> decoder, EventListener<T> listener) {
+        SerialExecutor serialExecutor = new SerialExecutor();
+        ListenerRegistration registration = query.addSnapshotListener(serialExecutor, metadataChanges, (snapshot, e) -> {
+            T decoded = null;
+            FirebaseFirestoreException error = e;
+            if (e == null && snapshot != null) {
+                try {
+                    decoded = decoder.decode(snapshot);
+                } catch (RuntimeException decodeError) {
+                    error = new FirebaseFirestoreException("Could not decode snapshot: " + decodeError.getMessage(),
+                            FirebaseFirestoreException.Code.INTERNAL, decodeError);
+                }
+            }
+            T event = decoded;
+            FirebaseFirestoreException eventError = error;
+            MAIN_HANDLER.post(() -> {
+                if (!serialExecutor.removed) {
+                    listener.onEvent(event, eventError);
+                }
+            });
+        });
+        return () -> {
+            serialExecutor.removed = true; // Set on the main thread, like the check above
+            registration.remove();
+        };
+    }
+
+    // Runs one listener's events one after another on the shared pool; a command that throws does
+    // not stop the ones after it
+    private static class SerialExecutor implements Executor {
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private boolean running;
+        volatile boolean removed;
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            queue.add(command);
+            if (!running) {
+                running = true;
+                DECODE_EXECUTOR.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        running = false;
+                        return;
+                    }
+                }
+                try {
+                    next.run();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Listener event failed", e); // Rethrowing would leave running set and crash the pool thread
+                }
+            }
+        }
+    }
+
+    private static class DecodeThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "firestore-decode-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
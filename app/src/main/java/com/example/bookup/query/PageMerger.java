@@ -0,0 +1,66 @@
+package com.example.bookup.query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The merge step of {@link FanOutQuery}: a k-way heap merge of ordered sources into pages,
+ * returning every item once even if several sources hold it. Free of Firestore types, so it can
+ * be tested on the JVM.
+ */
+final class PageMerger<T> {
+
+    interface IdGetter<T> {
+        String getId(T item);
+    }
+
+    /**
+     * One ordered source: the items fetched but not returned yet, and whether more can be fetched.
+     */
+    static class Source<T> {
+        final ArrayDeque<T> buffer = new ArrayDeque<>();
+        boolean exhausted;
+    }
+
+    private final Comparator<T> order;
+    private final IdGetter<T> idGetter;
+    private final Set<String> returnedIds = new HashSet<>();
+
+    PageMerger(Comparator<T> order, IdGetter<T> idGetter) {
+        this.order = order;
+        this.idGetter = idGetter;
+    }
+
+    /**
+     * Takes the next (at most) {@code pageSize} items in order from the sources' buffers. Stops
+     * early when a source that is not exhausted runs dry, since its next items may come first.
+     */
+    List<T> merge(List<? extends Source<T>> sources, int pageSize) {
+        PriorityQueue<Source<T>> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> order.compare(a.buffer.peekFirst(), b.buffer.peekFirst()));
+        for (Source<T> source : sources) {
+            if (!source.buffer.isEmpty()) heads.add(source);
+        }
+
+        List<T> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && !heads.isEmpty()) {
+            Source<T> source = heads.poll();
+            T item = source.buffer.pollFirst();
+            if (returnedIds.add(idGetter.getId(item))) {
+                page.add(item);
+            }
+            if (!source.buffer.isEmpty()) {
+                heads.add(source);
+            } else if (!source.exhausted) {
+                break; // Its next items are not fetched yet and may come before any other source's
+            }
+        }
+        return Collections.unmodifiableList(page);
+    }
+}
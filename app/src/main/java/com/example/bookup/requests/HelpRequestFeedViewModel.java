@@ -0,0 +1,426 @@
+package com.example.bookup.requests;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.bookup.models.HelpRequest;
+import com.example.bookup.models.HelpRequestMapper;
+import com.example.bookup.query.FanOutQuery;
+import com.example.bookup.query.FirestoreDecoding;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The open help requests shown by RequestsFragment, read one page at a time with
+ * {@code startAfter} cursors (see {@link FanOutQuery}).
+ *
+ * Scoped to the activity, so the pages loaded so far survive onResume and the fragment being
+ * recreated; they are only read again on an explicit reload or when the feed's query changes
+ * (e.g. the tutor's subjects changed). Published lists are unmodifiable snapshots.
+ *
+ * While live updates are started, one snapshot listener per query chunk watches the requests
+ * newer than the newest loaded one. Its document changes are applied as deltas: new requests
+ * are counted (see {@link #getNewRequestCount()}) until {@link #showNewRequests()} puts them on
+ * top of the list, and requests that are edited or stop being open are updated or dropped in
+ * place. Each loaded page is watched the same way, by one listener per query chunk over the
+ * page's range ({@code startAt} its first and {@code endAt} its last request), so its requests
+ * are updated when edited and dropped once no chunk matches them any more (e.g. assigned or
+ * closed). Requests that move into a loaded range are not inserted; they show on the next reload.
+ * Documents are decoded off the main thread (see {@link FirestoreDecoding}).
+ * Must be used on the main thread.
+ */
+public class HelpRequestFeedViewModel extends ViewModel {
+
+    private static final String TAG = "HelpRequestFeed";
+
+    public static final int PAGE_SIZE = 20;
+
+    private static final Comparator<DocumentSnapshot> NEWEST_FIRST = FanOutQuery.newestFirst(HelpRequestMapper.TIMESTAMP);
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final MutableLiveData<List<HelpRequest>> requests = new MutableLiveData<>(); // Null until the first page loads
+    private final MutableLiveData<Integer> newRequestCount = new MutableLiveData<>(0);
+    private final MutableLiveData<Exception> errors = new MutableLiveData<>();
+    private final List<HelpRequest> loadedRequests = new ArrayList<>();
+    private String feedKey; // Identifies the query the loaded pages came from
+    private List<Query> feedQueries;
+    private FanOutQuery pager;
+    private boolean pageLoading; // Until the page is decoded too, which the pager does not know about
+
+    // Live updates
+    private final List<NewRequestWatch> newRequestWatches = new ArrayList<>(); // One per query chunk
+    private final Set<String> shownNewRequestIds = new HashSet<>();
+    private final List<LoadedPageWatch> loadedPageWatches = new ArrayList<>(); // One per non-empty loaded page
+    private DocumentSnapshot newestLoaded; // Null if the feed was empty when loaded
+    private boolean live;
+
+    // The requests of one query chunk that are newer than the loaded pages
+    private static class NewRequestWatch {
+        final Query query;
+        final Map<String, DocumentSnapshot> documents = new HashMap<>();
+        final Map<String, HelpRequest> requests = new HashMap<>(); // Decoded documents
+        ListenerRegistration registration;
+        boolean awaitingFirstSnapshot;
+
+        NewRequestWatch(Query query) {
+            this.query = query;
+        }
+    }
+
+    // The requests of one loaded page, and the listeners keeping them current
+    private static class LoadedPageWatch {
+        final Set<String> ids = new HashSet<>(); // Of the page's requests that are still listed
+        final List<PageRangeListener> listeners = new ArrayList<>(); // One per query chunk
+
+        LoadedPageWatch(List<HelpRequest> pageRequests, List<Query> queries, DocumentSnapshot first, DocumentSnapshot last) {
+            for (HelpRequest request : pageRequests) {
+                ids.add(request.getId());
+            }
+            for (Query query : queries) {
+                listeners.add(new PageRangeListener(query.startAt(first).endAt(last)));
+            }
+        }
+
+        boolean anyMatches(String id) {
+            for (PageRangeListener listener : listeners) {
+                if (listener.matchingIds.contains(id)) return true;
+            }
+            return false;
+        }
+
+        boolean allListed() {
+            for (PageRangeListener listener : listeners) {
+                if (listener.awaitingFirstSnapshot) return false;
+            }
+            return true;
+        }
+    }
+
+    // The documents of one query chunk within a loaded page's range
+    private static class PageRangeListener {
+        final Query query;
+        final Set<String> matchingIds = new HashSet<>();
+        ListenerRegistration registration;
+        boolean awaitingFirstSnapshot = true;
+
+        PageRangeListener(Query query) {
+            this.query = query;
+        }
+    }
+
+    // One document change of a feed listener, decoded off the main thread
+    private static class DecodedChange {
+        final DocumentChange.Type type;
+        final DocumentSnapshot document;
+        final HelpRequest request; // Null for removals and documents that could not be decoded
+
+        DecodedChange(DocumentChange change) {
+            type = change.getType();
+            document = change.getDocument();
+            request = type == DocumentChange.Type.REMOVED ? null : HelpRequestMapper.decode(document);
+        }
+    }
+
+    private static List<DecodedChange> decodeChanges(QuerySnapshot snapshots) {
+        List<DecodedChange> changes = new ArrayList<>();
+        for (DocumentChange change : snapshots.getDocumentChanges()) {
+            changes.add(new DecodedChange(change));
+        }
+        return changes;
+    }
+
+    public LiveData<List<HelpRequest>> getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return How many requests arrived since the list was loaded and are not shown yet.
+     */
+    public LiveData<Integer> getNewRequestCount() {
+        return newRequestCount;
+    }
+
+    public LiveData<Exception> getErrors() {
+        return errors;
+    }
+
+    // Called once an error was shown, so it is not shown again when the fragment is recreated
+    public void clearError() {
+        errors.setValue(null);
+    }
+
+    /**
+     * Selects the feed to show. Keeps the pages loaded already if the feed is unchanged,
+     * unless {@code reload} is set.
+     *
+     * @param subjects The tutor's teaching subjects; ignored for students.
+     * @return True if the first page is being loaded.
+     */
+    public boolean setFeed(boolean tutorView, List<String> subjects, boolean reload) {
+        boolean bySubject = tutorView && !subjects.isEmpty();
+        String key = bySubject ? "subjects:" + subjects : "open";
+        if (!reload && key.equals(feedKey)) {
+            return false;
+        }
+
+        Query openRequests = db.collection("helpRequests").whereEqualTo(HelpRequestMapper.STATUS, "Open");
+        List<Query> queries;
+        if (bySubject) {
+            // Tutor view: open requests that match their teaching subjects
+            queries = FanOutQuery.chunked(subjects, chunk -> openRequests
+                    .whereIn(HelpRequestMapper.SUBJECT, chunk)
+                    .orderBy(HelpRequestMapper.TIMESTAMP, Query.Direction.DESCENDING));
+        } else {
+            // Students, and tutors without subjects, see all open requests
+            queries = Collections.singletonList(openRequests.orderBy(HelpRequestMapper.TIMESTAMP, Query.Direction.DESCENDING));
+        }
+
+        feedKey = key;
+        feedQueries = queries;
+        pager = new FanOutQuery(queries, NEWEST_FIRST);
+        loadPage(pager, true); // The current pages stay visible until the new first page arrives
+        return true;
+    }
+
+    public boolean hasMore() {
+        return pager != null && pager.hasMore();
+    }
+
+    /**
+     * Requests the next page. Does nothing if a page is already loading or the feed is exhausted.
+     */
+    public void loadNextPage() {
+        if (pager == null || pageLoading || !pager.hasMore()) return;
+        loadPage(pager, false);
+    }
+
+    /**
+     * Starts listening for new and changed requests; the listeners are attached once the first page is loaded.
+     */
+    public void startLiveUpdates() {
+        live = true;
+        attachNewRequestListeners();
+        for (LoadedPageWatch pageWatch : loadedPageWatches) {
+            attachPageListeners(pageWatch);
+        }
+    }
+
+    public void stopLiveUpdates() {
+        live = false;
+        detachListeners();
+    }
+
+    /**
+     * Puts the requests counted by {@link #getNewRequestCount()} on top of the list.
+     */
+    public void showNewRequests() {
+        for (NewRequestWatch watch : newRequestWatches) {
+            shownNewRequestIds.addAll(watch.requests.keySet());
+        }
+        publish();
+    }
+
+    @Override
+    protected void onCleared() {
+        detachListeners();
+    }
+
+    private void loadPage(FanOutQuery pagePager, boolean firstPage) {
+        pageLoading = true;
+        Task<List<DocumentSnapshot>> page = pagePager.loadNextPage(PAGE_SIZE);
+        FirestoreDecoding.decodePage(page, HelpRequestMapper::decode)
+                .addOnSuccessListener(pageRequests -> {
+                    if (pagePager != pager) return; // The feed was reloaded meanwhile
+                    pageLoading = false;
+                    List<DocumentSnapshot> documents = page.getResult();
+                    if (firstPage) {
+                        loadedRequests.clear();
+                        // Deltas are tracked from the newest request of the fresh first page on
+                        detachListeners();
+                        newRequestWatches.clear();
+                        loadedPageWatches.clear();
+                        for (Query query : feedQueries) {
+                            newRequestWatches.add(new NewRequestWatch(query));
+                        }
+                        shownNewRequestIds.clear();
+                        newestLoaded = documents.isEmpty() ? null : documents.get(0);
+                    }
+                    loadedRequests.addAll(pageRequests);
+                    LoadedPageWatch pageWatch = null;
+                    if (!documents.isEmpty()) {
+                        pageWatch = new LoadedPageWatch(pageRequests, feedQueries,
+                                documents.get(0), documents.get(documents.size() - 1));
+                        loadedPageWatches.add(pageWatch);
+                    }
+                    publish();
+                    if (live) {
+                        if (firstPage) attachNewRequestListeners();
+                        if (pageWatch != null) attachPageListeners(pageWatch);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    if (pagePager != pager) return;
+                    pageLoading = false;
+                    if (firstPage) {
+                        // Nothing of this feed was loaded, so the next setFeed call starts it again
+                        feedKey = null;
+                        pager = null;
+                    }
+                    errors.setValue(e);
+                });
+    }
+
+    private void attachNewRequestListeners() {
+        // There are no watches before the first page, which sets the point from which requests count as new
+        for (NewRequestWatch watch : newRequestWatches) {
+            if (watch.registration != null) continue;
+            Query newer = newestLoaded != null ? watch.query.endBefore(newestLoaded) : watch.query;
+            watch.awaitingFirstSnapshot = true;
+            watch.registration = FirestoreDecoding.listen(newer, HelpRequestFeedViewModel::decodeChanges, (changes, e) -> {
+                if (e != null) {
+                    Log.e(TAG, "Listen failed for new help requests: " + e.getMessage(), e);
+                    return; // The pages stay as loaded; the next start or reload listens again
+                }
+                if (changes == null) return;
+                if (watch.awaitingFirstSnapshot) {
+                    // The first snapshot lists every matching document, including ones kept from
+                    // before the listener was last detached; anything missing was removed meanwhile
+                    watch.awaitingFirstSnapshot = false;
+                    watch.documents.clear();
+                    watch.requests.clear();
+                }
+                for (DecodedChange change : changes) {
+                    String id = change.document.getId();
+                    if (change.type == DocumentChange.Type.REMOVED) {
+                        // No longer open (e.g. assigned to a tutor) or deleted
+                        watch.documents.remove(id);
+                        watch.requests.remove(id);
+                        continue;
+                    }
+                    if (change.request == null) continue;
+                    watch.documents.put(id, change.document);
+                    watch.requests.put(id, change.request);
+                }
+                publish();
+            });
+        }
+    }
+
+    private void attachPageListeners(LoadedPageWatch pageWatch) {
+        for (PageRangeListener listener : pageWatch.listeners) {
+            if (listener.registration != null) continue;
+            listener.awaitingFirstSnapshot = true;
+            listener.registration = FirestoreDecoding.listen(listener.query, HelpRequestFeedViewModel::decodeChanges, (changes, e) -> {
+                if (e != null) {
+                    Log.e(TAG, "Listen failed for loaded help requests: " + e.getMessage(), e);
+                    return; // Nothing is dropped from this page until every chunk has listed it
+                }
+                if (changes == null) return;
+                if (listener.awaitingFirstSnapshot) {
+                    // Rebuilt from the full listing, which leaves out what was removed while detached
+                    listener.awaitingFirstSnapshot = false;
+                    listener.matchingIds.clear();
+                }
+                for (DecodedChange change : changes) {
+                    String id = change.document.getId();
+                    if (change.type == DocumentChange.Type.REMOVED) {
+                        listener.matchingIds.remove(id);
+                        continue;
+                    }
+                    listener.matchingIds.add(id);
+                    if (change.request != null && pageWatch.ids.contains(id)) {
+                        replaceLoadedRequest(change.request);
+                    }
+                }
+                dropUnmatchedRequests(pageWatch);
+                publish();
+            });
+        }
+    }
+
+    private void replaceLoadedRequest(HelpRequest request) {
+        for (int i = 0; i < loadedRequests.size(); i++) {
+            if (loadedRequests.get(i).getId().equals(request.getId())) {
+                loadedRequests.set(i, request);
+                return;
+            }
+        }
+    }
+
+    // Drops the page's requests that no chunk matches any more, once every chunk has listed its range
+    private void dropUnmatchedRequests(LoadedPageWatch pageWatch) {
+        if (!pageWatch.allListed()) return;
+        Set<String> dropped = new HashSet<>();
+        for (String id : pageWatch.ids) {
+            if (!pageWatch.anyMatches(id)) dropped.add(id);
+        }
+        if (dropped.isEmpty()) return;
+        pageWatch.ids.removeAll(dropped);
+        for (int i = loadedRequests.size() - 1; i >= 0; i--) {
+            if (dropped.contains(loadedRequests.get(i).getId())) loadedRequests.remove(i);
+        }
+    }
+
+    private void detachListeners() {
+        for (NewRequestWatch watch : newRequestWatches) {
+            if (watch.registration != null) {
+                watch.registration.remove();
+                watch.registration = null;
+            }
+        }
+        for (LoadedPageWatch pageWatch : loadedPageWatches) {
+            for (PageRangeListener listener : pageWatch.listeners) {
+                if (listener.registration != null) {
+                    listener.registration.remove();
+                    listener.registration = null;
+                }
+            }
+        }
+    }
+
+    // Shown new requests, newest first, on top of the loaded pages
+    private void publish() {
+        Map<String, DocumentSnapshot> newDocuments = new HashMap<>();
+        Map<String, HelpRequest> newRequests = new HashMap<>();
+        for (NewRequestWatch watch : newRequestWatches) {
+            newDocuments.putAll(watch.documents);
+            newRequests.putAll(watch.requests);
+        }
+
+        List<DocumentSnapshot> shown = new ArrayList<>();
+        for (String id : shownNewRequestIds) {
+            DocumentSnapshot document = newDocuments.get(id);
+            if (document != null) shown.add(document); // Null once it stopped being open
+        }
+        Collections.sort(shown, NEWEST_FIRST);
+
+        List<HelpRequest> list = new ArrayList<>(shown.size() + loadedRequests.size());
+        for (DocumentSnapshot document : shown) {
+            list.add(newRequests.get(document.getId()));
+        }
+        for (HelpRequest request : loadedRequests) {
+            if (!newRequests.containsKey(request.getId())) { // Already listed with its latest state
+                list.add(request);
+            }
+        }
+        requests.setValue(Collections.unmodifiableList(list));
+        newRequestCount.setValue(newRequests.size() - shown.size());
+    }
+}
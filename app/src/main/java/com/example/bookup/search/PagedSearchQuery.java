@@ -0,0 +1,77 @@
+package com.example.bookup.search;
+
+import com.example.bookup.query.FirestoreDecoding;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.List;
+
+/**
+ * Reads the results of a Firestore query one bounded page at a time, using the last
+ * document of the previous page as the {@code startAfter} cursor.
+ *
+ * Each call to {@link #loadNextPage} reads at most {@code pageSize} documents, and at
+ * most one page request is in flight at a time. Pages are decoded off the main thread
+ * (see {@link FirestoreDecoding}); the callback gets the decoded models on the main thread.
+ */
+public class PagedSearchQuery<T> {
+
+    public interface PageCallback<T> {
+        /**
+         * @param results The page's models, without the documents the decoder left out.
+         */
+        void onPageLoaded(List<T> results, boolean hasMore);
+        void onError(Exception e);
+    }
+
+    private final Query query;
+    private final int pageSize;
+    private final FirestoreDecoding.DocumentDecoder<T> decoder;
+    private DocumentSnapshot lastDocument;
+    private boolean loading;
+    private boolean hasMore = true;
+
+    public PagedSearchQuery(Query query, int pageSize, FirestoreDecoding.DocumentDecoder<T> decoder) {
+        this.query = query;
+        this.pageSize = pageSize;
+        this.decoder = decoder;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Requests the next page. Does nothing if a page is already loading or the results are exhausted.
+     */
+    public void loadNextPage(PageCallback<T> callback) {
+        if (loading || !hasMore) return;
+        loading = true;
+
+        Query pageQuery = query.limit(pageSize);
+        if (lastDocument != null) {
+            pageQuery = pageQuery.startAfter(lastDocument);
+        }
+        Task<QuerySnapshot> page = pageQuery.get();
+        FirestoreDecoding.decodeQuery(page, decoder)
+                .addOnSuccessListener(results -> {
+                    loading = false;
+                    List<DocumentSnapshot> documents = page.getResult().getDocuments();
+                    if (!documents.isEmpty()) {
+                        lastDocument = documents.get(documents.size() - 1);
+                    }
+                    hasMore = documents.size() == pageSize; // A short page means there is nothing after it
+                    callback.onPageLoaded(results, hasMore);
+                })
+                .addOnFailureListener(e -> {
+                    loading = false;
+                    callback.onError(e);
+                });
+    }
+}
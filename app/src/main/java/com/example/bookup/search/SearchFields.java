@@ -0,0 +1,38 @@
+package com.example.bookup.search;
+
+import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.models.Tutor;
+
+import java.util.List;
+
+/**
+ * The searchable text fields of each searchable model, shared by both search modes: the local
+ * {@link SearchIndex} and the {@link SearchTokens} stored for server-side search index the same
+ * fields, so a query finds the same documents either way.
+ *
+ * The position of a field is what {@link SearchIndex} weights it by.
+ */
+public final class SearchFields {
+
+    private SearchFields() {
+        // Utility class
+    }
+
+    public static String[] material(StudyMaterial material) {
+        return new String[]{material.getTitle(), material.getSubject(), material.getDescription(),
+                material.getMaterialType(), material.getUploaderName()};
+    }
+
+    // Name and bio first, then one field per subject
+    public static String[] tutor(Tutor tutor) {
+        List<String> subjects = tutor.getSubjects();
+        int subjectCount = subjects != null ? subjects.size() : 0;
+        String[] fields = new String[2 + subjectCount];
+        fields[0] = tutor.getName();
+        fields[1] = tutor.getBio();
+        for (int i = 0; i < subjectCount; i++) {
+            fields[2 + i] = subjects.get(i);
+        }
+        return fields;
+    }
+}
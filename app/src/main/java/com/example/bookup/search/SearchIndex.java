@@ -0,0 +1,211 @@
+package com.example.bookup.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory n-gram inverted index used for client-side search.
+ *
+ * Every searchable field is lowercased and split into 1-, 2- and 3-character grams. A query is
+ * answered by intersecting the posting lists of its grams, so only documents that can actually
+ * contain the query are checked with {@code contains}. Documents are added, replaced or removed
+ * one at a time, so the index can follow Firestore document changes without rebuilding.
+ *
+ * This class is not thread-safe. Callers must confine all updates and queries to one thread
+ * (SearchFragment uses a single-thread executor for this).
+ *
+ * @param <T> The model type being indexed (e.g. StudyMaterial, Tutor).
+ */
+public class SearchIndex<T> {
+
+    private static final int MAX_GRAM_SIZE = 3;
+
+    /**
+     * Extracts the searchable text fields of an item. The position of a field in the returned
+     * array selects its weight from the weights passed to the constructor.
+     */
+    public interface FieldExtractor<T> {
+        String[] extract(T item);
+    }
+
+    private static class Entry<T> {
+        final T item;
+        final String[] fields; // Normalized (lowercased) field values, may contain nulls
+        final Set<String> grams;
+
+        Entry(T item, String[] fields, Set<String> grams) {
+            this.item = item;
+            this.fields = fields;
+            this.grams = grams;
+        }
+    }
+
+    private static class ScoredId {
+        final String id;
+        final int score;
+
+        ScoredId(String id, int score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private final FieldExtractor<T> extractor;
+    private final int[] fieldWeights;
+    private final Map<String, Entry<T>> entries = new LinkedHashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+
+    /**
+     * @param extractor    Returns the fields to index for an item.
+     * @param fieldWeights Ranking weight per field position. Fields beyond the end of this array get weight 1.
+     */
+    public SearchIndex(FieldExtractor<T> extractor, int... fieldWeights) {
+        this.extractor = extractor;
+        this.fieldWeights = fieldWeights;
+    }
+
+    /**
+     * Adds an item to the index, replacing any previous item with the same ID.
+     */
+    public void put(String id, T item) {
+        if (id == null || item == null) return;
+        remove(id);
+
+        String[] rawFields = extractor.extract(item);
+        String[] fields = new String[rawFields == null ? 0 : rawFields.length];
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = normalize(rawFields[i]);
+            if (fields[i] != null) {
+                collectGrams(fields[i], grams);
+            }
+        }
+
+        entries.put(id, new Entry<>(item, fields, grams));
+        for (String gram : grams) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) {
+                ids = new LinkedHashSet<>();
+                postings.put(gram, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    /**
+     * Removes the item with the given ID, if present.
+     */
+    public void remove(String id) {
+        Entry<T> entry = entries.remove(id);
+        if (entry == null) return;
+        for (String gram : entry.grams) {
+            Set<String> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        postings.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the items whose fields contain the query, best matches first.
+     * A field that starts with the query counts double. Verification of candidates stops once
+     * the time budget is spent, so a very broad query returns a partial (but still ranked) result.
+     *
+     * @param query        The raw search text.
+     * @param maxResults   Maximum number of items to return.
+     * @param budgetMillis Time budget for candidate verification.
+     * @return The ranked matches, or an empty list for an empty query.
+     */
+    public List<T> search(String query, int maxResults, long budgetMillis) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery == null || normalizedQuery.isEmpty() || entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<String> candidates = findCandidates(normalizedQuery);
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        List<ScoredId> matches = new ArrayList<>();
+        for (String id : candidates) {
+            if (System.nanoTime() > deadline) break;
+            int score = score(entries.get(id), normalizedQuery);
+            if (score > 0) {
+                matches.add(new ScoredId(id, score));
+            }
+        }
+
+        // Stable sort, so equally scored items keep their insertion order
+        Collections.sort(matches, (a, b) -> Integer.compare(b.score, a.score));
+
+        List<T> results = new ArrayList<>(Math.min(matches.size(), maxResults));
+        for (int i = 0; i < matches.size() && i < maxResults; i++) {
+            results.add(entries.get(matches.get(i).id).item);
+        }
+        return results;
+    }
+
+    // Intersects the posting lists of the query grams, smallest list first
+    private Set<String> findCandidates(String normalizedQuery) {
+        int gramSize = Math.min(MAX_GRAM_SIZE, normalizedQuery.length());
+        List<Set<String>> lists = new ArrayList<>();
+        for (int i = 0; i + gramSize <= normalizedQuery.length(); i++) {
+            Set<String> ids = postings.get(normalizedQuery.substring(i, i + gramSize));
+            if (ids == null) {
+                return Collections.emptySet(); // A gram nobody has means no document can match
+            }
+            lists.add(ids);
+        }
+        Collections.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        Set<String> candidates = new LinkedHashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+        return candidates;
+    }
+
+    private int score(Entry<T> entry, String normalizedQuery) {
+        int score = 0;
+        for (int i = 0; i < entry.fields.length; i++) {
+            String field = entry.fields[i];
+            if (field == null || !field.contains(normalizedQuery)) continue;
+            int weight = i < fieldWeights.length ? fieldWeights[i] : 1;
+            score += field.startsWith(normalizedQuery) ? weight * 2 : weight;
+        }
+        return score;
+    }
+
+    private static void collectGrams(String text, Set<String> out) {
+        for (int size = 1; size <= MAX_GRAM_SIZE; size++) {
+            for (int i = 0; i + size <= text.length(); i++) {
+                out.add(text.substring(i, i + size));
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? null : text.toLowerCase(Locale.getDefault()).trim();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bookup.search;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.bookup.models.StudyMaterial;
+import com.example.bookup.models.Tutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the current search results, shared between SearchFragment (which produces them)
+ * and the result fragments in its ViewPager (which observe them).
+ *
+ * Scoped to SearchFragment, so results survive tab switches and page recreation.
+ * Published lists are unmodifiable snapshots.
+ */
+public class SearchResultsViewModel extends ViewModel {
+
+    private final MutableLiveData<List<StudyMaterial>> materialResults = new MutableLiveData<>(Collections.emptyList());
+    private final MutableLiveData<List<Tutor>> tutorResults = new MutableLiveData<>(Collections.emptyList());
+
+    public LiveData<List<StudyMaterial>> getMaterialResults() {
+        return materialResults;
+    }
+
+    public LiveData<List<Tutor>> getTutorResults() {
+        return tutorResults;
+    }
+
+    // Must be called on the main thread
+    public void setMaterialResults(List<StudyMaterial> materials) {
+        materialResults.setValue(Collections.unmodifiableList(new ArrayList<>(materials)));
+    }
+
+    // Must be called on the main thread
+    public void setTutorResults(List<Tutor> tutors) {
+        tutorResults.setValue(Collections.unmodifiableList(new ArrayList<>(tutors)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bookup.search;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.Collections;
+
+/**
+ * The app-wide choice between local and server-side search, stored in {@code appConfig/search}.
+ *
+ * Server-side search only finds documents that have {@link SearchTokens}, so
+ * {@link SearchTokensBackfill} turns it on once every document has them. Admins can also switch it
+ * in AppSettingsActivity. The last value read is kept in SharedPreferences and used when the
+ * setting cannot be read, e.g. offline.
+ */
+public final class SearchSettings {
+
+    private static final String TAG = "SearchSettings";
+
+    static final String FIELD_SERVER_SIDE_SEARCH = "serverSideSearch";
+
+    // The file the deprecated default SharedPreferences used, so a flag set there before still applies
+    private static final String PREFS_NAME = "com.example.bookup_preferences";
+    private static final String PREF_SERVER_SIDE_SEARCH = "server_side_search";
+
+    private SearchSettings() {
+        // Utility class
+    }
+
+    private static DocumentReference document(FirebaseFirestore db) {
+        return db.collection("appConfig").document("search");
+    }
+
+    /**
+     * @return Whether server-side search is on. Never fails: if the setting cannot be read, the
+     * last value read is returned, or false if there is none.
+     */
+    public static Task<Boolean> isServerSideSearch(Context context, FirebaseFirestore db) {
+        SharedPreferences preferences = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        boolean lastKnown = preferences.getBoolean(PREF_SERVER_SIDE_SEARCH, false);
+        return document(db).get().continueWith(task -> {
+            if (!task.isSuccessful()) {
+                Log.w(TAG, "Could not read the search mode, using the last known one", task.getException());
+                return lastKnown;
+            }
+            boolean enabled = Boolean.TRUE.equals(task.getResult().getBoolean(FIELD_SERVER_SIDE_SEARCH));
+            if (enabled != lastKnown) {
+                preferences.edit().putBoolean(PREF_SERVER_SIDE_SEARCH, enabled).apply();
+            }
+            return enabled;
+        });
+    }
+
+    /**
+     * Switches the search mode of every client, from their next search screen on. Admins only.
+     */
+    public static Task<Void> setServerSideSearch(FirebaseFirestore db, boolean enabled) {
+        return document(db).set(Collections.singletonMap(FIELD_SERVER_SIDE_SEARCH, enabled), SetOptions.merge());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bookup.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Builds the precomputed {@code searchTokens} array stored on searchable documents
+ * (studyMaterials, tutors) and the matching tokens for a query.
+ *
+ * A document's tokens are every prefix of every word in its searchable fields, so a
+ * single {@code whereArrayContains("searchTokens", token)} query finds all documents
+ * with a word starting with the typed text. Documents are tokenized from their
+ * {@link SearchFields}, the same fields the local {@link SearchIndex} searches; documents written
+ * without tokens get them from {@link SearchTokensBackfill}.
+ */
+public final class SearchTokens {
+
+    public static final String FIELD = "searchTokens";
+
+    // Longer prefixes add array entries without making queries any more selective
+    private static final int MAX_TOKEN_LENGTH = 15;
+
+    private SearchTokens() {
+        // Utility class
+    }
+
+    /**
+     * @param fields The searchable field values; nulls are skipped.
+     * @return The distinct word prefixes of all fields, to be stored under {@link #FIELD}.
+     */
+    public static List<String> forFields(String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            for (String word : words(field)) {
+                for (int length = 1; length <= Math.min(word.length(), MAX_TOKEN_LENGTH); length++) {
+                    tokens.add(word.substring(0, length));
+                }
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * @param query The raw search text.
+     * @return One token per query word, in the same form as the stored tokens. Empty for a blank query.
+     */
+    public static List<String> forQuery(String query) {
+        List<String> tokens = new ArrayList<>();
+        for (String word : words(query)) {
+            tokens.add(word.length() > MAX_TOKEN_LENGTH ? word.substring(0, MAX_TOKEN_LENGTH) : word);
+        }
+        return tokens;
+    }
+
+    /**
+     * @return The longest (most selective) of the given query tokens, used as the server-side filter.
+     */
+    public static String mostSelective(List<String> queryTokens) {
+        String best = null;
+        for (String token : queryTokens) {
+            if (best == null || token.length() > best.length()) {
+                best = token;
+            }
+        }
+        return best;
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) return words;
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
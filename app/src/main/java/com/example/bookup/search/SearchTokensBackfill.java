@@ -0,0 +1,49 @@
+package com.example.bookup.search;
+
+import com.example.bookup.models.StudyMaterialMapper;
+import com.example.bookup.models.TutorMapper;
+import com.example.bookup.query.CollectionMigration;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.List;
+
+/**
+ * Writes {@link SearchTokens#FIELD} of every study material and tutor document from its
+ * {@link SearchFields}, so server-side search also finds documents written before the tokens
+ * existed (or by the backend, which writes tutors without them).
+ *
+ * Documents whose tokens are already current are not written, so it can be re-run whenever
+ * searchable fields changed (see {@link CollectionMigration}).
+ */
+public final class SearchTokensBackfill {
+
+    private SearchTokensBackfill() {
+        // Utility class
+    }
+
+    /**
+     * Once every document has its tokens, turns server-side search on for all clients
+     * (see {@link SearchSettings}).
+     *
+     * @return The number of documents rewritten, materials and tutors together.
+     */
+    public static Task<Integer> run(FirebaseFirestore db) {
+        return CollectionMigration.run(db, "studyMaterials", (doc, batch) ->
+                writeTokens(doc, batch, SearchFields.material(StudyMaterialMapper.decode(doc))))
+                .onSuccessTask(materials -> CollectionMigration.run(db, "tutors", (doc, batch) ->
+                                writeTokens(doc, batch, SearchFields.tutor(TutorMapper.decode(doc))))
+                        .onSuccessTask(tutors -> SearchSettings.setServerSideSearch(db, true)
+                                .onSuccessTask(unused -> Tasks.forResult(materials + tutors))));
+    }
+
+    private static boolean writeTokens(DocumentSnapshot doc, WriteBatch batch, String[] searchFields) {
+        List<String> tokens = SearchTokens.forFields(searchFields);
+        if (tokens.equals(doc.get(SearchTokens.FIELD))) return false;
+        batch.update(doc.getReference(), SearchTokens.FIELD, tokens);
+        return true;
+    }
+}
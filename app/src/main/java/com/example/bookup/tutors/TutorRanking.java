@@ -0,0 +1,92 @@
+package com.example.bookup.tutors;
+
+import com.example.bookup.models.TutorMapper;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks tutors by a Bayesian average of their rating, stored on each tutor document as
+ * {@link #FIELD} so the top tutors are one indexed, bounded query.
+ *
+ * A plain average puts a tutor with a single 5-star review above one with hundreds of 4.8s. The
+ * Bayesian average adds {@link #PRIOR_REVIEWS} imaginary reviews of {@link #PRIOR_RATING}, so a
+ * rating only moves away from the prior as reviews accumulate.
+ *
+ * Tutor ratings are written by the backend, which has to write {@link #FIELD} from
+ * {@link #score} along with them; {@link TutorRankingBackfill} brings existing documents up to
+ * date. Until it has run, {@link #topTutors} also ranks the best-rated tutors without a score.
+ */
+public final class TutorRanking {
+
+    public static final String FIELD = "rankScore";
+
+    static final double PRIOR_RATING = 3.5;
+    static final int PRIOR_REVIEWS = 5;
+
+    private TutorRanking() {
+        // Utility class
+    }
+
+    public static double score(double rating, long reviewCount) {
+        long reviews = Math.max(0, reviewCount);
+        return (PRIOR_RATING * PRIOR_REVIEWS + rating * reviews) / (PRIOR_REVIEWS + reviews);
+    }
+
+    /**
+     * @return The score of a tutor document computed from its rating and review count.
+     */
+    static double computedScore(DocumentSnapshot document) {
+        Double rating = document.getDouble(TutorMapper.RATING);
+        Long reviewCount = document.getLong(TutorMapper.REVIEW_COUNT);
+        return score(rating != null ? rating : 0, reviewCount != null ? reviewCount : 0);
+    }
+
+    /**
+     * Reads the highest ranked tutors, best first.
+     *
+     * The ranked query is served by Firestore's automatic single-field index, but leaves out
+     * tutors without a stored score. Those are covered by the best-rated tutors read alongside it,
+     * which are ranked by their computed score; tutors with neither a score nor a rating are not
+     * listed.
+     */
+    public static Task<List<DocumentSnapshot>> topTutors(FirebaseFirestore db, int limit) {
+        Task<QuerySnapshot> ranked = db.collection("tutors")
+                .orderBy(FIELD, Query.Direction.DESCENDING)
+                .limit(limit)
+                .get();
+        Task<QuerySnapshot> rated = db.collection("tutors")
+                .orderBy(TutorMapper.RATING, Query.Direction.DESCENDING)
+                .limit(limit)
+                .get();
+        return Tasks.whenAllSuccess(ranked, rated).continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            Map<String, DocumentSnapshot> candidates = new LinkedHashMap<>();
+            for (DocumentSnapshot document : ranked.getResult().getDocuments()) {
+                candidates.put(document.getId(), document);
+            }
+            for (DocumentSnapshot document : rated.getResult().getDocuments()) {
+                if (!candidates.containsKey(document.getId())) candidates.put(document.getId(), document);
+            }
+
+            List<DocumentSnapshot> top = new ArrayList<>(candidates.values());
+            Collections.sort(top, (a, b) -> Double.compare(rankScore(b), rankScore(a)));
+            return Collections.unmodifiableList(top.subList(0, Math.min(limit, top.size())));
+        });
+    }
+
+    // The stored score, or the computed one for tutors the backfill has not reached yet
+    private static double rankScore(DocumentSnapshot document) {
+        Double stored = document.getDouble(FIELD);
+        return stored != null ? stored : computedScore(document);
+    }
+}
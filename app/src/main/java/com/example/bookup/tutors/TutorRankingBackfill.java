@@ -0,0 +1,31 @@
+package com.example.bookup.tutors;
+
+import com.example.bookup.query.CollectionMigration;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * Recomputes {@link TutorRanking#FIELD} of every tutor document from its rating and review count.
+ *
+ * Documents whose score is already current are not written, so it can be re-run whenever
+ * ratings changed (see {@link CollectionMigration}).
+ */
+public final class TutorRankingBackfill {
+
+    private TutorRankingBackfill() {
+        // Utility class
+    }
+
+    /**
+     * @return The number of documents rewritten.
+     */
+    public static Task<Integer> run(FirebaseFirestore db) {
+        return CollectionMigration.run(db, "tutors", (doc, batch) -> {
+            double score = TutorRanking.computedScore(doc);
+            Double stored = doc.getDouble(TutorRanking.FIELD);
+            if (stored != null && stored == score) return false;
+            batch.update(doc.getReference(), TutorRanking.FIELD, score);
+            return true;
+        });
+    }
+}
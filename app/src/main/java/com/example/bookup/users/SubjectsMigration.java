@@ -0,0 +1,36 @@
+package com.example.bookup.users;
+
+import com.example.bookup.query.CollectionMigration;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * Rewrites the {@code subjects} field of every user document into the canonical shape
+ * (see {@link UserSubjects}).
+ *
+ * Documents already in canonical shape are not written, so the migration can be re-run safely,
+ * e.g. after an interruption (see {@link CollectionMigration}).
+ */
+public final class SubjectsMigration {
+
+    private SubjectsMigration() {
+        // Utility class
+    }
+
+    /**
+     * @return The number of documents rewritten.
+     */
+    public static Task<Integer> run(FirebaseFirestore db) {
+        return run(db, "users");
+    }
+
+    // Tests run it on a collection of their own
+    static Task<Integer> run(FirebaseFirestore db, String collection) {
+        return CollectionMigration.run(db, collection, (doc, batch) -> {
+            Object raw = doc.get(UserSubjects.FIELD);
+            if (UserSubjects.isCanonical(raw)) return false;
+            batch.update(doc.getReference(), UserSubjects.FIELD, UserSubjects.decode(raw));
+            return true;
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bookup.users;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.List;
+
+/**
+ * Typed, read-only view of a {@code users/{uid}} document.
+ */
+public class UserProfile {
+
+    private final DocumentSnapshot snapshot;
+
+    UserProfile(DocumentSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public String getUid() {
+        return snapshot.getId();
+    }
+
+    /**
+     * @return False if the user has no profile document (yet), in which case every field is null.
+     */
+    public boolean exists() {
+        return snapshot.exists();
+    }
+
+    @Nullable
+    public String getString(String field) {
+        return snapshot.getString(field);
+    }
+
+    @Nullable
+    public Boolean getBoolean(String field) {
+        return snapshot.getBoolean(field);
+    }
+
+    @Nullable
+    public String getName() {
+        return snapshot.getString("name");
+    }
+
+    public boolean isTutor() {
+        return Boolean.TRUE.equals(snapshot.getBoolean("isTutor"));
+    }
+
+    public boolean isAdmin() {
+        return Boolean.TRUE.equals(snapshot.getBoolean("isAdmin"));
+    }
+
+    public boolean isSharingLocation() {
+        return Boolean.TRUE.equals(snapshot.getBoolean("shareLocation"));
+    }
+
+    /**
+     * @return The user's selected subjects, sorted (see {@link UserSubjects}).
+     */
+    public List<String> getSubjects() {
+        return UserSubjects.decode(snapshot.get(UserSubjects.FIELD));
+    }
+}
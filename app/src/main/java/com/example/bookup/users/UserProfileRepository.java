@@ -0,0 +1,136 @@
+package com.example.bookup.users;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * App-wide access to the signed-in user's {@code users/{uid}} document.
+ *
+ * The document is read through a single snapshot listener, started on first use and kept until
+ * the user signs out, so every screen shares one copy that stays current (including the
+ * screen's own writes). Firestore's persistent cache serves as the disk layer: a cached copy is
+ * delivered right away, then replaced by the server's. After the first load,
+ * {@link #getCachedProfile()} answers synchronously.
+ * Must be used on the main thread.
+ */
+public class UserProfileRepository {
+
+    private static final String TAG = "UserProfileRepository";
+
+    private static UserProfileRepository instance;
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final FirebaseAuth auth = FirebaseAuth.getInstance();
+    private final List<TaskCompletionSource<UserProfile>> pendingLoads = new ArrayList<>();
+    private String uid; // Whose document is listened to
+    private ListenerRegistration registration;
+    private UserProfile profile;
+
+    public static synchronized UserProfileRepository getInstance() {
+        if (instance == null) {
+            instance = new UserProfileRepository();
+        }
+        return instance;
+    }
+
+    private UserProfileRepository() {
+        auth.addAuthStateListener(firebaseAuth -> {
+            FirebaseUser user = firebaseAuth.getCurrentUser();
+            if (user == null || !user.getUid().equals(uid)) {
+                reset(); // Signed out or switched accounts
+            }
+        });
+    }
+
+    /**
+     * @return The signed-in user's profile if it was loaded already, otherwise null.
+     */
+    @Nullable
+    public UserProfile getCachedProfile() {
+        FirebaseUser user = auth.getCurrentUser();
+        return user != null && user.getUid().equals(uid) ? profile : null;
+    }
+
+    /**
+     * @return The signed-in user's profile; completes immediately once it was loaded.
+     */
+    public Task<UserProfile> getProfile() {
+        FirebaseUser user = auth.getCurrentUser();
+        if (user == null) {
+            return Tasks.forException(new IllegalStateException("No signed-in user."));
+        }
+        if (!user.getUid().equals(uid)) {
+            reset();
+        }
+        if (profile != null) {
+            return Tasks.forResult(profile);
+        }
+
+        TaskCompletionSource<UserProfile> load = new TaskCompletionSource<>();
+        pendingLoads.add(load);
+        startListening(user.getUid());
+        return load.getTask();
+    }
+
+    private void startListening(String userId) {
+        if (registration != null) return;
+        uid = userId;
+        registration = db.collection("users").document(userId).addSnapshotListener((snapshot, e) -> {
+            if (e != null) {
+                Log.e(TAG, "Listen failed for user profile: " + e.getMessage(), e);
+                registration = null; // Firestore ends a failed listener; the next request starts a new one
+                List<TaskCompletionSource<UserProfile>> loads = new ArrayList<>(pendingLoads);
+                pendingLoads.clear();
+                for (TaskCompletionSource<UserProfile> load : loads) {
+                    load.trySetException(e);
+                }
+                return;
+            }
+            // A document missing from the cache may still exist on the server
+            if (snapshot == null || (!snapshot.exists() && snapshot.getMetadata().isFromCache())) return;
+
+            profile = new UserProfile(snapshot);
+            migrateSubjectsIfNeeded(snapshot);
+            List<TaskCompletionSource<UserProfile>> loads = new ArrayList<>(pendingLoads);
+            pendingLoads.clear();
+            for (TaskCompletionSource<UserProfile> load : loads) {
+                load.trySetResult(profile);
+            }
+        });
+    }
+
+    // The signed-in user's own document is migrated as soon as it is read, without waiting for SubjectsMigration
+    private void migrateSubjectsIfNeeded(DocumentSnapshot snapshot) {
+        if (!snapshot.exists() || snapshot.getMetadata().hasPendingWrites()) return;
+        Object subjects = snapshot.get(UserSubjects.FIELD);
+        if (UserSubjects.isCanonical(subjects)) return;
+        snapshot.getReference().update(UserSubjects.FIELD, UserSubjects.decode(subjects))
+                .addOnFailureListener(e -> Log.e(TAG, "Error migrating subjects: " + e.getMessage()));
+    }
+
+    private void reset() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        uid = null;
+        profile = null;
+        for (TaskCompletionSource<UserProfile> load : pendingLoads) {
+            load.trySetException(new IllegalStateException("The signed-in user changed."));
+        }
+        pendingLoads.clear();
+    }
+}
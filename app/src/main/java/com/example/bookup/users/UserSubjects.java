@@ -0,0 +1,97 @@
+package com.example.bookup.users;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Encodes and decodes the {@code subjects} field of user documents.
+ *
+ * The canonical shape is an array of trimmed subject names, distinct ignoring case, in
+ * case-insensitive order. Names are matched case-sensitively against the subjects of requests,
+ * materials and tutors, so a name is spelled as in {@link #CATALOGUE}, or else as first given; which can be passed straight to
+ * {@code whereArrayContains}/{@code whereArrayContainsAny} and compared cheaply. Older documents
+ * hold a map of subject name to "selected" flag, a single or comma-separated string, or an
+ * unsorted list; those are rewritten by {@link SubjectsMigration}, and decoded here until they are.
+ */
+public final class UserSubjects {
+
+    public static final String FIELD = "subjects";
+
+    /**
+     * The subjects users can choose from.
+     */
+    public static final List<String> CATALOGUE = Collections.unmodifiableList(Arrays.asList(
+            "Mathematics", "Algebra", "Calculus", "Geometry", "Statistics",
+            "Physics", "Mechanics", "Thermodynamics", "Electromagnetism", "Quantum Physics",
+            "Chemistry", "Organic Chemistry", "Inorganic Chemistry", "Biochemistry", "Physical Chemistry",
+            "Biology", "Genetics", "Ecology", "Anatomy", "Physiology",
+            "Computer Science", "Programming", "Data Structures", "Algorithms", "Web Development",
+            "History", "World History", "European History", "American History", "Ancient Civilizations",
+            "English", "Literature", "Writing", "Grammar", "Creative Writing",
+            "Economics", "Microeconomics", "Macroeconomics", "Econometrics",
+            "Psychology", "Cognitive Psychology", "Social Psychology", "Developmental Psychology",
+            "Philosophy", "Ethics", "Logic", "Metaphysics",
+            "Art History", "Music Theory", "Political Science", "Sociology", "Environmental Science"
+    ));
+
+    private UserSubjects() {
+        // Utility class
+    }
+
+    /**
+     * @return The canonical value to store for the given subjects.
+     */
+    public static List<String> encode(Collection<String> subjects) {
+        // A TreeSet keeps the first of equal elements, so catalogue spellings go in first
+        Set<String> given = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String subject : subjects) {
+            String name = subject != null ? subject.trim() : "";
+            if (!name.isEmpty()) given.add(name);
+        }
+        Set<String> distinct = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : CATALOGUE) {
+            if (given.contains(name)) distinct.add(name);
+        }
+        distinct.addAll(given);
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * @param raw The stored field value, in any of its shapes; may be null.
+     * @return The subject names, in canonical order.
+     */
+    public static List<String> decode(@Nullable Object raw) {
+        List<String> subjects = new ArrayList<>();
+        if (raw instanceof List) {
+            for (Object item : (List<?>) raw) {
+                if (item instanceof String) {
+                    subjects.add((String) item);
+                }
+            }
+        } else if (raw instanceof String) { // Legacy: one subject, or several separated by commas
+            subjects.addAll(Arrays.asList(((String) raw).split(",")));
+        } else if (raw instanceof Map) { // Legacy: subject name -> selected
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) raw).entrySet()) {
+                if (entry.getKey() instanceof String && Boolean.TRUE.equals(entry.getValue())) {
+                    subjects.add((String) entry.getKey());
+                }
+            }
+        }
+        return encode(subjects);
+    }
+
+    /**
+     * @return True if the stored value is missing or already in canonical shape.
+     */
+    public static boolean isCanonical(@Nullable Object raw) {
+        return raw == null || (raw instanceof List && raw.equals(decode(raw)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bookup.adapters;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class StableIdsTest {
+
+    @Test
+    public void forDocumentId_nullHasNoId() {
+        assertEquals(RecyclerView.NO_ID, StableIds.forDocumentId(null));
+    }
+
+    @Test
+    public void forDocumentId_isFnv1a() {
+        // Published FNV-1a 64-bit test vectors
+        assertEquals(0xcbf29ce484222325L, StableIds.forDocumentId(""));
+        assertEquals(0xaf63dc4c8601ec8cL, StableIds.forDocumentId("a"));
+        assertEquals(0x85944171f73967e8L, StableIds.forDocumentId("foobar"));
+    }
+
+    @Test
+    public void forDocumentId_isStableAndSpread() {
+        assertEquals(StableIds.forDocumentId("Xy12abc"), StableIds.forDocumentId("Xy12abc"));
+        assertNotEquals(StableIds.forDocumentId("ab"), StableIds.forDocumentId("ba"));
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(StableIds.forDocumentId("doc" + i));
+        }
+        assertEquals(10_000, ids.size());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.bookup.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ChatChannelTest {
+
+    @Test
+    public void directChannelId_isTheSameForBothParticipants() {
+        assertEquals("alice_bob", ChatChannel.directChannelId("alice", "bob"));
+        assertEquals("alice_bob", ChatChannel.directChannelId("bob", "alice"));
+    }
+
+    @Test
+    public void directChannelId_ordersByCodePoint() {
+        // Firebase UIDs are mixed case; upper case sorts first
+        assertEquals("Zed_abe", ChatChannel.directChannelId("abe", "Zed"));
+    }
+
+    @Test
+    public void directChannelId_differsPerPair() {
+        assertNotEquals(ChatChannel.directChannelId("a", "b"), ChatChannel.directChannelId("a", "c"));
+    }
+}
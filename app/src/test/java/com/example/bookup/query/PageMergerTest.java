@@ -0,0 +1,74 @@
+package com.example.bookup.query;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PageMergerTest {
+
+    // Items are "id:position", ordered by position like a query ordered by a field
+    private static final Comparator<String> BY_POSITION =
+            (a, b) -> Integer.compare(position(a), position(b));
+
+    private static int position(String item) {
+        return Integer.parseInt(item.substring(item.indexOf(':') + 1));
+    }
+
+    private static PageMerger<String> newMerger() {
+        return new PageMerger<>(BY_POSITION, item -> item.substring(0, item.indexOf(':')));
+    }
+
+    private static PageMerger.Source<String> source(boolean exhausted, String... items) {
+        PageMerger.Source<String> source = new PageMerger.Source<>();
+        source.buffer.addAll(Arrays.asList(items));
+        source.exhausted = exhausted;
+        return source;
+    }
+
+    @Test
+    public void merge_interleavesSourcesInOrder() {
+        List<PageMerger.Source<String>> sources = Arrays.asList(
+                source(true, "a:1", "c:3", "e:5"),
+                source(true, "b:2", "d:4"));
+        assertEquals(Arrays.asList("a:1", "b:2", "c:3", "d:4", "e:5"), newMerger().merge(sources, 10));
+    }
+
+    @Test
+    public void merge_returnsEachIdOnce() {
+        List<PageMerger.Source<String>> sources = Arrays.asList(
+                source(true, "a:1", "b:2", "c:3"),
+                source(true, "b:2", "c:3", "d:4"));
+        assertEquals(Arrays.asList("a:1", "b:2", "c:3", "d:4"), newMerger().merge(sources, 10));
+    }
+
+    @Test
+    public void merge_continuesAcrossPagesWithoutRepeats() {
+        PageMerger<String> merger = newMerger();
+        List<PageMerger.Source<String>> sources = Arrays.asList(
+                source(true, "a:1", "b:2", "c:3"),
+                source(true, "a:1", "d:4"));
+        assertEquals(Arrays.asList("a:1", "b:2"), merger.merge(sources, 2));
+        assertEquals(Arrays.asList("c:3", "d:4"), merger.merge(sources, 2));
+        assertEquals(Collections.emptyList(), merger.merge(sources, 2));
+    }
+
+    @Test
+    public void merge_stopsWhenAnUnfinishedSourceRunsDry() {
+        List<PageMerger.Source<String>> sources = Arrays.asList(
+                source(false, "a:1", "c:3"),
+                source(true, "b:2", "d:4", "e:5"));
+        // The first source's next item may come before d:4, so the page ends after c:3
+        assertEquals(Arrays.asList("a:1", "b:2", "c:3"), newMerger().merge(sources, 10));
+        assertEquals(Arrays.asList("d:4", "e:5"), Arrays.asList(sources.get(1).buffer.toArray()));
+    }
+
+    @Test
+    public void merge_withoutSourcesIsEmpty() {
+        assertEquals(Collections.emptyList(), newMerger().merge(Collections.<PageMerger.Source<String>>emptyList(), 10));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bookup.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchIndexTest {
+
+    // Items are their own fields here: title first, then description
+    private static SearchIndex<String[]> newIndex() {
+        return new SearchIndex<>(item -> item, 4, 1);
+    }
+
+    @Test
+    public void search_findsSubstringsCaseInsensitively() {
+        SearchIndex<String[]> index = newIndex();
+        String[] calculus = {"Calculus I", "Limits and derivatives"};
+        index.put("1", calculus);
+        index.put("2", new String[]{"Chemistry", "Organic reactions"});
+
+        assertEquals(Collections.singletonList(calculus), index.search("DERIV", 10, 1000));
+        assertTrue(index.search("physics", 10, 1000).isEmpty());
+    }
+
+    @Test
+    public void search_ranksByFieldWeightAndPrefix() {
+        SearchIndex<String[]> index = newIndex();
+        String[] inDescription = {"Notes", "algebra basics"};
+        String[] inTitle = {"Linear algebra", null};
+        String[] titlePrefix = {"Algebra II", null};
+        index.put("1", inDescription);
+        index.put("2", inTitle);
+        index.put("3", titlePrefix);
+
+        assertEquals(Arrays.asList(titlePrefix, inTitle, inDescription), index.search("algebra", 10, 1000));
+    }
+
+    @Test
+    public void search_capsResults() {
+        SearchIndex<String[]> index = newIndex();
+        for (int i = 0; i < 5; i++) {
+            index.put(String.valueOf(i), new String[]{"Physics " + i, null});
+        }
+        assertEquals(2, index.search("physics", 2, 1000).size());
+    }
+
+    @Test
+    public void put_replacesAndRemoveForgets() {
+        SearchIndex<String[]> index = newIndex();
+        index.put("1", new String[]{"Biology", null});
+        index.put("1", new String[]{"Geology", null});
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("bio", 10, 1000).isEmpty());
+        assertEquals(1, index.search("geo", 10, 1000).size());
+
+        index.remove("1");
+        assertEquals(0, index.size());
+        assertTrue(index.search("geo", 10, 1000).isEmpty());
+    }
+
+    @Test
+    public void search_blankQueryIsEmpty() {
+        SearchIndex<String[]> index = newIndex();
+        index.put("1", new String[]{"Biology", null});
+        assertTrue(index.search("   ", 10, 1000).isEmpty());
+    }
+}
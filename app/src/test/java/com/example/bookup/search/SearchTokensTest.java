@@ -0,0 +1,61 @@
+package com.example.bookup.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SearchTokensTest {
+
+    @Test
+    public void forFields_storesEveryPrefixOfEveryWord() {
+        assertEquals(Arrays.asList("c", "ca", "cal", "m", "ma", "mat", "math"),
+                SearchTokens.forFields("Cal", "math"));
+    }
+
+    @Test
+    public void forFields_lowercasesAndSplitsOnPunctuation() {
+        List<String> tokens = SearchTokens.forFields("Linear-Algebra: NOTES");
+        assertTrue(tokens.contains("linear"));
+        assertTrue(tokens.contains("algebra"));
+        assertTrue(tokens.contains("notes"));
+        assertFalse(tokens.contains("linear-algebra"));
+    }
+
+    @Test
+    public void forFields_skipsNullsAndDuplicates() {
+        assertEquals(Arrays.asList("a", "ab"), SearchTokens.forFields(null, "ab", "AB a"));
+    }
+
+    @Test
+    public void forFields_capsPrefixLength() {
+        List<String> tokens = SearchTokens.forFields("electroencephalography");
+        assertEquals(15, tokens.size());
+        assertEquals("electroencephal", tokens.get(tokens.size() - 1));
+    }
+
+    @Test
+    public void forQuery_matchesStoredTokens() {
+        List<String> stored = SearchTokens.forFields("Electroencephalography Basics");
+        for (String token : SearchTokens.forQuery("  ELECTROENCEPHALOGRAPHY bas ")) {
+            assertTrue(token, stored.contains(token));
+        }
+    }
+
+    @Test
+    public void forQuery_blankIsEmpty() {
+        assertEquals(Collections.emptyList(), SearchTokens.forQuery("  ,. "));
+    }
+
+    @Test
+    public void mostSelective_isLongestToken() {
+        assertEquals("calculus", SearchTokens.mostSelective(Arrays.asList("to", "calculus", "ii")));
+        assertNull(SearchTokens.mostSelective(Collections.emptyList()));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bookup.tutors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TutorRankingTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void score_withoutReviewsIsThePrior() {
+        assertEquals(TutorRanking.PRIOR_RATING, TutorRanking.score(0, 0), DELTA);
+        assertEquals(TutorRanking.PRIOR_RATING, TutorRanking.score(5, 0), DELTA);
+    }
+
+    @Test
+    public void score_negativeReviewCountCountsAsNone() {
+        assertEquals(TutorRanking.PRIOR_RATING, TutorRanking.score(5, -3), DELTA);
+    }
+
+    @Test
+    public void score_isTheBayesianAverage() {
+        // (3.5 * 5 + 4.5 * 15) / 20
+        assertEquals(4.25, TutorRanking.score(4.5, 15), DELTA);
+    }
+
+    @Test
+    public void score_approachesTheRatingWithManyReviews() {
+        assertEquals(4.8, TutorRanking.score(4.8, 1_000_000), 1e-5);
+    }
+
+    @Test
+    public void score_manyGoodReviewsBeatOnePerfectOne() {
+        assertTrue(TutorRanking.score(4.8, 200) > TutorRanking.score(5, 1));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bookup.users;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UserSubjectsTest {
+
+    @Test
+    public void decode_missingIsEmpty() {
+        assertEquals(Collections.emptyList(), UserSubjects.decode(null));
+    }
+
+    @Test
+    public void decode_singleString() {
+        assertEquals(Collections.singletonList("Physics"), UserSubjects.decode(" Physics "));
+    }
+
+    @Test
+    public void decode_commaSeparatedString() {
+        assertEquals(Arrays.asList("Biology", "Chemistry", "Math"), UserSubjects.decode("Math, Biology,,Chemistry "));
+    }
+
+    @Test
+    public void decode_mapKeepsSelectedSubjectsOnly() {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("Math", true);
+        raw.put("History", false);
+        raw.put("Art", true);
+        raw.put("Music", "yes"); // Not a flag
+        assertEquals(Arrays.asList("Art", "Math"), UserSubjects.decode(raw));
+    }
+
+    @Test
+    public void decode_listSkipsNonStrings() {
+        assertEquals(Arrays.asList("Art", "Math"), UserSubjects.decode(Arrays.asList("Math", 3, null, "Art")));
+    }
+
+    @Test
+    public void decode_mixedCaseDuplicatesKeepTheFirstSpelling() {
+        assertEquals(Arrays.asList("Intro to Math"),
+                UserSubjects.decode(Arrays.asList("Intro to Math", "intro to math", "INTRO TO MATH")));
+        assertEquals(Arrays.asList("intro to math"),
+                UserSubjects.decode(Arrays.asList("intro to math", "Intro to Math")));
+    }
+
+    @Test
+    public void decode_mixedCaseDuplicatesKeepTheCatalogueSpelling() {
+        assertEquals(Arrays.asList("Biology", "Computer Science"),
+                UserSubjects.decode(Arrays.asList("BIOLOGY", "computer science", "biology")));
+        assertEquals(Arrays.asList("Mathematics"), UserSubjects.decode("mathematics, MATHEMATICS"));
+    }
+
+    @Test
+    public void encode_ordersIgnoringCase() {
+        assertEquals(Arrays.asList("art", "Biology", "zoology"),
+                UserSubjects.encode(Arrays.asList("zoology", "Biology", "art")));
+    }
+
+    @Test
+    public void isCanonical_onlyForDecodedLists() {
+        assertTrue(UserSubjects.isCanonical(null));
+        assertTrue(UserSubjects.isCanonical(Arrays.asList("Art", "Math")));
+        assertFalse(UserSubjects.isCanonical(Arrays.asList("Math", "Art")));
+        assertFalse(UserSubjects.isCanonical(Arrays.asList("Math", "math")));
+        assertFalse(UserSubjects.isCanonical(Arrays.asList("biology")));
+        assertFalse(UserSubjects.isCanonical("Math"));
+        assertFalse(UserSubjects.isCanonical(Collections.singletonMap("Math", true)));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bookup.mapper;
+
+/**
+ * The field types a mapper can store, each read with the FirestoreFields method of the same name.
+ */
+enum FieldKind {
+    STRING("string"),
+    INT("intValue"),
+    LONG("longValue"),
+    DOUBLE("doubleValue"),
+    BOOLEAN("booleanValue"),
+    DATE("date"),
+    STRING_LIST("stringList"),
+    STRING_MAP("stringMap");
+
+    final String reader;
+
+    FieldKind(String reader) {
+        this.reader = reader;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bookup.mapper;
+
+/**
+ * One stored field of a model and how the mapper reaches it.
+ */
+final class MappedField {
+
+    final String storedName;
+    final String legacyName; // Null if it never had another name
+    final FieldKind kind;
+    final boolean documentId;
+    final boolean serverTimestamp;
+    final String getter;
+    final String setter;
+
+    final String constant;
+    final String legacyConstant;
+
+    MappedField(String storedName, String legacyName, FieldKind kind, boolean documentId,
+                boolean serverTimestamp, String getter, String setter) {
+        this.storedName = storedName;
+        this.legacyName = legacyName;
+        this.kind = kind;
+        this.documentId = documentId;
+        this.serverTimestamp = serverTimestamp;
+        this.getter = getter;
+        this.setter = setter;
+        this.constant = constantName(storedName);
+        this.legacyConstant = legacyName != null ? "LEGACY_" + constantName(legacyName) : null;
+    }
+
+    /**
+     * @return The constant for a stored name, e.g. {@code PROFILE_IMAGE_URL} for {@code profileImageUrl}.
+     */
+    static String constantName(String storedName) {
+        StringBuilder constant = new StringBuilder(storedName.length() + 4);
+        for (int i = 0; i < storedName.length(); i++) {
+            char c = storedName.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(storedName.charAt(i - 1))) {
+                constant.append('_');
+            }
+            constant.append(Character.toUpperCase(c));
+        }
+        return constant.toString();
+    }
+}
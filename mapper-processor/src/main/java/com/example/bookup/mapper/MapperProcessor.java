@@ -0,0 +1,265 @@
+package com.example.bookup.mapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the {@code <Model>Mapper} of every class annotated with
+ * {@code com.example.bookup.models.FirestoreModel}, which documents the mapping rules.
+ *
+ * The annotations are matched by name, so this module does not depend on the app or on Firestore.
+ * Each mapper is generated from its model alone, which makes the processor isolating for Gradle's
+ * incremental compilation.
+ */
+@SupportedAnnotationTypes(MapperProcessor.FIRESTORE_MODEL)
+public class MapperProcessor extends AbstractProcessor {
+
+    static final String FIRESTORE_MODEL = "com.example.bookup.models.FirestoreModel";
+    static final String LEGACY_NAME = "com.example.bookup.models.LegacyName";
+    static final String DOCUMENT_ID = "com.google.firebase.firestore.DocumentId";
+    static final String SERVER_TIMESTAMP = "com.google.firebase.firestore.ServerTimestamp";
+    static final String EXCLUDE = "com.google.firebase.firestore.Exclude";
+    static final String PROPERTY_NAME = "com.google.firebase.firestore.PropertyName";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@FirestoreModel only applies to classes");
+                    continue;
+                }
+                TypeElement model = (TypeElement) element;
+                try {
+                    requireNoArgConstructor(model);
+                    write(model, new MapperSource(model, fieldsOf(model), encoderWanted(model)).generate());
+                } catch (InvalidModelException e) {
+                    error(e.element, e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean encoderWanted(TypeElement model) {
+        Object encoder = annotationValue(model, FIRESTORE_MODEL, "encoder");
+        return encoder == null || (Boolean) encoder;
+    }
+
+    private static void requireNoArgConstructor(TypeElement model) throws InvalidModelException {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(model.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return;
+            }
+        }
+        throw new InvalidModelException(model, model.getSimpleName() + " needs a constructor without parameters");
+    }
+
+    // The stored fields in declaration order
+    private List<MappedField> fieldsOf(TypeElement model) throws InvalidModelException {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(model.getEnclosedElements());
+        List<MappedField> fields = new ArrayList<>();
+        Set<String> constants = new HashSet<>();
+        boolean hasDocumentId = false;
+        for (VariableElement field : ElementFilter.fieldsIn(model.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)
+                    || annotation(field, EXCLUDE) != null) {
+                continue;
+            }
+
+            String fieldName = field.getSimpleName().toString();
+            Object propertyName = annotationValue(field, PROPERTY_NAME, "value");
+            String storedName = propertyName != null ? (String) propertyName : fieldName;
+            Object legacyName = annotationValue(field, LEGACY_NAME, "value");
+            boolean documentId = annotation(field, DOCUMENT_ID) != null;
+            boolean serverTimestamp = annotation(field, SERVER_TIMESTAMP) != null;
+
+            FieldKind kind = kindOf(field.asType());
+            if (kind == null) {
+                throw new InvalidModelException(field, "Unsupported field type " + field.asType()
+                        + "; mark the field @Exclude or add the type to MapperProcessor and FirestoreFields");
+            }
+            if (documentId && kind != FieldKind.STRING) {
+                throw new InvalidModelException(field, "@DocumentId fields must be Strings");
+            }
+            if (documentId && hasDocumentId) {
+                throw new InvalidModelException(field, "Only one field can be the @DocumentId");
+            }
+            if (serverTimestamp && kind != FieldKind.DATE) {
+                throw new InvalidModelException(field, "@ServerTimestamp fields must be Dates");
+            }
+            hasDocumentId |= documentId;
+
+            MappedField mapped = new MappedField(storedName, (String) legacyName, kind, documentId, serverTimestamp,
+                    getter(model, methods, field), setter(model, methods, field));
+            if (!constants.add(mapped.constant)
+                    || (mapped.legacyConstant != null && !constants.add(mapped.legacyConstant))) {
+                throw new InvalidModelException(field, "Two fields share the stored name " + storedName);
+            }
+            fields.add(mapped);
+        }
+        return fields;
+    }
+
+    private FieldKind kindOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return FieldKind.INT;
+            case LONG:
+                return FieldKind.LONG;
+            case DOUBLE:
+                return FieldKind.DOUBLE;
+            case BOOLEAN:
+                return FieldKind.BOOLEAN;
+            case DECLARED:
+                break;
+            default:
+                return null;
+        }
+        DeclaredType declared = (DeclaredType) type;
+        String name = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+        List<? extends TypeMirror> arguments = declared.getTypeArguments();
+        switch (name) {
+            case "java.lang.String":
+                return FieldKind.STRING;
+            case "java.util.Date":
+                return FieldKind.DATE;
+            case "java.util.List":
+                return arguments.size() == 1 && isString(arguments.get(0)) ? FieldKind.STRING_LIST : null;
+            case "java.util.Map":
+                return arguments.size() == 2 && isString(arguments.get(0)) && isString(arguments.get(1))
+                        ? FieldKind.STRING_MAP : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isString(TypeMirror type) {
+        return type instanceof DeclaredType
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals("java.lang.String");
+    }
+
+    // getX(), or isX() for booleans; a boolean field named isX may also use isX() itself
+    private String getter(TypeElement model, List<ExecutableElement> methods, VariableElement field)
+            throws InvalidModelException {
+        String name = field.getSimpleName().toString();
+        List<String> candidates = new ArrayList<>();
+        candidates.add("get" + capitalize(name));
+        if (kindOf(field.asType()) == FieldKind.BOOLEAN) {
+            candidates.add("is" + capitalize(name));
+            if (hasIsPrefix(name)) candidates.add(name);
+        }
+        for (ExecutableElement method : methods) {
+            if (method.getParameters().isEmpty() && isAccessible(method)
+                    && candidates.contains(method.getSimpleName().toString())) {
+                return method.getSimpleName().toString();
+            }
+        }
+        throw new InvalidModelException(field, "No getter for " + name + " in " + model.getSimpleName()
+                + "; expected one of " + candidates);
+    }
+
+    // setX(value); a boolean field named isX may also use setX without the prefix
+    private String setter(TypeElement model, List<ExecutableElement> methods, VariableElement field)
+            throws InvalidModelException {
+        String name = field.getSimpleName().toString();
+        List<String> candidates = new ArrayList<>();
+        candidates.add("set" + capitalize(name));
+        if (hasIsPrefix(name)) candidates.add("set" + name.substring(2));
+        for (ExecutableElement method : methods) {
+            if (method.getParameters().size() == 1 && isAccessible(method)
+                    && candidates.contains(method.getSimpleName().toString())
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                return method.getSimpleName().toString();
+            }
+        }
+        throw new InvalidModelException(field, "No setter for " + name + " in " + model.getSimpleName()
+                + "; expected one of " + candidates);
+    }
+
+    private static boolean isAccessible(ExecutableElement method) {
+        return !method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC);
+    }
+
+    private static boolean hasIsPrefix(String name) {
+        return name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2));
+    }
+
+    static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static AnnotationMirror annotation(Element element, String qualifiedName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(qualifiedName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    // The explicitly given value of an annotation attribute, or null (also if the annotation is absent)
+    private static Object annotationValue(Element element, String qualifiedName, String attribute) {
+        AnnotationMirror mirror = annotation(element, qualifiedName);
+        if (mirror == null) return null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private void write(TypeElement model, String source) {
+        PackageElement modelPackage = processingEnv.getElementUtils().getPackageOf(model);
+        String mapperName = modelPackage.getQualifiedName() + "." + MapperSource.mapperName(model);
+        try (Writer writer = processingEnv.getFiler().createSourceFile(mapperName, model).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            error(model, "Could not write " + mapperName + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    static class InvalidModelException extends Exception {
+        final Element element;
+
+        InvalidModelException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.bookup.mapper;
+
+import java.util.List;
+
+import javax.lang.model.element.TypeElement;
+
+/**
+ * The source of one generated mapper. Its layout follows the mappers that used to be written by
+ * hand, so the generated code reads like the rest of the app.
+ */
+final class MapperSource {
+
+    private final String packageName;
+    private final String modelName;
+    private final String variable;
+    private final List<MappedField> fields;
+    private final boolean encoder;
+
+    MapperSource(TypeElement model, List<MappedField> fields, boolean encoder) {
+        String qualifiedName = model.getQualifiedName().toString();
+        this.packageName = qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+        this.modelName = model.getSimpleName().toString();
+        this.variable = Character.toLowerCase(modelName.charAt(0)) + modelName.substring(1);
+        this.fields = fields;
+        this.encoder = encoder;
+    }
+
+    static String mapperName(TypeElement model) {
+        return model.getSimpleName() + "Mapper";
+    }
+
+    String generate() {
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import androidx.annotation.NonNull;\n\n");
+        out.append("import com.google.firebase.firestore.DocumentSnapshot;\n");
+        if (encoder) {
+            out.append("\nimport java.util.HashMap;\n");
+            out.append("import java.util.Map;\n");
+        }
+        out.append('\n');
+
+        out.append("/**\n");
+        if (encoder) {
+            out.append(" * Maps {@link ").append(modelName).append("} to and from its document without reflection.\n");
+        } else {
+            out.append(" * Maps a document to a {@link ").append(modelName).append("} without reflection.\n");
+        }
+        out.append(" * Generated from the fields of {@link ").append(modelName).append("} (see {@link FirestoreModel});\n");
+        out.append(" * change the model, not this class.\n");
+        out.append(" */\n");
+        out.append("public final class ").append(modelName).append("Mapper {\n\n");
+
+        appendConstants(out);
+
+        out.append("    private ").append(modelName).append("Mapper() {\n");
+        out.append("        // Utility class\n");
+        out.append("    }\n\n");
+
+        appendDecode(out);
+        if (encoder) {
+            out.append('\n');
+            appendEncode(out);
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void appendConstants(StringBuilder out) {
+        boolean any = false;
+        for (MappedField field : fields) {
+            if (field.documentId && !encoder) continue; // Never stored
+            out.append("    public static final String ").append(field.constant)
+                    .append(" = \"").append(field.storedName).append("\";\n");
+            any = true;
+        }
+        if (any) out.append('\n');
+
+        boolean anyLegacy = false;
+        for (MappedField field : fields) {
+            if (field.legacyName == null) continue;
+            if (!anyLegacy) {
+                out.append("    // Names older app versions stored fields under, read as a fallback\n");
+                anyLegacy = true;
+            }
+            out.append("    static final String ").append(field.legacyConstant)
+                    .append(" = \"").append(field.legacyName).append("\";\n");
+        }
+        if (anyLegacy) out.append('\n');
+    }
+
+    private void appendDecode(StringBuilder out) {
+        MappedField documentId = documentIdField();
+        out.append("    /**\n");
+        out.append("     * @return The ").append(humanName());
+        if (documentId != null) {
+            out.append(", with the document ID as its ").append(documentId.storedName);
+        }
+        out.append(".\n");
+        out.append("     */\n");
+        out.append("    public static ").append(modelName).append(" decode(@NonNull DocumentSnapshot document) {\n");
+        out.append("        ").append(modelName).append(' ').append(variable)
+                .append(" = new ").append(modelName).append("();\n");
+        for (MappedField field : fields) {
+            out.append("        ").append(variable).append('.').append(field.setter).append('(');
+            if (field.documentId) {
+                out.append("document.getId()");
+            } else {
+                out.append("FirestoreFields.").append(field.kind.reader).append("(document, ");
+                if (field.legacyName != null) {
+                    out.append("FirestoreFields.currentOrLegacy(document, ")
+                            .append(field.constant).append(", ").append(field.legacyConstant).append(')');
+                } else {
+                    out.append(field.constant);
+                }
+                out.append(')');
+            }
+            out.append(");\n");
+        }
+        out.append("        return ").append(variable).append(";\n");
+        out.append("    }\n");
+    }
+
+    private void appendEncode(StringBuilder out) {
+        out.append("    /**\n");
+        out.append("     * @return The document fields");
+        for (MappedField field : fields) {
+            if (field.serverTimestamp) {
+                out.append("; a null ").append(field.storedName).append(" is written as the server's time");
+            }
+        }
+        out.append(".\n");
+        out.append("     */\n");
+        out.append("    public static Map<String, Object> encode(@NonNull ").append(modelName)
+                .append(' ').append(variable).append(") {\n");
+        out.append("        Map<String, Object> fields = new HashMap<>();\n");
+        for (MappedField field : fields) {
+            String value = variable + "." + field.getter + "()";
+            if (field.documentId) {
+                out.append("        if (").append(value).append(" != null) fields.put(")
+                        .append(field.constant).append(", ").append(value).append(");\n");
+            } else if (field.serverTimestamp) {
+                out.append("        fields.put(").append(field.constant)
+                        .append(", FirestoreFields.serverTimestampIfNull(").append(value).append("));\n");
+            } else {
+                out.append("        fields.put(").append(field.constant).append(", ").append(value).append(");\n");
+            }
+        }
+        out.append("        return fields;\n");
+        out.append("    }\n");
+    }
+
+    private MappedField documentIdField() {
+        for (MappedField field : fields) {
+            if (field.documentId) return field;
+        }
+        return null;
+    }
+
+    // The model's name in words, e.g. "study material" for StudyMaterial
+    private String humanName() {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < modelName.length(); i++) {
+            char c = modelName.charAt(i);
+            if (i > 0 && Character.isUpperCase(c)) words.append(' ');
+            words.append(Character.toLowerCase(c));
+        }
+        return words.toString();
+    }
+}
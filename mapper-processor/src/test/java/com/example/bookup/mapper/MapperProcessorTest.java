@@ -0,0 +1,224 @@
+package com.example.bookup.mapper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MapperProcessorTest {
+
+    // Stand-ins for the app and Firestore types the processor matches by name or the mappers use
+    private static final String[][] DEPENDENCIES = {
+            {"com.example.bookup.models.FirestoreModel", "package com.example.bookup.models;\n"
+                    + "public @interface FirestoreModel { boolean encoder() default true; }"},
+            {"com.example.bookup.models.LegacyName", "package com.example.bookup.models;\n"
+                    + "public @interface LegacyName { String value(); }"},
+            {"com.google.firebase.firestore.DocumentId", "package com.google.firebase.firestore;\n"
+                    + "public @interface DocumentId {}"},
+            {"com.google.firebase.firestore.ServerTimestamp", "package com.google.firebase.firestore;\n"
+                    + "public @interface ServerTimestamp {}"},
+            {"com.google.firebase.firestore.Exclude", "package com.google.firebase.firestore;\n"
+                    + "public @interface Exclude {}"},
+            {"com.google.firebase.firestore.PropertyName", "package com.google.firebase.firestore;\n"
+                    + "public @interface PropertyName { String value(); }"},
+            {"com.google.firebase.firestore.DocumentSnapshot", "package com.google.firebase.firestore;\n"
+                    + "public class DocumentSnapshot {}"},
+            {"androidx.annotation.NonNull", "package androidx.annotation;\n"
+                    + "public @interface NonNull {}"},
+    };
+
+    private static final String HEADER = "package com.example.bookup.models;\n"
+            + "import com.google.firebase.firestore.*;\n"
+            + "import java.util.*;\n";
+
+    @Test
+    public void generatesConstantsDecoderAndEncoder() {
+        Result result = process("Material", HEADER
+                + "@FirestoreModel public class Material {\n"
+                + "    private static final long serialVersionUID = 1L;\n"
+                + "    @DocumentId private String id;\n"
+                + "    @LegacyName(\"downloadUrl\") private String fileUrl;\n"
+                + "    private int downloadCount;\n"
+                + "    @ServerTimestamp private Date timestamp;\n"
+                + "    @Exclude private boolean pending;\n"
+                + "    public String getId() { return id; }\n"
+                + "    public void setId(String id) { this.id = id; }\n"
+                + "    public String getFileUrl() { return fileUrl; }\n"
+                + "    public void setFileUrl(String fileUrl) { this.fileUrl = fileUrl; }\n"
+                + "    public int getDownloadCount() { return downloadCount; }\n"
+                + "    public void setDownloadCount(int downloadCount) { this.downloadCount = downloadCount; }\n"
+                + "    public Date getTimestamp() { return timestamp; }\n"
+                + "    public void setTimestamp(Date timestamp) { this.timestamp = timestamp; }\n"
+                + "}");
+
+        assertTrue(result.errors.toString(), result.errors.isEmpty());
+        String mapper = result.generated.get("com.example.bookup.models.MaterialMapper");
+        assertTrue(mapper.contains("public static final String ID = \"id\";"));
+        assertTrue(mapper.contains("public static final String FILE_URL = \"fileUrl\";"));
+        assertTrue(mapper.contains("public static final String DOWNLOAD_COUNT = \"downloadCount\";"));
+        assertTrue(mapper.contains("static final String LEGACY_DOWNLOAD_URL = \"downloadUrl\";"));
+        assertTrue(mapper.contains("material.setId(document.getId());"));
+        assertTrue(mapper.contains("material.setFileUrl(FirestoreFields.string(document, "
+                + "FirestoreFields.currentOrLegacy(document, FILE_URL, LEGACY_DOWNLOAD_URL)));"));
+        assertTrue(mapper.contains("material.setDownloadCount(FirestoreFields.intValue(document, DOWNLOAD_COUNT));"));
+        assertTrue(mapper.contains("if (material.getId() != null) fields.put(ID, material.getId());"));
+        assertTrue(mapper.contains("fields.put(TIMESTAMP, FirestoreFields.serverTimestampIfNull(material.getTimestamp()));"));
+        assertFalse(mapper.contains("SERIAL_VERSION_UID"));
+        assertFalse(mapper.contains("PENDING"));
+    }
+
+    @Test
+    public void readOnlyModelsGetNoEncoderAndKeepTheirAccessors() {
+        Result result = process("Teacher", HEADER
+                + "@FirestoreModel(encoder = false) public class Teacher {\n"
+                + "    @DocumentId private String uid;\n"
+                + "    private List<String> subjects;\n"
+                + "    private Map<String, String> names;\n"
+                + "    @PropertyName(\"available\") private boolean isAvailable;\n"
+                + "    private boolean isGroupChat;\n"
+                + "    public String getUid() { return uid; }\n"
+                + "    public void setUid(String uid) { this.uid = uid; }\n"
+                + "    public List<String> getSubjects() { return subjects; }\n"
+                + "    public void setSubjects(List<String> subjects) { this.subjects = subjects; }\n"
+                + "    public Map<String, String> getNames() { return names; }\n"
+                + "    public void setNames(Map<String, String> names) { this.names = names; }\n"
+                + "    public boolean isAvailable() { return isAvailable; }\n"
+                + "    public void setAvailable(boolean available) { isAvailable = available; }\n"
+                + "    public boolean getIsGroupChat() { return isGroupChat; }\n"
+                + "    public void setIsGroupChat(boolean isGroupChat) { this.isGroupChat = isGroupChat; }\n"
+                + "}");
+
+        assertTrue(result.errors.toString(), result.errors.isEmpty());
+        String mapper = result.generated.get("com.example.bookup.models.TeacherMapper");
+        assertFalse(mapper.contains("encode("));
+        assertFalse(mapper.contains("String UID"));
+        assertTrue(mapper.contains("public static final String AVAILABLE = \"available\";"));
+        assertTrue(mapper.contains("public static final String IS_GROUP_CHAT = \"isGroupChat\";"));
+        assertTrue(mapper.contains("teacher.setSubjects(FirestoreFields.stringList(document, SUBJECTS));"));
+        assertTrue(mapper.contains("teacher.setNames(FirestoreFields.stringMap(document, NAMES));"));
+        assertTrue(mapper.contains("teacher.setAvailable(FirestoreFields.booleanValue(document, AVAILABLE));"));
+    }
+
+    @Test
+    public void rejectsUnsupportedFieldTypes() {
+        Result result = process("Rated", HEADER
+                + "@FirestoreModel public class Rated {\n"
+                + "    private List<Integer> ratings;\n"
+                + "    public List<Integer> getRatings() { return ratings; }\n"
+                + "    public void setRatings(List<Integer> ratings) { this.ratings = ratings; }\n"
+                + "}");
+
+        assertEquals(1, result.errors.size());
+        assertTrue(result.errors.get(0), result.errors.get(0).startsWith("Unsupported field type"));
+        assertTrue(result.generated.isEmpty());
+    }
+
+    @Test
+    public void rejectsFieldsWithoutSetter() {
+        Result result = process("Named", HEADER
+                + "@FirestoreModel public class Named {\n"
+                + "    private String name;\n"
+                + "    public String getName() { return name; }\n"
+                + "}");
+
+        assertEquals(1, result.errors.size());
+        assertTrue(result.errors.get(0), result.errors.get(0).startsWith("No setter for name"));
+    }
+
+    @Test
+    public void constantNamesFollowTheStoredNames() {
+        assertEquals("ID", MappedField.constantName("id"));
+        assertEquals("PROFILE_IMAGE_URL", MappedField.constantName("profileImageUrl"));
+        assertEquals("REQUESTED_BY_UID", MappedField.constantName("requestedByUid"));
+        assertEquals("IS_GROUP_CHAT", MappedField.constantName("isGroupChat"));
+    }
+
+    private static class Result {
+        final Map<String, String> generated = new HashMap<>();
+        final List<String> errors = new ArrayList<>();
+    }
+
+    private static Result process(String modelName, String modelSource) {
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (String[] dependency : DEPENDENCIES) {
+            sources.add(new Source(dependency[0], dependency[1]));
+        }
+        sources.add(new Source("com.example.bookup.models." + modelName, modelSource));
+
+        Result result = new Result();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(
+                compiler.getStandardFileManager(diagnostics, null, null)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                       JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return new ByteArrayOutputStream() {
+                            @Override
+                            public void close() {
+                                if (location == StandardLocation.SOURCE_OUTPUT) {
+                                    result.generated.put(className, toString());
+                                }
+                            }
+                        };
+                    }
+
+                    // Generated sources are compiled in the next round
+                    @Override
+                    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                        return result.generated.get(className);
+                    }
+                };
+            }
+        };
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                Arrays.asList("-proc:only"), null, sources);
+        task.setProcessors(Collections.singletonList(new MapperProcessor()));
+        task.call();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                result.errors.add(diagnostic.getMessage(null));
+            }
+        }
+        return result;
+    }
+
+    private static class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        Source(String className, String code) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+}